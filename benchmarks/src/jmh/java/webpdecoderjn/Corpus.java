@@ -0,0 +1,85 @@
+package webpdecoderjn;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * The images of one category of the test corpus, read once per benchmark.
+ *
+ * <p>
+ * The corpus is every {@code .webp} file under the directory of the
+ * {@code webpdecoderjn.benchmarks.corpus} system property (the test resources
+ * of the library, set by the build): a few small samples, and the libwebp test
+ * corpus if it was cloned into libwebp-test-data. The files libwebp can't
+ * decode are skipped, and the others are sorted by their features: animations
+ * first, then images with alpha, then lossless and lossy images.
+ */
+@State(Scope.Benchmark)
+public class Corpus {
+    public enum Category {
+        LOSSY,
+        LOSSLESS,
+        ALPHA,
+        ANIMATED
+    }
+
+    @Param({"LOSSY", "LOSSLESS", "ALPHA", "ANIMATED"})
+    public Category category;
+
+    /**
+     * The images of the category, in file name order.
+     */
+    public final List<Image> images = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void load() throws IOException {
+        WebPLoader.init();
+        final Path directory = Paths.get(System.getProperty("webpdecoderjn.benchmarks.corpus", "lib/src/test/resources"));
+        final List<Path> files;
+        try (final Stream<Path> stream = Files.walk(directory)) {
+            files = stream.filter(file -> file.getFileName().toString().endsWith(".webp"))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+        for (final Path file : files) {
+            final byte[] rawData = Files.readAllBytes(file);
+            final WebPFeatures features;
+            try {
+                features = WebPDecoder.probe(rawData);
+                // Some files of the corpus are truncated or invalid on purpose
+                WebPDecoder.decode(rawData);
+            } catch (final WebPDecoderException ex) {
+                continue;
+            }
+            if (categoryOf(features) == this.category) {
+                this.images.add(new Image(file.getFileName().toString(), rawData, features));
+            }
+        }
+        if (this.images.isEmpty()) {
+            throw new IllegalStateException("No " + this.category + " images in " + directory.toAbsolutePath());
+        }
+    }
+
+    private static Category categoryOf(final WebPFeatures features) {
+        if (features.hasAnimation) {
+            return Category.ANIMATED;
+        } else if (features.hasAlpha) {
+            return Category.ALPHA;
+        }
+        return features.format == WebPFeatures.Format.LOSSLESS ? Category.LOSSLESS : Category.LOSSY;
+    }
+
+    public record Image(String name, byte[] rawData, WebPFeatures features) {
+    }
+}
@@ -0,0 +1,146 @@
+package webpdecoderjn;
+
+import com.sun.jna.Memory;
+import com.sun.jna.Pointer;
+import com.sun.jna.ptr.IntByReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import webpdecoderjn.internal.LibWebP;
+import webpdecoderjn.internal.WebPAnimDecoder;
+import webpdecoderjn.internal.WebPData;
+import webpdecoderjn.internal.WebPImages;
+import webpdecoderjn.internal.WebPPixels;
+import webpdecoderjn.internal.WebPStillDecoder;
+
+/**
+ * Measures the steps of a decode separately, for all the frames of all the
+ * images of a category:
+ * <ul>
+ * <li>nativeDecode: libwebp decoding every frame into its own buffer (the
+ * still decoder's output buffer, or the animation decoder's canvas), from
+ * data already in native memory, without reading the pixels</li>
+ * <li>copyOut: copying the canvas of every frame, as decoded by libwebp
+ * during the setup, from native memory into an int array</li>
+ * <li>createImage: wrapping the pixels of every frame, as copied out during
+ * the setup, into a BufferedImage (without copying them)</li>
+ * </ul>
+ * The sum is close to a full decode, minus the parsing of the container and
+ * the copy of the data to native memory.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DecodeStagesBenchmark {
+    @State(Scope.Thread)
+    public static class Stages {
+        final List<Stage> stages = new ArrayList<>();
+        final IntByReference timestampRef = new IntByReference();
+
+        @Setup(Level.Trial)
+        public void setUp(final Corpus corpus) throws WebPDecoderException {
+            final LibWebP lib = WebPLoader.lib();
+            for (final Corpus.Image image : corpus.images) {
+                final WebPFeatures features = image.features();
+                final WebPData data = new WebPData(lib, image.rawData());
+                final Stage stage = new Stage(data, features.width, features.height);
+                if (features.hasAnimation) {
+                    stage.animDecoder = new WebPAnimDecoder(lib, data);
+                    while (stage.animDecoder.hasMoreFrames()) {
+                        stage.addFrame(stage.animDecoder.getNextCanvas(this.timestampRef), stage.width * Integer.BYTES);
+                    }
+                } else {
+                    stage.stillDecoder = new WebPStillDecoder(lib, data);
+                    stage.stillDecoder.decode(null, 0, 0, (buffer, stride, width, height) -> {
+                        stage.addFrame(buffer, stride);
+                        return null;
+                    });
+                }
+                this.stages.add(stage);
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            for (final Stage stage : this.stages) {
+                if (stage.animDecoder != null) {
+                    stage.animDecoder.close();
+                }
+                stage.data.close();
+            }
+        }
+    }
+
+    static final class Stage {
+        final WebPData data;
+        final int width;
+        final int height;
+        // The decoded frames in native memory, copied since libwebp reuses (or frees) its buffers
+        final List<Memory> canvases = new ArrayList<>();
+        // The decoded frames, wrapped into images
+        final List<int[]> pixels = new ArrayList<>();
+        WebPStillDecoder stillDecoder;
+        WebPAnimDecoder animDecoder;
+
+        Stage(final WebPData data, final int width, final int height) {
+            this.data = data;
+            this.width = width;
+            this.height = height;
+        }
+
+        void addFrame(final Pointer buffer, final int stride) {
+            final int[] pixels = WebPPixels.read(buffer, stride, this.width, this.height);
+            final Memory canvas = new Memory((long) pixels.length * Integer.BYTES);
+            canvas.write(0, pixels, 0, pixels.length);
+            this.canvases.add(canvas);
+            this.pixels.add(pixels);
+        }
+    }
+
+    @Benchmark
+    public void nativeDecode(final Stages state, final Blackhole blackhole) throws WebPDecoderException {
+        for (final Stage stage : state.stages) {
+            if (stage.animDecoder != null) {
+                stage.animDecoder.reset();
+                while (stage.animDecoder.hasMoreFrames()) {
+                    blackhole.consume(stage.animDecoder.getNextCanvas(state.timestampRef));
+                }
+            } else {
+                blackhole.consume(stage.stillDecoder.decode(null, 0, 0, (buffer, stride, width, height) -> stride));
+            }
+        }
+    }
+
+    @Benchmark
+    public void copyOut(final Stages state, final Blackhole blackhole) {
+        for (final Stage stage : state.stages) {
+            for (final Memory canvas : stage.canvases) {
+                blackhole.consume(WebPPixels.read(canvas, stage.width * Integer.BYTES, stage.width, stage.height));
+            }
+        }
+    }
+
+    @Benchmark
+    public void createImage(final Stages state, final Blackhole blackhole) {
+        for (final Stage stage : state.stages) {
+            for (final int[] pixels : stage.pixels) {
+                blackhole.consume(WebPImages.createImage(pixels, stage.width, stage.height, WebPColorMode.BGRA));
+            }
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package webpdecoderjn;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Decodes all the images of a category with the public {@link WebPDecoder}
+ * methods, so one operation is the whole category.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DecoderBenchmark {
+    @Benchmark
+    public void decodeBytes(final Corpus corpus, final Blackhole blackhole) throws IOException {
+        for (final Corpus.Image image : corpus.images) {
+            blackhole.consume(WebPDecoder.decode(image.rawData()));
+        }
+    }
+
+    @Benchmark
+    public void decodeStream(final Corpus corpus, final Blackhole blackhole) throws IOException {
+        for (final Corpus.Image image : corpus.images) {
+            blackhole.consume(WebPDecoder.decode(new ByteArrayInputStream(image.rawData())));
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package webpdecoderjn;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Reads all the frames of all the images of a category through ImageIO,
+ * reusing one reader.
+ *
+ * <p>
+ * The random order only differs from the sequential order for animations:
+ * the reader continues from the frame read last when there's no key frame in
+ * between, and otherwise renders the frames again from the closest key frame.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ImageReaderBenchmark {
+    @State(Scope.Thread)
+    public static class Reader {
+        ImageReader reader;
+        // The frame indexes of each image, shuffled with a fixed seed
+        final List<int[]> randomOrders = new ArrayList<>();
+
+        @Setup(Level.Trial)
+        public void setUp(final Corpus corpus) {
+            ImageIO.setUseCache(false);
+            this.reader = ImageIO.getImageReadersByFormatName("webp").next();
+            final Random random = new Random(42);
+            for (final Corpus.Image image : corpus.images) {
+                final List<Integer> order = IntStream.range(0, image.features().frameCount).boxed().collect(Collectors.toList());
+                Collections.shuffle(order, random);
+                this.randomOrders.add(order.stream().mapToInt(Integer::intValue).toArray());
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            this.reader.dispose();
+        }
+    }
+
+    @Benchmark
+    public void readSequential(final Corpus corpus, final Reader state, final Blackhole blackhole) throws IOException {
+        for (final Corpus.Image image : corpus.images) {
+            try (final ImageInputStream input = ImageIO.createImageInputStream(new ByteArrayInputStream(image.rawData()))) {
+                state.reader.setInput(input);
+                for (int imageIndex = 0; imageIndex < image.features().frameCount; ++imageIndex) {
+                    blackhole.consume(state.reader.read(imageIndex));
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public void readRandom(final Corpus corpus, final Reader state, final Blackhole blackhole) throws IOException {
+        for (int i = 0; i < corpus.images.size(); ++i) {
+            try (final ImageInputStream input = ImageIO.createImageInputStream(new ByteArrayInputStream(corpus.images.get(i).rawData()))) {
+                state.reader.setInput(input);
+                for (final int imageIndex : state.randomOrders.get(i)) {
+                    blackhole.consume(state.reader.read(imageIndex));
+                }
+            }
+        }
+    }
+}
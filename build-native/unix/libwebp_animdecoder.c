@@ -1,6 +1,8 @@
 #include <stdio.h>
 #include "include/webp/decode.h"
 #include "include/webp/demux.h"
+#include "include/webp/encode.h"
+#include "include/webp/mux.h"
 
 int main() {
 	// Fake calls so the functions are exported
@@ -15,7 +17,45 @@ int main() {
 	uint8_t** buf;
 	int* timestamp;
 	WebPAnimDecoderGetNext(dec, buf, timestamp);
+	WebPAnimDecoderReset(dec);
 	WebPAnimDecoderDelete(dec);
 	WebPMalloc(30);
 	WebPFree(dec);
+	WebPBitstreamFeatures features;
+	WebPGetFeatures((const uint8_t*) buf, 0, &features);
+	WebPDecoderConfig config;
+	WebPInitDecoderConfig(&config);
+	WebPDecode((const uint8_t*) buf, 0, &config);
+	WebPFreeDecBuffer(&config.output);
+	WebPIDecoder* idec = WebPINewRGB(MODE_RGBA, NULL, 0, 0);
+	WebPIAppend(idec, (const uint8_t*) buf, 0);
+	WebPIDecGetRGB(idec, timestamp, timestamp, timestamp, timestamp);
+	WebPIDelete(idec);
+	WebPDemuxer* dmux = WebPDemux(data);
+	WebPDemuxGetI(dmux, WEBP_FF_FRAME_COUNT);
+	WebPIterator iter;
+	WebPDemuxGetFrame(dmux, 1, &iter);
+	WebPDemuxReleaseIterator(&iter);
+	WebPChunkIterator chunk_iter;
+	WebPDemuxGetChunk(dmux, "ICCP", 1, &chunk_iter);
+	WebPDemuxReleaseChunkIterator(&chunk_iter);
+	WebPDemuxDelete(dmux);
+	WebPConfig enc_config;
+	WebPConfigInit(&enc_config);
+	WebPValidateConfig(&enc_config);
+	WebPPicture picture;
+	WebPPictureInit(&picture);
+	WebPPictureImportRGBA(&picture, (const uint8_t*) buf, 0);
+	WebPPictureImportBGRA(&picture, (const uint8_t*) buf, 0);
+	WebPPictureImportBGRX(&picture, (const uint8_t*) buf, 0);
+	WebPEncode(&enc_config, &picture);
+	WebPPictureFree(&picture);
+	WebPAnimEncoderOptions enc_options;
+	WebPAnimEncoderOptionsInit(&enc_options);
+	WebPAnimEncoder* enc = WebPAnimEncoderNew(1, 1, &enc_options);
+	WebPAnimEncoderAdd(enc, &picture, 0, &enc_config);
+	WebPData webp_data;
+	WebPAnimEncoderAssemble(enc, &webp_data);
+	WebPAnimEncoderGetError(enc);
+	WebPAnimEncoderDelete(enc);
 }
@@ -1,6 +1,8 @@
 #include <stdio.h>
 #include "include/webp/decode.h"
 #include "include/webp/demux.h"
+#include "include/webp/encode.h"
+#include "include/webp/mux.h"
 
 #ifdef _WIN64
 #pragma comment(linker, "/export:WebPMalloc")
@@ -10,6 +12,36 @@
 #pragma comment(linker, "/export:WebPAnimDecoderHasMoreFrames")
 #pragma comment(linker, "/export:WebPAnimDecoderDelete")
 #pragma comment(linker, "/export:WebPAnimDecoderGetNext")
+#pragma comment(linker, "/export:WebPGetFeaturesInternal")
+#pragma comment(linker, "/export:WebPInitDecoderConfigInternal")
+#pragma comment(linker, "/export:WebPDecode")
+#pragma comment(linker, "/export:WebPFreeDecBuffer")
+#pragma comment(linker, "/export:WebPINewRGB")
+#pragma comment(linker, "/export:WebPIAppend")
+#pragma comment(linker, "/export:WebPIDecGetRGB")
+#pragma comment(linker, "/export:WebPIDelete")
+#pragma comment(linker, "/export:WebPDemuxInternal")
+#pragma comment(linker, "/export:WebPDemuxDelete")
+#pragma comment(linker, "/export:WebPDemuxGetI")
+#pragma comment(linker, "/export:WebPDemuxGetFrame")
+#pragma comment(linker, "/export:WebPDemuxReleaseIterator")
+#pragma comment(linker, "/export:WebPAnimDecoderReset")
+#pragma comment(linker, "/export:WebPDemuxGetChunk")
+#pragma comment(linker, "/export:WebPDemuxReleaseChunkIterator")
+#pragma comment(linker, "/export:WebPConfigInitInternal")
+#pragma comment(linker, "/export:WebPValidateConfig")
+#pragma comment(linker, "/export:WebPPictureInitInternal")
+#pragma comment(linker, "/export:WebPPictureImportRGBA")
+#pragma comment(linker, "/export:WebPPictureImportBGRA")
+#pragma comment(linker, "/export:WebPPictureImportBGRX")
+#pragma comment(linker, "/export:WebPPictureFree")
+#pragma comment(linker, "/export:WebPEncode")
+#pragma comment(linker, "/export:WebPAnimEncoderOptionsInitInternal")
+#pragma comment(linker, "/export:WebPAnimEncoderNewInternal")
+#pragma comment(linker, "/export:WebPAnimEncoderAdd")
+#pragma comment(linker, "/export:WebPAnimEncoderAssemble")
+#pragma comment(linker, "/export:WebPAnimEncoderGetError")
+#pragma comment(linker, "/export:WebPAnimEncoderDelete")
 #else
 #pragma comment(linker, "/export:_WebPMalloc")
 #pragma comment(linker, "/export:_WebPFree")
@@ -18,4 +50,34 @@
 #pragma comment(linker, "/export:_WebPAnimDecoderHasMoreFrames")
 #pragma comment(linker, "/export:_WebPAnimDecoderDelete")
 #pragma comment(linker, "/export:_WebPAnimDecoderGetNext")
+#pragma comment(linker, "/export:_WebPGetFeaturesInternal")
+#pragma comment(linker, "/export:_WebPInitDecoderConfigInternal")
+#pragma comment(linker, "/export:_WebPDecode")
+#pragma comment(linker, "/export:_WebPFreeDecBuffer")
+#pragma comment(linker, "/export:_WebPINewRGB")
+#pragma comment(linker, "/export:_WebPIAppend")
+#pragma comment(linker, "/export:_WebPIDecGetRGB")
+#pragma comment(linker, "/export:_WebPIDelete")
+#pragma comment(linker, "/export:_WebPDemuxInternal")
+#pragma comment(linker, "/export:_WebPDemuxDelete")
+#pragma comment(linker, "/export:_WebPDemuxGetI")
+#pragma comment(linker, "/export:_WebPDemuxGetFrame")
+#pragma comment(linker, "/export:_WebPDemuxReleaseIterator")
+#pragma comment(linker, "/export:_WebPAnimDecoderReset")
+#pragma comment(linker, "/export:_WebPDemuxGetChunk")
+#pragma comment(linker, "/export:_WebPDemuxReleaseChunkIterator")
+#pragma comment(linker, "/export:_WebPConfigInitInternal")
+#pragma comment(linker, "/export:_WebPValidateConfig")
+#pragma comment(linker, "/export:_WebPPictureInitInternal")
+#pragma comment(linker, "/export:_WebPPictureImportRGBA")
+#pragma comment(linker, "/export:_WebPPictureImportBGRA")
+#pragma comment(linker, "/export:_WebPPictureImportBGRX")
+#pragma comment(linker, "/export:_WebPPictureFree")
+#pragma comment(linker, "/export:_WebPEncode")
+#pragma comment(linker, "/export:_WebPAnimEncoderOptionsInitInternal")
+#pragma comment(linker, "/export:_WebPAnimEncoderNewInternal")
+#pragma comment(linker, "/export:_WebPAnimEncoderAdd")
+#pragma comment(linker, "/export:_WebPAnimEncoderAssemble")
+#pragma comment(linker, "/export:_WebPAnimEncoderGetError")
+#pragma comment(linker, "/export:_WebPAnimEncoderDelete")
 #endif
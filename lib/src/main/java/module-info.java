@@ -2,6 +2,7 @@ module webpdecoderjn {
     requires com.sun.jna;
     requires java.desktop;
     requires java.logging;
+    requires static jdk.jfr;
 
     exports webpdecoderjn;
     exports net.vinrobot.imageio.plugins.webp;
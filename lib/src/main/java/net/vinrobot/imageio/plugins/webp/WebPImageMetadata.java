@@ -18,6 +18,10 @@ public final class WebPImageMetadata extends IIOMetadata {
 		this.timestamp = timestamp;
 	}
 
+	int getDelay() {
+		return this.delay;
+	}
+
 	@Override
 	public boolean isReadOnly() {
 		return true;
@@ -0,0 +1,49 @@
+package net.vinrobot.imageio.plugins.webp;
+
+import webpdecoderjn.WebPColorMode;
+
+import javax.imageio.ImageReadParam;
+import java.util.Objects;
+
+/**
+ * Read parameters with the WebP specific decoding options.
+ *
+ * <p>
+ * The options apply to each read. Changing them between two reads of an
+ * animation restarts the rendering from the closest key frame.
+ */
+public class WebPImageReadParam extends ImageReadParam {
+	private WebPColorMode colorMode = WebPColorMode.BGRA;
+	private boolean useThreads;
+
+	/**
+	 * Set the byte order libwebp decodes the pixels in, which determines the
+	 * color model of the decoded images.
+	 *
+	 * <p>
+	 * A destination type set with {@link #setDestinationType} takes
+	 * precedence.
+	 *
+	 * @param colorMode The color mode (default {@link WebPColorMode#BGRA})
+	 */
+	public void setColorMode(final WebPColorMode colorMode) {
+		this.colorMode = Objects.requireNonNull(colorMode, "colorMode == null");
+	}
+
+	public WebPColorMode getColorMode() {
+		return this.colorMode;
+	}
+
+	/**
+	 * Let libwebp use multiple threads for decoding.
+	 *
+	 * @param useThreads True to use multi-threaded decoding (default false)
+	 */
+	public void setUseThreads(final boolean useThreads) {
+		this.useThreads = useThreads;
+	}
+
+	public boolean isUseThreads() {
+		return this.useThreads;
+	}
+}
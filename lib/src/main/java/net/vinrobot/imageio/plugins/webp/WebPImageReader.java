@@ -1,26 +1,36 @@
 package net.vinrobot.imageio.plugins.webp;
 
+import webpdecoderjn.WebPColorMode;
+import webpdecoderjn.WebPMemoryBudget;
 import webpdecoderjn.internal.LibWebP;
-import webpdecoderjn.internal.WebPAnimDecoder;
+import webpdecoderjn.internal.WebPAnimCompositor;
 import webpdecoderjn.internal.WebPAnimInfo;
+import webpdecoderjn.internal.WebPBitstreamFeatures;
 import webpdecoderjn.internal.WebPData;
+import webpdecoderjn.internal.WebPDemuxFrame;
+import webpdecoderjn.internal.WebPDemuxer;
 import webpdecoderjn.internal.WebPFrame;
+import webpdecoderjn.internal.WebPEvents;
+import webpdecoderjn.internal.WebPImages;
+import webpdecoderjn.internal.WebPStillDecoder;
 
+import javax.imageio.IIOException;
 import javax.imageio.ImageReadParam;
 import javax.imageio.ImageReader;
 import javax.imageio.ImageTypeSpecifier;
 import javax.imageio.metadata.IIOMetadata;
 import javax.imageio.stream.ImageInputStream;
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.awt.Point;
+import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
-import java.awt.image.ColorModel;
-import java.awt.image.DataBufferInt;
-import java.awt.image.DirectColorModel;
-import java.awt.image.SampleModel;
-import java.awt.image.WritableRaster;
 import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
-import java.util.ArrayList;
+import java.nio.file.Path;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Objects;
@@ -29,11 +39,20 @@ public class WebPImageReader extends ImageReader {
 	private static final int DEFAULT_BUFFER_SIZE = 8192;
 	private static final int EOF = -1;
 
-	private final List<Frame> frames = new ArrayList<>();
 	private final LibWebP lib;
 
+	private WebPColorMode colorMode = WebPColorMode.BGRA;
+	private boolean useThreads;
+
+	// The image data, kept to return the metadata chunks as slices of it
+	private ByteBuffer input;
+	// Native memory the data is copied to, reused (and only grown) across inputs
+	private ByteBuffer nativeInput;
 	private WebPData webpData;
-	private WebPAnimDecoder webpAnimDecoder;
+	private WebPBitstreamFeatures webpFeatures;
+	private WebPDemuxer webpDemuxer;
+	private List<WebPDemuxFrame> webpFrames;
+	private WebPAnimCompositor webpCompositor;
 	private WebPAnimInfo webpAnimInfo;
 
 	WebPImageReader(final WebPImageReaderSpi originatingProvider, final LibWebP lib) {
@@ -73,62 +92,149 @@ public class WebPImageReader extends ImageReader {
 
 	private WebPData getWebPData() throws IOException {
 		if (this.webpData == null) {
-			final byte[] data = Objects.requireNonNull(this.getData(), "data == null");
-			if (data.length == 0) {
-				throw new IllegalArgumentException("data.length == 0");
+			// Files are mapped instead of being read into the Java heap
+			final Object input = this.getInput();
+			if (input instanceof File) {
+				this.input = WebPData.mapFile(((File) input).toPath());
+			} else if (input instanceof Path) {
+				this.input = WebPData.mapFile((Path) input);
+			} else {
+				final byte[] data = Objects.requireNonNull(this.getData(), "data == null");
+				if (data.length == 0) {
+					throw new IllegalArgumentException("data.length == 0");
+				}
+				// The metadata chunks are sliced from the array, only the native copy is reused
+				this.input = ByteBuffer.wrap(data);
+				if (this.nativeInput == null || this.nativeInput.capacity() < data.length) {
+					this.nativeInput = ByteBuffer.allocateDirect(data.length);
+				}
+				this.nativeInput.clear();
+				this.nativeInput.put(data).flip();
 			}
-			this.webpData = new WebPData(this.lib, data);
+			// Direct buffers (the mapping or the native copy) are used in place
+			this.webpData = new WebPData(this.lib, this.input.isDirect() ? this.input : this.nativeInput);
 		}
 		return this.webpData;
 	}
 
-	private WebPAnimDecoder getWebPAnimDecoder() throws IOException {
-		if (this.webpAnimDecoder == null) {
+	private WebPDemuxer getWebPDemuxer() throws IOException {
+		if (this.webpDemuxer == null) {
 			final WebPData webpData = Objects.requireNonNull(this.getWebPData(), "webpData == null");
-			this.webpAnimDecoder = new WebPAnimDecoder(this.lib, webpData);
+			this.webpDemuxer = new WebPDemuxer(this.lib, webpData);
+		}
+		return this.webpDemuxer;
+	}
+
+	private List<WebPDemuxFrame> getWebPFrames() throws IOException {
+		if (this.webpFrames == null) {
+			this.webpFrames = this.getWebPDemuxer().getFrames();
+		}
+		return this.webpFrames;
+	}
+
+	private WebPAnimCompositor getWebPCompositor() throws IOException {
+		final int colorspace = WebPImages.toColorspace(this.colorMode);
+		if (this.webpCompositor == null || this.webpCompositor.getColorMode() != colorspace || this.webpCompositor.isUseThreads() != this.useThreads) {
+			final WebPAnimInfo info = this.getWebPAnimInfo();
+			this.webpCompositor = new WebPAnimCompositor(this.lib, this.getWebPFrames(), info.canvasWidth(), info.canvasHeight(), colorspace, this.useThreads);
+		}
+		return this.webpCompositor;
+	}
+
+	private WebPBitstreamFeatures getWebPFeatures() throws IOException {
+		if (this.webpFeatures == null) {
+			this.webpFeatures = new WebPStillDecoder(this.lib, this.getWebPData()).getFeatures();
 		}
-		return this.webpAnimDecoder;
+		return this.webpFeatures;
 	}
 
 	private WebPAnimInfo getWebPAnimInfo() throws IOException {
 		if (this.webpAnimInfo == null) {
-			this.webpAnimInfo = this.getWebPAnimDecoder().getInfo();
+			final WebPBitstreamFeatures features = this.getWebPFeatures();
+			if (features.hasAnimation()) {
+				final WebPDemuxer demuxer = this.getWebPDemuxer();
+				this.webpAnimInfo = new WebPAnimInfo(demuxer.getI(LibWebP.WEBP_FF_CANVAS_WIDTH), demuxer.getI(LibWebP.WEBP_FF_CANVAS_HEIGHT),
+						demuxer.getI(LibWebP.WEBP_FF_LOOP_COUNT), demuxer.getI(LibWebP.WEBP_FF_FRAME_COUNT));
+			} else {
+				// Still images don't need the animation decoder, so describe them as a single frame animation
+				this.webpAnimInfo = new WebPAnimInfo(features.width(), features.height(), 1, 1);
+			}
 		}
 		return this.webpAnimInfo;
 	}
 
+	@Override
+	public ImageReadParam getDefaultReadParam() {
+		return new WebPImageReadParam();
+	}
+
 	@Override
 	public IIOMetadata getStreamMetadata() throws IOException {
-		return new WebPStreamMetadata(this.getWebPAnimInfo());
+		final WebPAnimInfo info = this.getWebPAnimInfo();
+		if (this.isIgnoringMetadata()) {
+			return new WebPStreamMetadata(info, null, null, null);
+		}
+
+		// The chunks are slices of the input, so nothing is copied or decoded
+		final WebPDemuxer demuxer = this.getWebPDemuxer();
+		return new WebPStreamMetadata(info, demuxer.getChunk(WebPDemuxer.CHUNK_ICCP, this.input),
+				demuxer.getChunk(WebPDemuxer.CHUNK_EXIF, this.input), demuxer.getChunk(WebPDemuxer.CHUNK_XMP, this.input));
 	}
 
 	@Override
 	public int getNumImages(final boolean allowSearch) throws IOException {
-		if (allowSearch) {
-			this.readAllFrames();
-			return this.frames.size();
-		} else {
-			return -1;
-		}
+		// The frame count is in the headers, so there's never a need to search
+		return this.getWebPAnimInfo().frameCount();
 	}
 
 	@Override
-	public Iterator<ImageTypeSpecifier> getImageTypes(final int imageIndex) {
-		return null;
+	public Iterator<ImageTypeSpecifier> getImageTypes(final int imageIndex) throws IOException {
+		if (imageIndex < 0) {
+			throw new IndexOutOfBoundsException("imageIndex < 0");
+		}
+		if (imageIndex >= this.getWebPAnimInfo().frameCount()) {
+			throw new IndexOutOfBoundsException("imageIndex >= frameCount");
+		}
+		// Both are decoded directly by libwebp (BGRA and premultiplied bgrA)
+		return List.of(
+				ImageTypeSpecifier.createFromBufferedImageType(BufferedImage.TYPE_INT_ARGB),
+				ImageTypeSpecifier.createFromBufferedImageType(BufferedImage.TYPE_INT_ARGB_PRE)
+		).iterator();
+	}
+
+	private WebPColorMode getColorMode(final ImageReadParam param, final WebPColorMode defaultColorMode) throws IIOException {
+		if (param != null && param.getDestinationType() != null) {
+			final WebPColorMode colorMode = WebPImages.fromImageType(param.getDestinationType().getBufferedImageType());
+			if (colorMode == null) {
+				throw new IIOException("Unsupported destination type");
+			}
+			return colorMode;
+		} else if (param instanceof WebPImageReadParam) {
+			return ((WebPImageReadParam) param).getColorMode();
+		} else {
+			return defaultColorMode;
+		}
 	}
 
 	@Override
 	public IIOMetadata getImageMetadata(final int imageIndex) throws IOException {
-		this.read(imageIndex);
+		if (imageIndex < 0) {
+			throw new IndexOutOfBoundsException("imageIndex < 0");
+		}
+		if (imageIndex >= this.getWebPAnimInfo().frameCount()) {
+			throw new IndexOutOfBoundsException("imageIndex >= frameCount");
+		}
+		if (!this.getWebPFeatures().hasAnimation()) {
+			return new WebPImageMetadata(0, 0);
+		}
 
-		if (imageIndex == 0) {
-			final int timestamp = this.frames.get(imageIndex).timestamp;
-			return new WebPImageMetadata(timestamp, timestamp);
-		} else {
-			final int timestamp0 = this.frames.get(imageIndex - 1).timestamp;
-			final int timestamp1 = this.frames.get(imageIndex).timestamp;
-			return new WebPImageMetadata(timestamp1 - timestamp0, timestamp1);
+		// Frames end at the sum of the durations so far, like the timestamps of the animation decoder
+		final List<WebPDemuxFrame> frames = this.getWebPFrames();
+		int timestamp = 0;
+		for (int i = 0; i <= imageIndex; ++i) {
+			timestamp += frames.get(i).duration();
 		}
+		return new WebPImageMetadata(frames.get(imageIndex).duration(), timestamp);
 	}
 
 	@Override
@@ -155,73 +261,277 @@ public class WebPImageReader extends ImageReader {
 		return info.canvasHeight();
 	}
 
-	private void readAllFrames() throws IOException {
-		try {
-			this.read(Integer.MAX_VALUE);
-		} catch (final IndexOutOfBoundsException ex) {
-			// Ignore
+	@Override
+	public BufferedImage read(final int imageIndex, final ImageReadParam param) throws IOException {
+		if (imageIndex < 0) {
+			throw new IndexOutOfBoundsException("imageIndex < 0");
 		}
+
+		final WebPEvents.Decode event = WebPEvents.beginDecode();
+		final WebPMemoryBudget budget = WebPMemoryBudget.getGlobal();
+		final BufferedImage image = budget != null ? this.readWithinBudget(budget, imageIndex, param) : this.decode(imageIndex, param);
+		if (event != null) {
+			final WebPAnimInfo info = this.getWebPAnimInfo();
+			event.source = WebPImageReader.class.getSimpleName();
+			event.inputBytes = this.input.remaining();
+			event.canvasWidth = info.canvasWidth();
+			event.canvasHeight = info.canvasHeight();
+			event.frameCount = info.frameCount();
+			event.commit();
+		}
+		return image;
 	}
 
-	@Override
-	public BufferedImage read(final int imageIndex, final ImageReadParam param) throws IOException {
+	/**
+	 * Reserves the memory of a read in the budget before decoding. When the
+	 * budget downgrades the read, the image is subsampled until it fits.
+	 */
+	private BufferedImage readWithinBudget(final WebPMemoryBudget budget, final int imageIndex, final ImageReadParam param) throws IOException {
+		final WebPAnimInfo info = this.getWebPAnimInfo();
+		final Rectangle region = getSourceRegion(param, info.canvasWidth(), info.canvasHeight());
+		final int xPeriod = param != null ? param.getSourceXSubsampling() : 1;
+		final int yPeriod = param != null ? param.getSourceYSubsampling() : 1;
+
+		// Animations are rendered on the canvas of the compositor, from frames decoded by libwebp
+		final long canvasBytes = (long) info.canvasWidth() * info.canvasHeight() * Integer.BYTES;
+		final long fixedBytes = this.getWebPFeatures().hasAnimation() ? 2 * canvasBytes : 0;
+		// The pixels are decoded to native memory, then read into the image
+		final long bytesPerPixel = 2L * Integer.BYTES;
+		final long bytes = fixedBytes + bytesPerPixel * getPixelCount(region, xPeriod, yPeriod);
+		// A destination image can't change size
+		final boolean resizable = param == null || param.getDestination() == null;
+		final long minBytes = resizable ? fixedBytes + bytesPerPixel : bytes;
+
+		try (final WebPMemoryBudget.Reservation reservation = budget.reserve(minBytes, bytes)) {
+			if (reservation.getBytes() >= bytes) {
+				return this.decode(imageIndex, param);
+			}
+
+			int factor = 2;
+			while (fixedBytes + bytesPerPixel * getPixelCount(region, xPeriod * factor, yPeriod * factor) > reservation.getBytes()) {
+				++factor;
+			}
+			return this.decode(imageIndex, subsample(param, xPeriod * factor, yPeriod * factor));
+		}
+	}
+
+	private static long getPixelCount(final Rectangle region, final int xPeriod, final int yPeriod) {
+		return (long) ((region.width + xPeriod - 1) / xPeriod) * ((region.height + yPeriod - 1) / yPeriod);
+	}
+
+	/**
+	 * Copies the read options with a larger subsampling.
+	 */
+	private static ImageReadParam subsample(final ImageReadParam param, final int xPeriod, final int yPeriod) {
+		final WebPImageReadParam subsampled = new WebPImageReadParam();
 		if (param != null) {
-			throw new UnsupportedOperationException("ImageReadParam not supported");
+			subsampled.setSourceRegion(param.getSourceRegion());
+			subsampled.setSourceSubsampling(xPeriod, yPeriod, param.getSubsamplingXOffset(), param.getSubsamplingYOffset());
+			subsampled.setDestinationType(param.getDestinationType());
+			if (param instanceof WebPImageReadParam) {
+				subsampled.setColorMode(((WebPImageReadParam) param).getColorMode());
+				subsampled.setUseThreads(((WebPImageReadParam) param).isUseThreads());
+			}
+		} else {
+			subsampled.setSourceSubsampling(xPeriod, yPeriod, 0, 0);
 		}
-		if (imageIndex < 0) {
-			throw new IndexOutOfBoundsException("imageIndex < 0");
+		return subsampled;
+	}
+
+	private BufferedImage decode(final int imageIndex, final ImageReadParam param) throws IOException {
+		// Frames are rendered on demand, so the options of each read apply
+		this.useThreads = param instanceof WebPImageReadParam && ((WebPImageReadParam) param).isUseThreads();
+		final BufferedImage destination = param != null ? param.getDestination() : null;
+		if (destination == null) {
+			this.colorMode = this.getColorMode(param, WebPColorMode.BGRA);
+			return this.readImage(imageIndex, param);
+		}
+
+		final WebPColorMode colorMode = WebPImages.fromImageType(destination.getType());
+		if (colorMode == null) {
+			throw new IIOException("Unsupported destination type");
+		}
+		this.colorMode = colorMode;
+		if (!this.getWebPFeatures().hasAnimation()) {
+			if (imageIndex > 0) {
+				throw new IndexOutOfBoundsException("imageIndex >= frameCount");
+			}
+			this.readStill(param, destination, colorMode);
+			return destination;
 		}
-		if (imageIndex < this.frames.size()) {
-			return this.frames.get(imageIndex).image;
+
+		// Animation frames are composed by the reader, so copy (and convert if needed) the frame
+		final BufferedImage image = this.readImage(imageIndex, param);
+		final Point offset = param.getDestinationOffset();
+		final Graphics2D graphics = destination.createGraphics();
+		try {
+			graphics.setComposite(AlphaComposite.Src);
+			graphics.drawImage(image, offset.x, offset.y, null);
+		} finally {
+			graphics.dispose();
 		}
+		return destination;
+	}
 
-		final WebPAnimDecoder decoder = this.getWebPAnimDecoder();
+	/**
+	 * Decodes a still image directly into the destination image, without
+	 * keeping it in the reader.
+	 */
+	private void readStill(final ImageReadParam param, final BufferedImage destination, final WebPColorMode colorMode) throws IOException {
 		final WebPAnimInfo info = this.getWebPAnimInfo();
+		final Rectangle region = getSourceRegion(param, info.canvasWidth(), info.canvasHeight());
+		final int xPeriod = param.getSourceXSubsampling();
+		final int yPeriod = param.getSourceYSubsampling();
+		final int width = (region.width + xPeriod - 1) / xPeriod;
+		final int height = (region.height + yPeriod - 1) / yPeriod;
+
+		final Point offset = param.getDestinationOffset();
+		if (offset.x < 0 || offset.y < 0 || offset.x + width > destination.getWidth() || offset.y + height > destination.getHeight()) {
+			throw new IIOException("The image doesn't fit in the destination");
+		}
 
-		while (decoder.hasMoreFrames()) {
-			final WebPFrame frame = decoder.getNext(info);
-			final BufferedImage image = createImage(frame.pixels(), info.canvasWidth(), info.canvasHeight());
-			this.frames.add(new Frame(image, frame.timestamp()));
-			if (this.frames.size() - 1 == imageIndex) {
-				return image;
+		final boolean cropping = region.width != info.canvasWidth() || region.height != info.canvasHeight();
+		final boolean scaling = xPeriod != 1 || yPeriod != 1;
+		final boolean useThreads = param instanceof WebPImageReadParam ? ((WebPImageReadParam) param).isUseThreads() : this.useThreads;
+		final WebPImages.Pixels pixels = WebPImages.getPixels(destination);
+		new WebPStillDecoder(this.lib, this.getWebPData(), WebPImages.toColorspace(colorMode), useThreads)
+				.decode(cropping ? region : null, scaling ? width : 0, scaling ? height : 0,
+						pixels.data(), pixels.offset() + offset.y * pixels.scanline() + offset.x, pixels.scanline());
+	}
+
+	private BufferedImage readImage(final int imageIndex, final ImageReadParam param) throws IOException {
+		final WebPAnimInfo info = this.getWebPAnimInfo();
+		if (!isSourceAreaSet(param)) {
+			return this.readFrame(imageIndex);
+		}
+
+		final Rectangle region = getSourceRegion(param, info.canvasWidth(), info.canvasHeight());
+		final int xPeriod = param.getSourceXSubsampling();
+		final int yPeriod = param.getSourceYSubsampling();
+		final int width = (region.width + xPeriod - 1) / xPeriod;
+		final int height = (region.height + yPeriod - 1) / yPeriod;
+
+		if (!this.getWebPFeatures().hasAnimation()) {
+			if (imageIndex > 0) {
+				throw new IndexOutOfBoundsException("imageIndex >= frameCount");
 			}
+			// Let libwebp crop and scale while decoding instead of decoding the full size image
+			final boolean cropping = region.width != info.canvasWidth() || region.height != info.canvasHeight();
+			final boolean scaling = xPeriod != 1 || yPeriod != 1;
+			final WebPColorMode colorMode = this.getColorMode(param, this.colorMode);
+			final boolean useThreads = param instanceof WebPImageReadParam ? ((WebPImageReadParam) param).isUseThreads() : this.useThreads;
+			final WebPEvents.Frame event = WebPEvents.beginFrame();
+			final long nativeStart = event != null ? System.nanoTime() : 0;
+			final WebPFrame frame = new WebPStillDecoder(this.lib, this.getWebPData(), WebPImages.toColorspace(colorMode), useThreads)
+					.decode(cropping ? region : null, scaling ? width : 0, scaling ? height : 0);
+			final long imageStart = event != null ? System.nanoTime() : 0;
+			final BufferedImage image = WebPImages.createImage(frame.pixels(), width, height, colorMode);
+			commitFrameEvent(event, imageIndex, image, nativeStart, imageStart, imageStart);
+			return image;
 		}
 
-		// Should never happen since we check imageIndex < info.frameCount() unless the webp file is malformed.
-		throw new IndexOutOfBoundsException("imageIndex >= frameCount");
+		final WebPEvents.Frame event = WebPEvents.beginFrame();
+		final long nativeStart = event != null ? System.nanoTime() : 0;
+		final int[] pixels = this.renderFrame(imageIndex);
+		final long copyStart = event != null ? System.nanoTime() : 0;
+		final int[] area = new int[width * height];
+		for (int y = 0; y < height; ++y) {
+			final int sourceRow = (region.y + y * yPeriod) * info.canvasWidth();
+			for (int x = 0; x < width; ++x) {
+				area[y * width + x] = pixels[sourceRow + region.x + x * xPeriod];
+			}
+		}
+		final long imageStart = event != null ? System.nanoTime() : 0;
+		final BufferedImage image = WebPImages.createImage(area, width, height, this.colorMode);
+		commitFrameEvent(event, imageIndex, image, nativeStart, copyStart, imageStart);
+		return image;
 	}
 
-	private static BufferedImage createImage(final int[] pixels, final int width, final int height) {
-		assert pixels.length == width * height;
-		final ColorModel colorModel = new DirectColorModel(32, 0x000000ff, 0x0000ff00, 0x00ff0000, 0xff000000);
-		final SampleModel sampleModel = colorModel.createCompatibleSampleModel(width, height);
-		final DataBufferInt dataBufferInt = new DataBufferInt(pixels, width * height);
-		final WritableRaster writableRaster = WritableRaster.createWritableRaster(sampleModel, dataBufferInt, null);
-		return new BufferedImage(colorModel, writableRaster, false, null);
+	private static boolean isSourceAreaSet(final ImageReadParam param) {
+		return param != null && (param.getSourceRegion() != null
+				|| param.getSourceXSubsampling() != 1 || param.getSourceYSubsampling() != 1
+				|| param.getSubsamplingXOffset() != 0 || param.getSubsamplingYOffset() != 0);
+	}
+
+	private BufferedImage readFrame(final int imageIndex) throws IOException {
+		final WebPAnimInfo info = this.getWebPAnimInfo();
+		if (!this.getWebPFeatures().hasAnimation()) {
+			if (imageIndex > 0) {
+				throw new IndexOutOfBoundsException("imageIndex >= frameCount");
+			}
+			final WebPEvents.Frame event = WebPEvents.beginFrame();
+			final long nativeStart = event != null ? System.nanoTime() : 0;
+			final WebPFrame frame = new WebPStillDecoder(this.lib, this.getWebPData(), WebPImages.toColorspace(this.colorMode), this.useThreads).decode();
+			final long imageStart = event != null ? System.nanoTime() : 0;
+			final BufferedImage image = WebPImages.createImage(frame.pixels(), info.canvasWidth(), info.canvasHeight(), this.colorMode);
+			commitFrameEvent(event, imageIndex, image, nativeStart, imageStart, imageStart);
+			return image;
+		}
+
+		final WebPEvents.Frame event = WebPEvents.beginFrame();
+		final long nativeStart = event != null ? System.nanoTime() : 0;
+		final int[] canvas = this.renderFrame(imageIndex);
+		final long copyStart = event != null ? System.nanoTime() : 0;
+		final int[] pixels = canvas.clone();
+		final long imageStart = event != null ? System.nanoTime() : 0;
+		final BufferedImage image = WebPImages.createImage(pixels, info.canvasWidth(), info.canvasHeight(), this.colorMode);
+		commitFrameEvent(event, imageIndex, image, nativeStart, copyStart, imageStart);
+		return image;
+	}
+
+	/**
+	 * Commits a frame event with the time of each step. For still images
+	 * libwebp copies the pixels while decoding, so there's no copy step.
+	 */
+	private static void commitFrameEvent(final WebPEvents.Frame event, final int imageIndex, final BufferedImage image,
+	                                     final long nativeStart, final long copyStart, final long imageStart) {
+		if (event == null) {
+			return;
+		}
+		event.frameIndex = imageIndex;
+		event.width = image.getWidth();
+		event.height = image.getHeight();
+		event.nativeTime = copyStart - nativeStart;
+		event.copyTime = imageStart - copyStart;
+		event.imageTime = System.nanoTime() - imageStart;
+		event.commit();
+	}
+
+	/**
+	 * Renders a frame of the animation, decoding only the frames from the
+	 * closest key frame (or from the last rendered frame).
+	 *
+	 * @return The canvas of the compositor, only valid until the next render
+	 */
+	private int[] renderFrame(final int imageIndex) throws IOException {
+		if (imageIndex >= this.getWebPAnimInfo().frameCount()) {
+			throw new IndexOutOfBoundsException("imageIndex >= frameCount");
+		}
+		return this.getWebPCompositor().render(imageIndex);
 	}
 
 	@Override
 	public void dispose() {
 		super.dispose();
 		this.setInput(null);
+		this.nativeInput = null;
 	}
 
 	private void resetInternalState() {
-		this.frames.clear();
 		this.webpAnimInfo = null;
-		if (this.webpAnimDecoder != null) {
-			this.webpAnimDecoder.close();
-			this.webpAnimDecoder = null;
+		this.webpFeatures = null;
+		this.colorMode = WebPColorMode.BGRA;
+		this.useThreads = false;
+		this.webpCompositor = null;
+		this.webpFrames = null;
+		if (this.webpDemuxer != null) {
+			this.webpDemuxer.close();
+			this.webpDemuxer = null;
 		}
 		if (this.webpData != null) {
 			this.webpData.close();
 			this.webpData = null;
 		}
-	}
-
-	private record Frame(
-			BufferedImage image,
-			int timestamp
-	) {
+		this.input = null;
 	}
 }
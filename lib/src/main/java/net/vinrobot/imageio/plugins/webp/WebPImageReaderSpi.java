@@ -6,8 +6,12 @@ import webpdecoderjn.internal.Loader;
 import javax.imageio.ImageReader;
 import javax.imageio.spi.ImageReaderSpi;
 import javax.imageio.stream.ImageInputStream;
+import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Locale;
 import java.util.Objects;
 
@@ -20,8 +24,8 @@ public final class WebPImageReaderSpi extends ImageReaderSpi {
 				new String[]{"wbp", "webp"},
 				new String[]{"image/webp", "image/x-webp"},
 				WebPImageReader.class.getName(),
-				new Class[]{ImageInputStream.class, byte[].class},
-				null,
+				new Class[]{ImageInputStream.class, byte[].class, File.class, Path.class},
+				new String[]{WebPImageWriterSpi.class.getName()},
 				false,
 				null,
 				null,
@@ -41,6 +45,10 @@ public final class WebPImageReaderSpi extends ImageReaderSpi {
 			return canDecodeInput((ImageInputStream) source);
 		} else if (source instanceof byte[]) {
 			return canDecodeInput((byte[]) source);
+		} else if (source instanceof File) {
+			return canDecodeInput(((File) source).toPath());
+		} else if (source instanceof Path) {
+			return canDecodeInput((Path) source);
 		} else {
 			return false;
 		}
@@ -112,6 +120,15 @@ public final class WebPImageReaderSpi extends ImageReaderSpi {
 		}
 	}
 
+	public boolean canDecodeInput(final Path path) throws IOException {
+		if (!Files.isRegularFile(path)) {
+			return false;
+		}
+		try (final InputStream inputStream = Files.newInputStream(path)) {
+			return canDecodeInput(inputStream.readNBytes(16));
+		}
+	}
+
 	private static int readInt(final byte[] buffer, final int offset) {
 		return buffer[offset] | buffer[offset + 1] << 8 | buffer[offset + 2] << 16 | buffer[offset + 3] << 24;
 	}
@@ -0,0 +1,106 @@
+package net.vinrobot.imageio.plugins.webp;
+
+import javax.imageio.ImageWriteParam;
+import java.util.Locale;
+
+/**
+ * Write parameters with the WebP specific encoding options.
+ *
+ * <p>
+ * The compression types are {@code "Lossy"} (the default) and
+ * {@code "Lossless"}. The compression quality maps to the libwebp quality
+ * (0 to 100), which for lossless encoding is the compression effort.
+ *
+ * <p>
+ * When writing a sequence, the frame delay is used for the images that don't
+ * come with a {@link WebPImageMetadata}, and the loop count is taken from the
+ * parameters of the first image.
+ */
+public class WebPImageWriteParam extends ImageWriteParam {
+	public static final String LOSSY = "Lossy";
+	public static final String LOSSLESS = "Lossless";
+
+	static final float DEFAULT_QUALITY = 0.75f;
+	static final int DEFAULT_METHOD = 4;
+	static final int DEFAULT_FRAME_DELAY = 100;
+
+	private int method = DEFAULT_METHOD;
+	private boolean useThreads;
+	private int frameDelay = DEFAULT_FRAME_DELAY;
+	private int loopCount;
+
+	public WebPImageWriteParam(final Locale locale) {
+		super(locale);
+		this.canWriteCompressed = true;
+		this.compressionTypes = new String[]{LOSSY, LOSSLESS};
+		this.compressionType = LOSSY;
+		this.compressionQuality = DEFAULT_QUALITY;
+	}
+
+	@Override
+	public boolean isCompressionLossless() {
+		super.isCompressionLossless();
+		return LOSSLESS.equals(this.getCompressionType());
+	}
+
+	/**
+	 * Set the trade-off between encoding speed and size.
+	 *
+	 * @param method The method, between 0 (fastest) and 6 (slowest, smallest) (default 4)
+	 */
+	public void setMethod(final int method) {
+		if (method < 0 || method > 6) {
+			throw new IllegalArgumentException("Method must be between 0 and 6");
+		}
+		this.method = method;
+	}
+
+	public int getMethod() {
+		return this.method;
+	}
+
+	/**
+	 * Let libwebp use multiple threads for encoding.
+	 *
+	 * @param useThreads True to use multi-threaded encoding (default false)
+	 */
+	public void setUseThreads(final boolean useThreads) {
+		this.useThreads = useThreads;
+	}
+
+	public boolean isUseThreads() {
+		return this.useThreads;
+	}
+
+	/**
+	 * Set how long a frame of a sequence is shown.
+	 *
+	 * @param frameDelay The delay in milliseconds (default 100)
+	 */
+	public void setFrameDelay(final int frameDelay) {
+		if (frameDelay <= 0) {
+			throw new IllegalArgumentException("Frame delay must be positive");
+		}
+		this.frameDelay = frameDelay;
+	}
+
+	public int getFrameDelay() {
+		return this.frameDelay;
+	}
+
+	/**
+	 * Set how many times a sequence is played.
+	 *
+	 * @param loopCount The loop count, 0 for infinite (default 0)
+	 */
+	public void setLoopCount(final int loopCount) {
+		if (loopCount < 0 || loopCount > 0xffff) {
+			throw new IllegalArgumentException("Loop count must be between 0 and 65535");
+		}
+		this.loopCount = loopCount;
+	}
+
+	public int getLoopCount() {
+		return this.loopCount;
+	}
+}
@@ -0,0 +1,253 @@
+package net.vinrobot.imageio.plugins.webp;
+
+import webpdecoderjn.internal.LibWebP;
+import webpdecoderjn.internal.WebPAnimEncoder;
+import webpdecoderjn.internal.WebPEncoderConfig;
+import webpdecoderjn.internal.WebPPicture;
+import webpdecoderjn.internal.WebPStillEncoder;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.awt.image.RenderedImage;
+import java.io.IOException;
+import java.util.Objects;
+
+public class WebPImageWriter extends ImageWriter {
+	private final LibWebP lib;
+
+	// Sequences, the encoder is created with the size of the first image
+	private boolean sequence;
+	private WebPAnimEncoder animEncoder;
+	private int timestamp;
+	private int frameIndex;
+
+	WebPImageWriter(final WebPImageWriterSpi originatingProvider, final LibWebP lib) {
+		super(originatingProvider);
+		this.lib = Objects.requireNonNull(lib, "lib == null");
+	}
+
+	@Override
+	public ImageWriteParam getDefaultWriteParam() {
+		return new WebPImageWriteParam(this.getLocale());
+	}
+
+	@Override
+	public IIOMetadata getDefaultStreamMetadata(final ImageWriteParam param) {
+		return null;
+	}
+
+	@Override
+	public IIOMetadata getDefaultImageMetadata(final ImageTypeSpecifier imageType, final ImageWriteParam param) {
+		return null;
+	}
+
+	@Override
+	public IIOMetadata convertStreamMetadata(final IIOMetadata inData, final ImageWriteParam param) {
+		return null;
+	}
+
+	@Override
+	public IIOMetadata convertImageMetadata(final IIOMetadata inData, final ImageTypeSpecifier imageType, final ImageWriteParam param) {
+		return null;
+	}
+
+	@Override
+	public void write(final IIOMetadata streamMetadata, final IIOImage image, final ImageWriteParam param) throws IOException {
+		final ImageOutputStream stream = this.getImageOutputStream();
+		Objects.requireNonNull(image, "image == null");
+		if (image.hasRaster()) {
+			throw new UnsupportedOperationException("Rasters are not supported");
+		}
+
+		this.clearAbortRequest();
+		this.processImageStarted(0);
+		final BufferedImage source = getSourceImage(image.getRenderedImage(), param);
+		new WebPStillEncoder(this.lib, this.newConfig(param)).encode(source, stream::write);
+		if (this.abortRequested()) {
+			this.processWriteAborted();
+		} else {
+			this.processImageComplete();
+		}
+	}
+
+	@Override
+	public boolean canWriteSequence() {
+		return true;
+	}
+
+	@Override
+	public void prepareWriteSequence(final IIOMetadata streamMetadata) throws IOException {
+		this.getImageOutputStream();
+		if (this.sequence) {
+			throw new IllegalStateException("Sequence already prepared");
+		}
+		this.sequence = true;
+		this.timestamp = 0;
+		this.frameIndex = 0;
+	}
+
+	/**
+	 * Encodes the next frame of the sequence. The frame is shown for the delay
+	 * of its {@link WebPImageMetadata} (e.g. when re-encoding the frames read
+	 * from a WebP image), or else of the {@link WebPImageWriteParam}.
+	 */
+	@Override
+	public void writeToSequence(final IIOImage image, final ImageWriteParam param) throws IOException {
+		if (!this.sequence) {
+			throw new IllegalStateException("prepareWriteSequence() not called");
+		}
+		Objects.requireNonNull(image, "image == null");
+		if (image.hasRaster()) {
+			throw new UnsupportedOperationException("Rasters are not supported");
+		}
+
+		this.clearAbortRequest();
+		this.processImageStarted(this.frameIndex);
+		final BufferedImage source = getSourceImage(image.getRenderedImage(), param);
+		if (this.animEncoder == null) {
+			final int loopCount = param instanceof WebPImageWriteParam ? ((WebPImageWriteParam) param).getLoopCount() : 0;
+			this.animEncoder = new WebPAnimEncoder(this.lib, source.getWidth(), source.getHeight(), loopCount);
+		}
+		// The animation encoder works on ARGB
+		this.animEncoder.add(WebPPicture.create(this.lib, source, true), this.timestamp, this.newConfig(param));
+		this.timestamp += getFrameDelay(image, param);
+		++this.frameIndex;
+		if (this.abortRequested()) {
+			this.processWriteAborted();
+		} else {
+			this.processImageComplete();
+		}
+	}
+
+	@Override
+	public void endWriteSequence() throws IOException {
+		if (!this.sequence) {
+			throw new IllegalStateException("prepareWriteSequence() not called");
+		}
+
+		try {
+			if (this.animEncoder == null) {
+				throw new IllegalStateException("No image written to the sequence");
+			}
+			final ImageOutputStream stream = this.getImageOutputStream();
+			this.animEncoder.assemble(this.timestamp, stream::write);
+		} finally {
+			this.closeSequence();
+		}
+	}
+
+	private void closeSequence() {
+		if (this.animEncoder != null) {
+			this.animEncoder.close();
+			this.animEncoder = null;
+		}
+		this.sequence = false;
+	}
+
+	@Override
+	public void reset() {
+		super.reset();
+		this.closeSequence();
+	}
+
+	@Override
+	public void dispose() {
+		this.closeSequence();
+		super.dispose();
+	}
+
+	private static int getFrameDelay(final IIOImage image, final ImageWriteParam param) {
+		if (image.getMetadata() instanceof WebPImageMetadata) {
+			final int delay = ((WebPImageMetadata) image.getMetadata()).getDelay();
+			if (delay > 0) {
+				return delay;
+			}
+		}
+		return param instanceof WebPImageWriteParam
+				? ((WebPImageWriteParam) param).getFrameDelay()
+				: WebPImageWriteParam.DEFAULT_FRAME_DELAY;
+	}
+
+	private ImageOutputStream getImageOutputStream() {
+		final Object output = this.getOutput();
+		if (output == null) {
+			throw new IllegalStateException("output == null");
+		}
+		return (ImageOutputStream) output;
+	}
+
+	private WebPEncoderConfig.Struct newConfig(final ImageWriteParam param) throws IOException {
+		boolean lossless = false;
+		float quality = WebPImageWriteParam.DEFAULT_QUALITY * 100;
+		if (param != null && param.canWriteCompressed() && param.getCompressionMode() == ImageWriteParam.MODE_EXPLICIT) {
+			lossless = WebPImageWriteParam.LOSSLESS.equals(param.getCompressionType());
+			quality = param.getCompressionQuality() * 100;
+		}
+		final int method = param instanceof WebPImageWriteParam ? ((WebPImageWriteParam) param).getMethod() : WebPImageWriteParam.DEFAULT_METHOD;
+		final boolean useThreads = param instanceof WebPImageWriteParam && ((WebPImageWriteParam) param).isUseThreads();
+		return WebPEncoderConfig.create(this.lib, lossless, quality, method, useThreads);
+	}
+
+	/**
+	 * Gets the part of the image to encode. The source region is a view of
+	 * the image, only subsampling copies the pixels.
+	 */
+	private static BufferedImage getSourceImage(final RenderedImage rendered, final ImageWriteParam param) {
+		final BufferedImage image = toBufferedImage(rendered);
+		if (param == null) {
+			return image;
+		}
+
+		Rectangle region = new Rectangle(image.getWidth(), image.getHeight());
+		if (param.getSourceRegion() != null) {
+			region = region.intersection(param.getSourceRegion());
+		}
+		final int xPeriod = param.getSourceXSubsampling();
+		final int yPeriod = param.getSourceYSubsampling();
+		region.x += param.getSubsamplingXOffset();
+		region.y += param.getSubsamplingYOffset();
+		region.width -= param.getSubsamplingXOffset();
+		region.height -= param.getSubsamplingYOffset();
+		if (region.isEmpty()) {
+			throw new IllegalArgumentException("Empty source region");
+		}
+
+		final BufferedImage subimage = image.getSubimage(region.x, region.y, region.width, region.height);
+		if (xPeriod == 1 && yPeriod == 1) {
+			return subimage;
+		}
+
+		final int width = (region.width + xPeriod - 1) / xPeriod;
+		final int height = (region.height + yPeriod - 1) / yPeriod;
+		final BufferedImage sampled = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+		for (int y = 0; y < height; ++y) {
+			for (int x = 0; x < width; ++x) {
+				sampled.setRGB(x, y, subimage.getRGB(x * xPeriod, y * yPeriod));
+			}
+		}
+		return sampled;
+	}
+
+	private static BufferedImage toBufferedImage(final RenderedImage rendered) {
+		if (rendered instanceof BufferedImage) {
+			return (BufferedImage) rendered;
+		}
+
+		final BufferedImage image = new BufferedImage(rendered.getWidth(), rendered.getHeight(), BufferedImage.TYPE_INT_ARGB);
+		final Graphics2D graphics = image.createGraphics();
+		try {
+			graphics.drawRenderedImage(rendered, AffineTransform.getTranslateInstance(-rendered.getMinX(), -rendered.getMinY()));
+		} finally {
+			graphics.dispose();
+		}
+		return image;
+	}
+}
@@ -0,0 +1,64 @@
+package net.vinrobot.imageio.plugins.webp;
+
+import webpdecoderjn.internal.LibWebP;
+import webpdecoderjn.internal.Loader;
+
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.ImageWriter;
+import javax.imageio.spi.ImageWriterSpi;
+import javax.imageio.stream.ImageOutputStream;
+import java.util.Locale;
+import java.util.Objects;
+
+public final class WebPImageWriterSpi extends ImageWriterSpi {
+	public WebPImageWriterSpi() {
+		super(
+				"Vinrobot",
+				"1.0",
+				new String[]{"webp", "WEBP", "wbp", "WBP"},
+				new String[]{"wbp", "webp"},
+				new String[]{"image/webp", "image/x-webp"},
+				WebPImageWriter.class.getName(),
+				new Class[]{ImageOutputStream.class},
+				new String[]{WebPImageReaderSpi.class.getName()},
+				false,
+				null,
+				null,
+				null,
+				null,
+				false,
+				null,
+				null,
+				null,
+				null
+		);
+	}
+
+	@Override
+	public boolean canEncodeImage(final ImageTypeSpecifier type) {
+		// Everything is encoded as RGB(A), converting the images that aren't
+		final int numBands = type.getSampleModel().getNumBands();
+		if (numBands < 1 || numBands > 4) {
+			return false;
+		}
+
+		try {
+			// The writer needs the native library to work
+			return Loader.getInstance() != null;
+		} catch (Exception ex) {
+			// Unable to load native library
+			return false;
+		}
+	}
+
+	@Override
+	public ImageWriter createWriterInstance(final Object extension) {
+		final LibWebP lib = Objects.requireNonNull(Loader.getInstance(), "Unable to load native library");
+		return new WebPImageWriter(this, lib);
+	}
+
+	@Override
+	public String getDescription(final Locale locale) {
+		return "Google WebP File Format (WebP) Writer";
+	}
+}
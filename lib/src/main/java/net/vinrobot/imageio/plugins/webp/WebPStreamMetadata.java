@@ -5,16 +5,29 @@ import webpdecoderjn.internal.WebPAnimInfo;
 
 import javax.imageio.metadata.IIOMetadata;
 import javax.imageio.metadata.IIOMetadataNode;
+import java.nio.ByteBuffer;
 
 public final class WebPStreamMetadata extends IIOMetadata {
 	public static final String NATIVE_METADATA_FORMAT_NAME = "net_vinrobot_imageio_webp_stream_1.0";
 	public static final String NATIVE_METADATA_FORMAT_CLASS_NAME = "net.vinrobot.imageio.plugins.webp.WebPStreamMetadataFormat";
 
 	private final WebPAnimInfo webpAnimInfo;
+	private final ByteBuffer iccProfile;
+	private final ByteBuffer exif;
+	private final ByteBuffer xmp;
 
-	WebPStreamMetadata(final WebPAnimInfo webpAnimInfo) {
+	/**
+	 * @param webpAnimInfo The canvas and animation info
+	 * @param iccProfile   The ICCP chunk payload, or null
+	 * @param exif         The EXIF chunk payload, or null
+	 * @param xmp          The XMP chunk payload, or null
+	 */
+	WebPStreamMetadata(final WebPAnimInfo webpAnimInfo, final ByteBuffer iccProfile, final ByteBuffer exif, final ByteBuffer xmp) {
 		super(false, NATIVE_METADATA_FORMAT_NAME, NATIVE_METADATA_FORMAT_CLASS_NAME, null, null);
 		this.webpAnimInfo = webpAnimInfo;
+		this.iccProfile = iccProfile;
+		this.exif = exif;
+		this.xmp = xmp;
 	}
 
 	@Override
@@ -37,9 +50,25 @@ public final class WebPStreamMetadata extends IIOMetadata {
 		documentNode.setAttribute("CanvasHeight", String.valueOf(this.webpAnimInfo.canvasHeight()));
 		documentNode.setAttribute("LoopCount", String.valueOf(this.webpAnimInfo.loopCount()));
 		documentNode.setAttribute("FrameCount", String.valueOf(this.webpAnimInfo.frameCount()));
+		appendChunkNode(documentNode, "ICCProfile", this.iccProfile);
+		appendChunkNode(documentNode, "EXIF", this.exif);
+		appendChunkNode(documentNode, "XMP", this.xmp);
 		return documentNode;
 	}
 
+	/**
+	 * Adds a node with the size of the chunk, holding the (read-only) chunk
+	 * payload as its user object.
+	 */
+	private static void appendChunkNode(final IIOMetadataNode parent, final String name, final ByteBuffer chunk) {
+		if (chunk != null) {
+			final IIOMetadataNode node = new IIOMetadataNode(name);
+			node.setAttribute("Length", String.valueOf(chunk.remaining()));
+			node.setUserObject(chunk.duplicate());
+			parent.appendChild(node);
+		}
+	}
+
 	@Override
 	public void mergeTree(final String formatName, final Node root) {
 		throw new IllegalStateException("Metadata is read-only");
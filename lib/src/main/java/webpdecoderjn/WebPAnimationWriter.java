@@ -0,0 +1,167 @@
+package webpdecoderjn;
+
+import webpdecoderjn.internal.LibWebP;
+import webpdecoderjn.internal.WebPAnimEncoder;
+import webpdecoderjn.internal.WebPEncoderConfig;
+import webpdecoderjn.internal.WebPImages;
+import webpdecoderjn.internal.WebPPicture;
+
+import java.awt.image.BufferedImage;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Objects;
+
+/**
+ * Encode an animated WebP image, one frame at a time.
+ *
+ * <p>
+ * Each frame is encoded when it is added, so only the encoded frames (and not
+ * the pixels of every frame) are kept until the animation is written to the
+ * stream by {@link #finish()}. All the frames have the size of the canvas.
+ *
+ * <p>
+ * Like {@link WebPEncoder}, this needs the native library to be loaded (see
+ * {@link WebPLoader#init()}) and may throw an {@code UnsatisfiedLinkError}.
+ * The native resources are only released by {@link #close()}.
+ */
+public class WebPAnimationWriter implements Closeable {
+    private final LibWebP lib;
+    private final OutputStream output;
+    private final WebPEncoderConfig.Struct config;
+    private final WebPAnimEncoder encoder;
+    private int timestamp;
+    private int frameCount;
+    private boolean finished;
+
+    /**
+     * Create a writer for a looping animation, with the default options
+     * (lossy, quality 75).
+     *
+     * @param output The stream to write to (not closed)
+     * @param width  The canvas width
+     * @param height The canvas height
+     * @throws WebPEncoderException When the encoder encounters an issue
+     * @throws UnsatisfiedLinkError When there was an issue loading the native
+     *                              libraries (note that this is an error, not an exception)
+     */
+    public WebPAnimationWriter(final OutputStream output, final int width, final int height) throws WebPEncoderException, UnsatisfiedLinkError {
+        this(output, width, height, new WebPEncoderOptions(), 0);
+    }
+
+    /**
+     * Create a writer for an animation.
+     *
+     * @param output    The stream to write to (not closed)
+     * @param width     The canvas width
+     * @param height    The canvas height
+     * @param options   The options used to encode the frames
+     * @param loopCount The number of times the animation is played (0 for infinite)
+     * @throws WebPEncoderException When the encoder encounters an issue
+     * @throws UnsatisfiedLinkError When there was an issue loading the native
+     *                              libraries (note that this is an error, not an exception)
+     */
+    public WebPAnimationWriter(final OutputStream output, final int width, final int height,
+                               final WebPEncoderOptions options, final int loopCount) throws WebPEncoderException, UnsatisfiedLinkError {
+        Objects.requireNonNull(options, "options == null");
+        if (loopCount < 0 || loopCount > 0xffff) {
+            throw new IllegalArgumentException("Invalid loop count: " + loopCount);
+        }
+
+        this.output = Objects.requireNonNull(output, "output == null");
+        this.lib = WebPLoader.lib();
+        this.config = WebPEncoderConfig.create(this.lib, options.isLossless(), options.getQuality(), options.getMethod(), options.isUseThreads());
+        this.encoder = new WebPAnimEncoder(this.lib, width, height, loopCount);
+    }
+
+    /**
+     * Encode the next frame.
+     *
+     * @param image    The frame, of the size of the canvas
+     * @param duration The time the frame is shown, in milliseconds
+     * @throws WebPEncoderException     When the encoder encounters an issue
+     * @throws IllegalArgumentException When the frame doesn't have the size of the canvas
+     */
+    public void addFrame(final BufferedImage image, final int duration) throws WebPEncoderException {
+        Objects.requireNonNull(image, "image == null");
+        this.checkFrame(duration);
+        // The animation encoder works on ARGB
+        this.add(WebPPicture.create(this.lib, image, true), duration);
+    }
+
+    /**
+     * Encode the next frame from raw pixels.
+     *
+     * <p>
+     * The pixels are read from the buffer position (which is not changed),
+     * 4 bytes per pixel in the order of the color mode. A direct buffer is
+     * read in place.
+     *
+     * @param pixels    The pixels of the whole canvas
+     * @param stride    The distance in bytes between two rows
+     * @param colorMode The byte order of the pixels ({@link WebPColorMode#RGBA}
+     *                  or {@link WebPColorMode#BGRA})
+     * @param duration  The time the frame is shown, in milliseconds
+     * @throws WebPEncoderException     When the encoder encounters an issue
+     * @throws IllegalArgumentException When the color mode is premultiplied or
+     *                                  the pixels don't fit in the buffer
+     */
+    public void addFrame(final ByteBuffer pixels, final int stride, final WebPColorMode colorMode, final int duration) throws WebPEncoderException {
+        Objects.requireNonNull(pixels, "pixels == null");
+        if (colorMode != WebPColorMode.RGBA && colorMode != WebPColorMode.BGRA) {
+            throw new IllegalArgumentException("Unsupported color mode: " + colorMode);
+        }
+        this.checkFrame(duration);
+        this.add(WebPPicture.create(this.lib, pixels.slice(), WebPImages.toColorspace(colorMode), true,
+                this.encoder.getCanvasWidth(), this.encoder.getCanvasHeight(), stride, true), duration);
+    }
+
+    private void checkFrame(final int duration) {
+        if (this.finished) {
+            throw new IllegalStateException("WebPAnimationWriter already finished");
+        } else if (duration <= 0) {
+            throw new IllegalArgumentException("Invalid duration: " + duration);
+        }
+    }
+
+    private void add(final WebPPicture.Struct picture, final int duration) throws WebPEncoderException {
+        this.encoder.add(picture, this.timestamp, this.config);
+        this.timestamp += duration;
+        ++this.frameCount;
+    }
+
+    /**
+     * @return The number of frames added so far
+     */
+    public int getFrameCount() {
+        return this.frameCount;
+    }
+
+    /**
+     * Write the animation to the stream. No frame can be added afterwards.
+     *
+     * @throws IOException          When writing to the stream fails
+     * @throws WebPEncoderException When the encoder encounters an issue
+     */
+    public void finish() throws IOException {
+        if (this.finished) {
+            return;
+        } else if (this.frameCount == 0) {
+            throw new IllegalStateException("No frame added");
+        }
+
+        this.finished = true;
+        this.encoder.assemble(this.timestamp, this.output::write);
+    }
+
+    /**
+     * Release the native resources. Call {@link #finish()} before, or the
+     * animation is not written.
+     */
+    @Override
+    public void close() {
+        this.finished = true;
+        this.encoder.close();
+    }
+}
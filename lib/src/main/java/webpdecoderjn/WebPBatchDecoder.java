@@ -0,0 +1,191 @@
+package webpdecoderjn;
+
+import webpdecoderjn.internal.WebPBitstreamFeatures;
+import webpdecoderjn.internal.WebPStillDecoder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Decodes the images of a batch on multiple threads.
+ *
+ * <p>
+ * Each thread takes the next image of the batch until there are none left, so
+ * the threads only share a counter and the memory limit. The native memory of
+ * the decodes in progress is bounded by a semaphore, counted in KiB.
+ */
+final class WebPBatchDecoder<T> {
+    private static final int KIB = 1024;
+
+    private final List<T> inputs;
+    private final Opener<T> opener;
+    private final WebPDecoderOptions decoderOptions;
+    private final WebPDecoderPool pool;
+    private final Consumer<WebPBatchResult> listener;
+
+    private final int maxPermits;
+    private final Semaphore memory;
+    private final AtomicInteger next = new AtomicInteger();
+    // An error (or a listener exception) stops the batch and is thrown to the caller
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+    /**
+     * Opens the input of an image as a buffer. Direct buffers (e.g. mapped
+     * files) are decoded in place.
+     */
+    interface Opener<T> {
+        ByteBuffer open(T input) throws IOException;
+    }
+
+    WebPBatchDecoder(final List<T> inputs, final Opener<T> opener, final WebPBatchOptions options,
+                     final Consumer<WebPBatchResult> listener) {
+        this.inputs = inputs;
+        this.opener = opener;
+        this.decoderOptions = options.getDecoderOptions();
+        this.pool = options.getPool();
+        this.listener = listener;
+        this.maxPermits = (int) Math.min(Integer.MAX_VALUE, Math.max(1, options.getMaxInFlightBytes() / KIB));
+        this.memory = new Semaphore(this.maxPermits);
+    }
+
+    /**
+     * Decodes all the images, returning once they are all done.
+     * <p>
+     * Once the images run out, the calling thread claims the tasks that
+     * haven't started yet, and only waits for the ones already running. So
+     * the batch completes even if the executor never runs the tasks (e.g. when
+     * the caller is the only thread of the executor).
+     */
+    void run(final int parallelism, final Executor executor) {
+        final int workers = Math.max(1, Math.min(parallelism, this.inputs.size()));
+        final ExecutorService ownExecutor = executor == null && workers > 1 ? new ForkJoinPool(workers - 1) : null;
+        final CountDownLatch done = new CountDownLatch(workers - 1);
+        final List<Worker> tasks = new ArrayList<>(workers - 1);
+        try {
+            for (int i = 1; i < workers; ++i) {
+                final Worker task = new Worker(done);
+                tasks.add(task);
+                try {
+                    (ownExecutor != null ? ownExecutor : executor).execute(task);
+                } catch (final RejectedExecutionException ex) {
+                    // Claimed below, the other workers take over the images
+                }
+            }
+            this.work();
+            for (final Worker task : tasks) {
+                if (task.claim()) {
+                    done.countDown();
+                }
+            }
+
+            boolean interrupted = false;
+            while (true) {
+                try {
+                    done.await();
+                    break;
+                } catch (final InterruptedException ex) {
+                    // The decodes in progress can't be stopped, so finish the batch and keep the interrupt
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        } finally {
+            if (ownExecutor != null) {
+                ownExecutor.shutdown();
+            }
+        }
+
+        final Throwable failure = this.failure.get();
+        if (failure instanceof Error) {
+            throw (Error) failure;
+        } else if (failure != null) {
+            throw (RuntimeException) failure;
+        }
+    }
+
+    /**
+     * A task decoding images, unless it was claimed by the calling thread
+     * before it started.
+     */
+    private final class Worker implements Runnable {
+        private final CountDownLatch done;
+        private final AtomicBoolean started = new AtomicBoolean();
+
+        Worker(final CountDownLatch done) {
+            this.done = done;
+        }
+
+        boolean claim() {
+            return this.started.compareAndSet(false, true);
+        }
+
+        @Override
+        public void run() {
+            if (!this.claim()) {
+                return;
+            }
+            try {
+                WebPBatchDecoder.this.work();
+            } finally {
+                this.done.countDown();
+            }
+        }
+    }
+
+    private void work() {
+        try {
+            int index;
+            while (this.failure.get() == null && (index = this.next.getAndIncrement()) < this.inputs.size()) {
+                final WebPBatchResult result = this.decode(index);
+                synchronized (this.listener) {
+                    this.listener.accept(result);
+                }
+            }
+        } catch (final Throwable ex) {
+            this.failure.compareAndSet(null, ex);
+        }
+    }
+
+    private WebPBatchResult decode(final int index) {
+        int permits = 0;
+        try {
+            final ByteBuffer data = this.opener.open(this.inputs.get(index));
+            // An image over the limit takes all the permits, so it's decoded alone
+            permits = (int) Math.min(this.maxPermits, (estimateBytes(data) + KIB - 1) / KIB);
+            this.memory.acquireUninterruptibly(permits);
+
+            final WebPImage image = this.pool != null
+                    ? this.pool.decode(data, this.decoderOptions)
+                    : WebPDecoder.decode(data, this.decoderOptions);
+            return new WebPBatchResult(index, image, null);
+        } catch (final IOException | RuntimeException ex) {
+            return new WebPBatchResult(index, null, ex);
+        } finally {
+            this.memory.release(permits);
+        }
+    }
+
+    /**
+     * Estimates the native memory needed to decode an image: the compressed
+     * data and the decoded canvas (two for animations).
+     */
+    private static long estimateBytes(final ByteBuffer data) throws IOException {
+        final WebPBitstreamFeatures features = WebPStillDecoder.getFeatures(WebPLoader.lib(), data);
+        final long canvasBytes = (long) features.width() * features.height() * Integer.BYTES;
+        return data.remaining() + (features.hasAnimation() ? 2 * canvasBytes : canvasBytes);
+    }
+}
@@ -0,0 +1,118 @@
+package webpdecoderjn;
+
+import java.util.Objects;
+import java.util.concurrent.Executor;
+
+/**
+ * Options for decoding many WebP images at once.
+ *
+ * <p>
+ * By default the images are decoded by as many threads as there are
+ * processors, with at most 256 MiB of native memory in use.
+ *
+ * @see WebPDecoder#decodeAll(java.util.Collection, WebPBatchOptions)
+ */
+public class WebPBatchOptions {
+    /**
+     * The default maximum of native memory used by the decodes in progress (256 MiB).
+     */
+    public static final long DEFAULT_MAX_IN_FLIGHT_BYTES = 256L * 1024 * 1024;
+
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    private Executor executor;
+    private long maxInFlightBytes = DEFAULT_MAX_IN_FLIGHT_BYTES;
+    private WebPDecoderOptions decoderOptions = new WebPDecoderOptions();
+    private WebPDecoderPool pool;
+
+    /**
+     * Set the maximum number of images decoded at the same time.
+     *
+     * @param parallelism The number of decodes, at least 1 (default: the
+     *                    number of processors)
+     */
+    public void setParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1");
+        }
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * @return The maximum number of images decoded at the same time
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Set the executor running the decodes. The calling thread also decodes
+     * images, and once they run out only waits for the tasks the executor
+     * has already started. So the batch completes even if the executor never
+     * runs the tasks (e.g. when called from the only thread of the executor),
+     * the calling thread then decoding all the images.
+     *
+     * @param executor The executor, or null to use a fork-join pool created
+     *                 for the batch (default)
+     */
+    public void setExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * @return The executor, or null to use a fork-join pool created for the batch
+     */
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Limit the native memory (compressed data and libwebp canvases) of the
+     * decodes in progress. A decode waits until its estimated size is
+     * available, and an image larger than the limit is decoded alone.
+     *
+     * @param maxInFlightBytes The maximum number of bytes (default 256 MiB)
+     */
+    public void setMaxInFlightBytes(long maxInFlightBytes) {
+        if (maxInFlightBytes <= 0) {
+            throw new IllegalArgumentException("The maximum of bytes must be positive");
+        }
+        this.maxInFlightBytes = maxInFlightBytes;
+    }
+
+    /**
+     * @return The maximum number of bytes of the decodes in progress
+     */
+    public long getMaxInFlightBytes() {
+        return maxInFlightBytes;
+    }
+
+    /**
+     * @param decoderOptions The options used to decode each image
+     */
+    public void setDecoderOptions(WebPDecoderOptions decoderOptions) {
+        this.decoderOptions = Objects.requireNonNull(decoderOptions, "decoderOptions == null");
+    }
+
+    /**
+     * @return The options used to decode each image
+     */
+    public WebPDecoderOptions getDecoderOptions() {
+        return decoderOptions;
+    }
+
+    /**
+     * Decode the images with recycled buffers.
+     *
+     * @param pool The pool, or null to allocate new buffers (default)
+     */
+    public void setPool(WebPDecoderPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * @return The pool, or null
+     */
+    public WebPDecoderPool getPool() {
+        return pool;
+    }
+}
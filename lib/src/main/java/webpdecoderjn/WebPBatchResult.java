@@ -0,0 +1,44 @@
+package webpdecoderjn;
+
+/**
+ * The outcome of decoding one image of a batch: either the image or the
+ * exception that prevented decoding it.
+ *
+ * @see WebPDecoder#decodeAll(java.util.Collection, WebPBatchOptions)
+ */
+public class WebPBatchResult {
+    /**
+     * The position of the image in the batch.
+     */
+    public final int index;
+
+    /**
+     * The decoded image, null on failure.
+     */
+    public final WebPImage image;
+
+    /**
+     * The exception thrown while reading or decoding the image (an
+     * {@link java.io.IOException} or a {@link RuntimeException}), null on
+     * success.
+     */
+    public final Exception error;
+
+    WebPBatchResult(int index, WebPImage image, Exception error) {
+        this.index = index;
+        this.image = image;
+        this.error = error;
+    }
+
+    /**
+     * @return True if the image was decoded
+     */
+    public boolean isSuccess() {
+        return error == null;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("#%d %s", index, error == null ? image : error);
+    }
+}
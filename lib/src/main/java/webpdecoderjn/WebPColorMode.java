@@ -0,0 +1,32 @@
+package webpdecoderjn;
+
+/**
+ * The byte order of the decoded pixels, which determines the color model of
+ * the decoded images.
+ *
+ * <p>
+ * The BGRA modes produce the standard {@link java.awt.image.BufferedImage}
+ * types that Java2D draws and scales fastest, without any conversion of the
+ * decoded pixels.
+ */
+public enum WebPColorMode {
+    /**
+     * Red, green, blue, alpha bytes (custom image type).
+     */
+    RGBA,
+    /**
+     * Blue, green, red, alpha bytes, producing
+     * {@link java.awt.image.BufferedImage#TYPE_INT_ARGB} images.
+     */
+    BGRA,
+    /**
+     * Red, green, blue, alpha bytes with the colors premultiplied by alpha
+     * (custom image type).
+     */
+    RGBA_PREMULTIPLIED,
+    /**
+     * Blue, green, red, alpha bytes with the colors premultiplied by alpha,
+     * producing {@link java.awt.image.BufferedImage#TYPE_INT_ARGB_PRE} images.
+     */
+    BGRA_PREMULTIPLIED
+}
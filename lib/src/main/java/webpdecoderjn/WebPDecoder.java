@@ -1,26 +1,32 @@
 package webpdecoderjn;
 
 
+import webpdecoderjn.internal.WebPBitstreamFeatures;
 import webpdecoderjn.internal.LibWebP;
-import webpdecoderjn.internal.WebPAnimDecoder;
-import webpdecoderjn.internal.WebPAnimInfo;
+import webpdecoderjn.internal.WebPContainer;
 import webpdecoderjn.internal.WebPData;
-import webpdecoderjn.internal.WebPFrame;
+import webpdecoderjn.internal.WebPDemuxFrame;
+import webpdecoderjn.internal.WebPDemuxer;
+import webpdecoderjn.internal.WebPEvents;
+import webpdecoderjn.internal.WebPStillDecoder;
 
 import java.awt.Color;
+import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
-import java.awt.image.ColorModel;
-import java.awt.image.DataBufferInt;
-import java.awt.image.DirectColorModel;
-import java.awt.image.SampleModel;
-import java.awt.image.WritableRaster;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
 import java.net.URLConnection;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
 
 /**
  * Decode a WebP image using native libraries.
@@ -38,9 +44,201 @@ import java.util.List;
  * {@code UnsatisfiedLinkError}. Since this is an error it is recommended to
  * catch it explicitly instead of catching {@code Error} or {@code Throwable}.
  *
+ * <p>
+ * When a global {@link WebPMemoryBudget} is set, decoding the whole image
+ * (the {@code decode} functions) first reserves the memory it needs, and may
+ * wait, fail or return a smaller image according to the budget policy.
+ *
  * @author tduva
  */
 public class WebPDecoder {
+    private static final int DEFAULT_BUFFER_SIZE = 8192;
+    private static final int EOF = -1;
+
+    /**
+     * Read the basic features of a WebP image from its headers, without
+     * decoding any pixels.
+     *
+     * @param rawData The raw bytes of the image
+     * @return The features of the image
+     * @throws WebPDecoderException When the headers are invalid or truncated
+     * @throws UnsatisfiedLinkError When there was an issue loading the native
+     *                              libraries (note that this is an error, not an exception)
+     * @see #probe(ByteBuffer)
+     */
+    public static WebPFeatures probe(final byte[] rawData) throws WebPDecoderException, UnsatisfiedLinkError {
+        return probe(ByteBuffer.wrap(rawData));
+    }
+
+    /**
+     * Read the basic features of a WebP image from its headers, without
+     * decoding any pixels.
+     *
+     * <p>
+     * Only the first few hundred bytes are passed to the native library
+     * (more only if optional chunks come before the image data). For
+     * animations the frames are counted by skipping over the chunk headers.
+     *
+     * @param data The raw bytes of the image, read from the buffer position
+     *             (which is not changed)
+     * @return The features of the image
+     * @throws WebPDecoderException When the headers are invalid or truncated
+     * @throws UnsatisfiedLinkError When there was an issue loading the native
+     *                              libraries (note that this is an error, not an exception)
+     */
+    public static WebPFeatures probe(final ByteBuffer data) throws WebPDecoderException, UnsatisfiedLinkError {
+        final WebPBitstreamFeatures features = WebPStillDecoder.getFeatures(WebPLoader.lib(), data);
+        final int frameCount = features.hasAnimation() ? WebPContainer.countFrames(data) : 1;
+        return new WebPFeatures(features.width(), features.height(), features.hasAlpha(), features.hasAnimation(),
+                toFormat(features.format()), frameCount);
+    }
+
+    private static WebPFeatures.Format toFormat(final int format) {
+        switch (format) {
+            case WebPBitstreamFeatures.FORMAT_LOSSY:
+                return WebPFeatures.Format.LOSSY;
+            case WebPBitstreamFeatures.FORMAT_LOSSLESS:
+                return WebPFeatures.Format.LOSSLESS;
+            default:
+                return WebPFeatures.Format.MIXED;
+        }
+    }
+
+    /**
+     * Read the frame table of a WebP image (position, size, duration,
+     * blending and disposal of each frame) from its container, without
+     * decoding any frame.
+     *
+     * @param rawData The raw bytes of the image
+     * @return The information about the image and its frames
+     * @throws WebPDecoderException When the container is invalid
+     * @throws UnsatisfiedLinkError When there was an issue loading the native
+     *                              libraries (note that this is an error, not an exception)
+     * @see #info(ByteBuffer)
+     */
+    public static WebPImageInfo info(final byte[] rawData) throws WebPDecoderException, UnsatisfiedLinkError {
+        final LibWebP lib = WebPLoader.lib();
+        try (final WebPData data = new WebPData(lib, rawData)) {
+            return info(lib, data);
+        }
+    }
+
+    /**
+     * Read the frame table of a WebP image from the remaining bytes of a
+     * buffer, without decoding any frame. A direct buffer is read in place.
+     *
+     * @param data The raw bytes of the image
+     * @return The information about the image and its frames
+     * @throws WebPDecoderException When the container is invalid
+     * @throws UnsatisfiedLinkError When there was an issue loading the native
+     *                              libraries (note that this is an error, not an exception)
+     * @see #info(byte[])
+     */
+    public static WebPImageInfo info(final ByteBuffer data) throws WebPDecoderException, UnsatisfiedLinkError {
+        final LibWebP lib = WebPLoader.lib();
+        try (final WebPData webpData = new WebPData(lib, data)) {
+            return info(lib, webpData);
+        }
+    }
+
+    /**
+     * Read the frame table of a WebP file, without decoding any frame. The
+     * file is memory-mapped.
+     *
+     * @param path The path of the file
+     * @return The information about the image and its frames
+     * @throws IOException          When mapping the file fails
+     * @throws WebPDecoderException When the container is invalid
+     * @throws UnsatisfiedLinkError When there was an issue loading the native
+     *                              libraries (note that this is an error, not an exception)
+     * @see #info(byte[])
+     */
+    public static WebPImageInfo info(final Path path) throws IOException, UnsatisfiedLinkError {
+        final LibWebP lib = WebPLoader.lib();
+        try (final WebPData data = WebPData.map(lib, path)) {
+            return info(lib, data);
+        }
+    }
+
+    private static WebPImageInfo info(final LibWebP lib, final WebPData data) throws WebPDecoderException {
+        try (final WebPDemuxer demuxer = new WebPDemuxer(lib, data)) {
+            final Rectangle canvas = new Rectangle(demuxer.getI(LibWebP.WEBP_FF_CANVAS_WIDTH), demuxer.getI(LibWebP.WEBP_FF_CANVAS_HEIGHT));
+            final boolean animated = (demuxer.getI(LibWebP.WEBP_FF_FORMAT_FLAGS) & LibWebP.ANIMATION_FLAG) != 0;
+
+            final List<WebPDemuxFrame> demuxFrames = demuxer.getFrames();
+            final List<WebPFrameInfo> frames = new ArrayList<>(demuxFrames.size());
+            WebPDemuxFrame previous = null;
+            boolean previousKeyFrame = false;
+            for (final WebPDemuxFrame frame : demuxFrames) {
+                final boolean keyFrame = WebPDemuxer.isKeyFrame(previous, frame, previousKeyFrame, canvas);
+                frames.add(new WebPFrameInfo(frame.x(), frame.y(), frame.width(), frame.height(), frame.duration(),
+                        frame.blendMethod() == LibWebP.WEBP_MUX_NO_BLEND ? WebPFrameInfo.BlendMethod.NO_BLEND : WebPFrameInfo.BlendMethod.BLEND,
+                        frame.disposeMethod() == LibWebP.WEBP_MUX_DISPOSE_BACKGROUND ? WebPFrameInfo.DisposeMethod.BACKGROUND : WebPFrameInfo.DisposeMethod.NONE,
+                        frame.hasAlpha(), keyFrame));
+                previous = frame;
+                previousKeyFrame = keyFrame;
+            }
+
+            // The loop count and background color are only meaningful for animations
+            final int loopCount = animated ? demuxer.getI(LibWebP.WEBP_FF_LOOP_COUNT) : 1;
+            // The background color is stored as B, G, R, A bytes, read as a little endian int that is 0xAARRGGBB
+            final Color bgColor = animated ? new Color(demuxer.getI(LibWebP.WEBP_FF_BACKGROUND_COLOR), true) : Color.BLACK;
+            return new WebPImageInfo(canvas.width, canvas.height, loopCount, bgColor, frames);
+        }
+    }
+
+    /**
+     * Read the metadata chunks (ICC profile, EXIF and XMP) of a WebP image,
+     * without decoding any frame.
+     *
+     * @param rawData The raw bytes of the image
+     * @return The metadata, as slices of the given array
+     * @throws WebPDecoderException When the container is invalid
+     * @throws UnsatisfiedLinkError When there was an issue loading the native
+     *                              libraries (note that this is an error, not an exception)
+     * @see #metadata(ByteBuffer)
+     */
+    public static WebPMetadata metadata(final byte[] rawData) throws WebPDecoderException, UnsatisfiedLinkError {
+        return metadata(ByteBuffer.wrap(Objects.requireNonNull(rawData, "rawData == null")));
+    }
+
+    /**
+     * Read the metadata chunks (ICC profile, EXIF and XMP) of a WebP image
+     * from the remaining bytes of a buffer, without decoding any frame.
+     * A direct buffer is read in place.
+     *
+     * @param data The raw bytes of the image
+     * @return The metadata, as slices of the given buffer
+     * @throws WebPDecoderException When the container is invalid
+     * @throws UnsatisfiedLinkError When there was an issue loading the native
+     *                              libraries (note that this is an error, not an exception)
+     */
+    public static WebPMetadata metadata(final ByteBuffer data) throws WebPDecoderException, UnsatisfiedLinkError {
+        final LibWebP lib = WebPLoader.lib();
+        try (final WebPData webpData = new WebPData(lib, data);
+             final WebPDemuxer demuxer = new WebPDemuxer(lib, webpData)) {
+            return new WebPMetadata(demuxer.getChunk(WebPDemuxer.CHUNK_ICCP, data),
+                    demuxer.getChunk(WebPDemuxer.CHUNK_EXIF, data), demuxer.getChunk(WebPDemuxer.CHUNK_XMP, data));
+        }
+    }
+
+    /**
+     * Read the metadata chunks (ICC profile, EXIF and XMP) of a WebP file,
+     * without decoding any frame. The file is memory-mapped, so it must not
+     * change while the metadata is used.
+     *
+     * @param path The path of the file
+     * @return The metadata, as slices of the mapped file
+     * @throws IOException          When mapping the file fails
+     * @throws WebPDecoderException When the container is invalid
+     * @throws UnsatisfiedLinkError When there was an issue loading the native
+     *                              libraries (note that this is an error, not an exception)
+     * @see #metadata(ByteBuffer)
+     */
+    public static WebPMetadata metadata(final Path path) throws IOException, UnsatisfiedLinkError {
+        return metadata(WebPData.mapFile(path));
+    }
+
     /**
      * Decode a WebP image based on an url.
      *
@@ -59,9 +257,51 @@ public class WebPDecoder {
         }
     }
 
+    /**
+     * Decode a WebP image from a file.
+     *
+     * <p>
+     * The file is memory-mapped and decoded in place, without reading it into
+     * the Java heap. It must not be modified during the call.
+     *
+     * @param path The path of the file
+     * @return A decoded {@link WebPImage}
+     * @throws IOException          When mapping the file fails
+     * @throws WebPDecoderException When the decoder encounters an issue (e.g.
+     *                              if it's not a valid WebP file)
+     * @throws UnsatisfiedLinkError When there was an issue loading the native
+     *                              libraries (note that this is an error, not an exception)
+     * @see #decode(Path, WebPDecoderOptions)
+     */
+    public static WebPImage decode(final Path path) throws IOException, UnsatisfiedLinkError {
+        return decode(path, new WebPDecoderOptions());
+    }
+
+    /**
+     * Decode a WebP image from a file with the given options.
+     *
+     * @param path    The path of the file
+     * @param options The decoding options
+     * @return A decoded {@link WebPImage}
+     * @throws IOException          When mapping the file fails
+     * @throws WebPDecoderException When the decoder encounters an issue (e.g.
+     *                              if it's not a valid WebP file)
+     * @throws UnsatisfiedLinkError When there was an issue loading the native
+     *                              libraries (note that this is an error, not an exception)
+     * @see #decode(Path)
+     */
+    public static WebPImage decode(final Path path, final WebPDecoderOptions options) throws IOException, UnsatisfiedLinkError {
+        return decode(WebPData.mapFile(path), options, int[]::new);
+    }
+
     /**
      * Decode a WebP image from an InputStream.
      *
+     * <p>
+     * Still images are decoded while the data is being read (see
+     * {@link WebPIncrementalDecoder}), animations are read completely before
+     * decoding.
+     *
      * @param inputStream The inputstream
      * @return A decoded {@link WebPImage}
      * @throws IOException          When loading the data from the url fails
@@ -71,22 +311,89 @@ public class WebPDecoder {
      *                              libraries (note that this is an error, not an exception)
      */
     public static WebPImage decode(final InputStream inputStream) throws IOException, UnsatisfiedLinkError {
-        final byte[] webpData;
+        final byte[] buffer = new byte[DEFAULT_BUFFER_SIZE];
         try (final ByteArrayOutputStream result = new ByteArrayOutputStream()) {
-            final byte[] buffer = new byte[1024];
             int length;
-            while ((length = inputStream.read(buffer)) != -1) {
+            while (result.size() < WebPContainer.HEADER_SIZE && (length = inputStream.read(buffer)) != EOF) {
                 result.write(buffer, 0, length);
             }
-            webpData = result.toByteArray();
+
+            final byte[] header = result.toByteArray();
+            if (header.length >= WebPContainer.HEADER_SIZE && !WebPContainer.isAnimated(ByteBuffer.wrap(header))) {
+                final WebPMemoryBudget budget = WebPMemoryBudget.getGlobal();
+                return budget != null
+                        ? decodeIncremental(budget, result, inputStream, buffer)
+                        : decodeIncremental(header, inputStream, buffer);
+            }
+
+            while ((length = inputStream.read(buffer)) != EOF) {
+                result.write(buffer, 0, length);
+            }
+            return decode(result.toByteArray());
         }
+    }
 
-        return decode(webpData);
+    /**
+     * Decode a still image from a stream within the memory budget. The
+     * footprint is reserved once the headers are read, counting only the data
+     * read so far since the size of the rest isn't known. The incremental
+     * decoder can't scale, so a downgraded decode reads the whole image first.
+     */
+    private static WebPImage decodeIncremental(final WebPMemoryBudget budget, final ByteArrayOutputStream result,
+                                               final InputStream inputStream, final byte[] buffer) throws IOException {
+        WebPBitstreamFeatures features;
+        int length;
+        while ((features = WebPStillDecoder.getFeatures(WebPLoader.lib(), ByteBuffer.wrap(result.toByteArray()), true)) == null) {
+            if ((length = inputStream.read(buffer)) == EOF) {
+                throw new WebPDecoderException("Unexpected end of image data");
+            }
+            result.write(buffer, 0, length);
+        }
+
+        final byte[] header = result.toByteArray();
+        final WebPDecoderOptions options = new WebPDecoderOptions();
+        final WebPFootprint footprint = WebPFootprint.of(features, ByteBuffer.wrap(header), options);
+        try (final WebPMemoryBudget.Reservation reservation = budget.reserve(footprint.minBytes(), footprint.bytes())) {
+            if (reservation.getBytes() < footprint.bytes()) {
+                while ((length = inputStream.read(buffer)) != EOF) {
+                    result.write(buffer, 0, length);
+                }
+                return decodeFrames(ByteBuffer.wrap(result.toByteArray()), footprint.downgrade(options, reservation.getBytes()), int[]::new);
+            }
+            return decodeIncremental(header, inputStream, buffer);
+        }
+    }
+
+    private static WebPImage decodeIncremental(final byte[] header, final InputStream inputStream, final byte[] buffer) throws IOException {
+        final WebPEvents.Decode event = WebPEvents.beginDecode();
+        try (final WebPIncrementalDecoder decoder = new WebPIncrementalDecoder()) {
+            long inputBytes = header.length;
+            boolean complete = decoder.append(header, 0, header.length);
+            int length;
+            while (!complete && (length = inputStream.read(buffer)) != EOF) {
+                complete = decoder.append(buffer, 0, length);
+                inputBytes += length;
+            }
+            if (!complete) {
+                throw new WebPDecoderException("Unexpected end of image data");
+            }
+
+            final BufferedImage image = decoder.getImage();
+            final List<WebPImageFrame> frames = new ArrayList<>(1);
+            frames.add(new WebPImageFrame(image, 0, 0, new Rectangle(image.getWidth(), image.getHeight())));
+            final WebPImage webpImage = new WebPImage(frames, image.getWidth(), image.getHeight(), 1, Color.BLACK, 1);
+            commit(event, inputBytes, webpImage);
+            return webpImage;
+        }
     }
 
     /**
      * Decode a WebP image.
      *
+     * <p>
+     * Images without animation are decoded directly, skipping the canvas
+     * compositing needed for animations.
+     *
      * @param rawData The raw bytes of the image
      * @return A decoded {@link WebPImage}
      * @throws WebPDecoderException When the decoder encounters an issue (e.g.
@@ -95,32 +402,318 @@ public class WebPDecoder {
      *                              libraries (note that this is an error, not an exception)
      */
     public static WebPImage decode(final byte[] rawData) throws IOException, UnsatisfiedLinkError {
-        final LibWebP lib = WebPLoader.lib();
-        try (final WebPData data = new WebPData(lib, rawData); final WebPAnimDecoder decoder = new WebPAnimDecoder(lib, data)) {
-            final WebPAnimInfo info = decoder.getInfo();
+        return decode(rawData, new WebPDecoderOptions());
+    }
 
-            final List<WebPImageFrame> frames = new ArrayList<>();
-            int prevTimestamp = 0;
-            while (decoder.hasMoreFrames()) {
-                final WebPFrame frame = decoder.getNext(info);
+    /**
+     * Decode a WebP image with the given options.
+     *
+     * <p>
+     * When cropping or scaling, the canvas size of the returned
+     * {@link WebPImage} is the size of the decoded frames.
+     *
+     * @param rawData The raw bytes of the image
+     * @param options The decoding options
+     * @return A decoded {@link WebPImage}
+     * @throws WebPDecoderException When the decoder encounters an issue (e.g.
+     *                              if it's not a valid WebP file)
+     * @throws UnsatisfiedLinkError When there was an issue loading the native
+     *                              libraries (note that this is an error, not an exception)
+     * @see #decode(byte[])
+     */
+    public static WebPImage decode(final byte[] rawData, final WebPDecoderOptions options) throws IOException, UnsatisfiedLinkError {
+        Objects.requireNonNull(rawData, "rawData == null");
+        return decode(ByteBuffer.wrap(rawData), options, int[]::new);
+    }
 
-                final int timestamp = frame.timestamp();
-                final int delay = timestamp - prevTimestamp;
-                prevTimestamp = timestamp;
+    /**
+     * Decode a WebP image from the remaining bytes of a buffer.
+     *
+     * <p>
+     * A direct buffer is decoded in place, without copying the compressed
+     * data. Its content must not be modified during the call. The position
+     * of the buffer is not changed.
+     *
+     * @param data The raw bytes of the image
+     * @return A decoded {@link WebPImage}
+     * @throws WebPDecoderException When the decoder encounters an issue (e.g.
+     *                              if it's not a valid WebP file)
+     * @throws UnsatisfiedLinkError When there was an issue loading the native
+     *                              libraries (note that this is an error, not an exception)
+     * @see #decode(ByteBuffer, WebPDecoderOptions)
+     */
+    public static WebPImage decode(final ByteBuffer data) throws IOException, UnsatisfiedLinkError {
+        return decode(data, new WebPDecoderOptions());
+    }
 
-                BufferedImage image = createImage(frame.pixels(), info.canvasWidth(), info.canvasHeight());
-                frames.add(new WebPImageFrame(image, timestamp, delay));
-            }
-            return new WebPImage(frames, info.canvasWidth(), info.canvasHeight(), info.loopCount(), Color.BLACK, info.frameCount());
+    /**
+     * Decode a WebP image from the remaining bytes of a buffer with the given
+     * options.
+     *
+     * @param data    The raw bytes of the image
+     * @param options The decoding options
+     * @return A decoded {@link WebPImage}
+     * @throws WebPDecoderException When the decoder encounters an issue (e.g.
+     *                              if it's not a valid WebP file)
+     * @throws UnsatisfiedLinkError When there was an issue loading the native
+     *                              libraries (note that this is an error, not an exception)
+     * @see #decode(ByteBuffer)
+     * @see #decode(byte[], WebPDecoderOptions)
+     */
+    public static WebPImage decode(final ByteBuffer data, final WebPDecoderOptions options) throws IOException, UnsatisfiedLinkError {
+        return decode(data, options, int[]::new);
+    }
+
+    /**
+     * Decode the frames of a WebP image and pass them to a visitor one at a
+     * time, without copying them to the Java heap.
+     *
+     * @param rawData The raw bytes of the image
+     * @param visitor Receives the frames, in order
+     * @throws IOException          When the visitor fails
+     * @throws WebPDecoderException When the decoder encounters an issue (e.g.
+     *                              if it's not a valid WebP file)
+     * @throws UnsatisfiedLinkError When there was an issue loading the native
+     *                              libraries (note that this is an error, not an exception)
+     * @see WebPFrameDecoder#visitNext(WebPFrameVisitor)
+     */
+    public static void visitFrames(final byte[] rawData, final WebPFrameVisitor visitor) throws IOException, UnsatisfiedLinkError {
+        try (final WebPFrameDecoder decoder = new WebPFrameDecoder(rawData)) {
+            visitFrames(decoder, visitor);
         }
     }
 
-    private static BufferedImage createImage(final int[] pixels, final int width, final int height) {
-        assert pixels.length == width * height;
-        final ColorModel colorModel = new DirectColorModel(32, 0x000000ff, 0x0000ff00, 0x00ff0000, 0xff000000);
-        final SampleModel sampleModel = colorModel.createCompatibleSampleModel(width, height);
-        final DataBufferInt dataBufferInt = new DataBufferInt(pixels, width * height);
-        final WritableRaster writableRaster = WritableRaster.createWritableRaster(sampleModel, dataBufferInt, null);
-        return new BufferedImage(colorModel, writableRaster, false, null);
+    /**
+     * Decode the frames of a WebP image from the remaining bytes of a buffer
+     * and pass them to a visitor one at a time, without copying them to the
+     * Java heap. A direct buffer is also decoded in place.
+     *
+     * @param data    The raw bytes of the image
+     * @param visitor Receives the frames, in order
+     * @throws IOException          When the visitor fails
+     * @throws WebPDecoderException When the decoder encounters an issue (e.g.
+     *                              if it's not a valid WebP file)
+     * @throws UnsatisfiedLinkError When there was an issue loading the native
+     *                              libraries (note that this is an error, not an exception)
+     * @see WebPFrameDecoder#visitNext(WebPFrameVisitor)
+     */
+    public static void visitFrames(final ByteBuffer data, final WebPFrameVisitor visitor) throws IOException, UnsatisfiedLinkError {
+        try (final WebPFrameDecoder decoder = new WebPFrameDecoder(data)) {
+            visitFrames(decoder, visitor);
+        }
+    }
+
+    /**
+     * Decode the frames of a WebP file and pass them to a visitor one at a
+     * time, without copying them to the Java heap. The file is memory-mapped.
+     *
+     * @param path    The path of the file
+     * @param visitor Receives the frames, in order
+     * @throws IOException          When mapping the file or the visitor fails
+     * @throws WebPDecoderException When the decoder encounters an issue (e.g.
+     *                              if it's not a valid WebP file)
+     * @throws UnsatisfiedLinkError When there was an issue loading the native
+     *                              libraries (note that this is an error, not an exception)
+     * @see WebPFrameDecoder#visitNext(WebPFrameVisitor)
+     */
+    public static void visitFrames(final Path path, final WebPFrameVisitor visitor) throws IOException, UnsatisfiedLinkError {
+        try (final WebPFrameDecoder decoder = new WebPFrameDecoder(path)) {
+            visitFrames(decoder, visitor);
+        }
+    }
+
+    private static void visitFrames(final WebPFrameDecoder decoder, final WebPFrameVisitor visitor) throws IOException {
+        Objects.requireNonNull(visitor, "visitor == null");
+        while (decoder.hasMoreFrames()) {
+            decoder.visitNext(visitor);
+        }
+    }
+
+    /**
+     * Iterate over the frames of a WebP image, decoding them lazily.
+     *
+     * @param rawData The raw bytes of the image
+     * @return The frames, to be closed when done
+     * @throws WebPDecoderException When the decoder encounters an issue (e.g.
+     *                              if it's not a valid WebP file)
+     * @throws UnsatisfiedLinkError When there was an issue loading the native
+     *                              libraries (note that this is an error, not an exception)
+     * @see WebPFrameIterator
+     */
+    public static WebPFrameIterator frames(final byte[] rawData) throws WebPDecoderException, UnsatisfiedLinkError {
+        return new WebPFrameIterator(new WebPFrameDecoder(rawData));
+    }
+
+    /**
+     * Iterate over the frames of a WebP image read from the remaining bytes of
+     * a buffer, decoding them lazily. A direct buffer is used in place, so
+     * its content must not change until the iterator is closed.
+     *
+     * @param data The raw bytes of the image
+     * @return The frames, to be closed when done
+     * @throws WebPDecoderException When the decoder encounters an issue (e.g.
+     *                              if it's not a valid WebP file)
+     * @throws UnsatisfiedLinkError When there was an issue loading the native
+     *                              libraries (note that this is an error, not an exception)
+     * @see WebPFrameIterator
+     */
+    public static WebPFrameIterator frames(final ByteBuffer data) throws WebPDecoderException, UnsatisfiedLinkError {
+        return new WebPFrameIterator(new WebPFrameDecoder(data));
+    }
+
+    /**
+     * Iterate over the frames of a WebP file, decoding them lazily. The file
+     * is memory-mapped, so it must not change until the iterator is closed.
+     *
+     * @param path The path of the file
+     * @return The frames, to be closed when done
+     * @throws IOException          When mapping the file fails
+     * @throws WebPDecoderException When the decoder encounters an issue (e.g.
+     *                              if it's not a valid WebP file)
+     * @throws UnsatisfiedLinkError When there was an issue loading the native
+     *                              libraries (note that this is an error, not an exception)
+     * @see WebPFrameIterator
+     */
+    public static WebPFrameIterator frames(final Path path) throws IOException, UnsatisfiedLinkError {
+        return new WebPFrameIterator(new WebPFrameDecoder(path));
+    }
+
+    /**
+     * Decode many WebP images on multiple threads.
+     *
+     * <p>
+     * A failure to decode an image doesn't stop the batch, it's reported in
+     * the result of the image.
+     *
+     * @param rawData The raw bytes of the images
+     * @param options The batch options
+     * @return The results, in the order of the images
+     * @throws UnsatisfiedLinkError When there was an issue loading the native
+     *                              libraries (note that this is an error, not an exception)
+     * @see #decodeAll(Collection, WebPBatchOptions, Consumer)
+     */
+    public static List<WebPBatchResult> decodeAll(final Collection<byte[]> rawData, final WebPBatchOptions options) throws UnsatisfiedLinkError {
+        final WebPBatchResult[] results = new WebPBatchResult[rawData.size()];
+        decodeAll(rawData, options, result -> results[result.index] = result);
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Decode many WebP images on multiple threads, passing the results to a
+     * listener as they complete. The listener is called by one thread at a
+     * time, and this returns once all the images are done.
+     *
+     * <p>
+     * A failure to decode an image doesn't stop the batch, it's reported in
+     * the result of the image. An exception thrown by the listener stops the
+     * batch and is rethrown.
+     *
+     * @param rawData  The raw bytes of the images
+     * @param options  The batch options
+     * @param listener Receives the results, in the order they complete
+     * @throws UnsatisfiedLinkError When there was an issue loading the native
+     *                              libraries (note that this is an error, not an exception)
+     */
+    public static void decodeAll(final Collection<byte[]> rawData, final WebPBatchOptions options,
+                                 final Consumer<WebPBatchResult> listener) throws UnsatisfiedLinkError {
+        decodeAll(rawData, ByteBuffer::wrap, options, listener);
+    }
+
+    /**
+     * Decode many WebP files on multiple threads. The files are memory-mapped.
+     *
+     * <p>
+     * A failure to read or decode a file doesn't stop the batch, it's
+     * reported in the result of the file.
+     *
+     * @param paths   The paths of the files
+     * @param options The batch options
+     * @return The results, in the order of the files
+     * @throws UnsatisfiedLinkError When there was an issue loading the native
+     *                              libraries (note that this is an error, not an exception)
+     * @see #decodeAllFiles(Collection, WebPBatchOptions, Consumer)
+     */
+    public static List<WebPBatchResult> decodeAllFiles(final Collection<Path> paths, final WebPBatchOptions options) throws UnsatisfiedLinkError {
+        final WebPBatchResult[] results = new WebPBatchResult[paths.size()];
+        decodeAllFiles(paths, options, result -> results[result.index] = result);
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Decode many WebP files on multiple threads, passing the results to a
+     * listener as they complete. The files are memory-mapped.
+     *
+     * @param paths    The paths of the files
+     * @param options  The batch options
+     * @param listener Receives the results, in the order they complete
+     * @throws UnsatisfiedLinkError When there was an issue loading the native
+     *                              libraries (note that this is an error, not an exception)
+     * @see #decodeAll(Collection, WebPBatchOptions, Consumer)
+     */
+    public static void decodeAllFiles(final Collection<Path> paths, final WebPBatchOptions options,
+                                      final Consumer<WebPBatchResult> listener) throws UnsatisfiedLinkError {
+        decodeAll(paths, WebPData::mapFile, options, listener);
+    }
+
+    private static <T> void decodeAll(final Collection<T> inputs, final WebPBatchDecoder.Opener<T> opener,
+                                      final WebPBatchOptions options, final Consumer<WebPBatchResult> listener) {
+        Objects.requireNonNull(inputs, "inputs == null");
+        Objects.requireNonNull(options, "options == null");
+        Objects.requireNonNull(listener, "listener == null");
+        // Fail before starting the threads if the library can't be loaded
+        WebPLoader.lib();
+        new WebPBatchDecoder<>(List.copyOf(inputs), opener, options, listener).run(options.getParallelism(), options.getExecutor());
+    }
+
+    /**
+     * Decode an image within the global {@link WebPMemoryBudget}, if there is
+     * one. The footprint is reserved before anything is allocated, and the
+     * image is scaled down if the budget downgrades the decode.
+     */
+    static WebPImage decode(final ByteBuffer data, final WebPDecoderOptions options, final IntFunction<int[]> allocator) throws IOException {
+        Objects.requireNonNull(data, "data == null");
+        Objects.requireNonNull(options, "options == null");
+        final WebPMemoryBudget budget = WebPMemoryBudget.getGlobal();
+        if (budget == null || !data.hasRemaining()) {
+            return decodeFrames(data, options, allocator);
+        }
+
+        final WebPFootprint footprint = WebPFootprint.of(WebPLoader.lib(), data, options);
+        try (final WebPMemoryBudget.Reservation reservation = budget.reserve(footprint.minBytes(), footprint.bytes())) {
+            final WebPDecoderOptions granted = reservation.getBytes() < footprint.bytes()
+                    ? footprint.downgrade(options, reservation.getBytes())
+                    : options;
+            return decodeFrames(data, granted, allocator);
+        }
+    }
+
+    private static WebPImage decodeFrames(final ByteBuffer data, final WebPDecoderOptions options, final IntFunction<int[]> allocator) throws IOException {
+        final WebPEvents.Decode event = WebPEvents.beginDecode();
+        final WebPImage image;
+        try (final WebPFrameIterator frames = new WebPFrameIterator(new WebPFrameDecoder(data, options))) {
+            image = decode(frames, allocator);
+        }
+        commit(event, data.remaining(), image);
+        return image;
+    }
+
+    private static void commit(final WebPEvents.Decode event, final long inputBytes, final WebPImage image) {
+        if (event != null) {
+            event.source = WebPDecoder.class.getSimpleName();
+            event.inputBytes = inputBytes;
+            event.canvasWidth = image.canvasWidth;
+            event.canvasHeight = image.canvasHeight;
+            event.frameCount = image.frameCount;
+            event.commit();
+        }
+    }
+
+    static WebPImage decode(final WebPFrameIterator iterator, final IntFunction<int[]> allocator) throws IOException {
+        final int length = iterator.getWidth() * iterator.getHeight();
+        final List<WebPImageFrame> frames = new ArrayList<>(iterator.getFrameCount());
+        while (iterator.hasNext()) {
+            frames.add(iterator.nextFrame(allocator.apply(length)));
+        }
+        return new WebPImage(frames, iterator.getWidth(), iterator.getHeight(), iterator.getLoopCount(), Color.BLACK, iterator.getFrameCount());
     }
 }
@@ -0,0 +1,120 @@
+package webpdecoderjn;
+
+import java.awt.Rectangle;
+import java.util.Objects;
+
+/**
+ * Options for decoding WebP images.
+ *
+ * <p>
+ * The default options decode every frame at its full size.
+ *
+ * @see WebPDecoder#decode(byte[], WebPDecoderOptions)
+ */
+public class WebPDecoderOptions {
+    private WebPColorMode colorMode = WebPColorMode.BGRA;
+    private boolean useThreads;
+    private Rectangle region;
+    private int scaledWidth;
+    private int scaledHeight;
+
+    /**
+     * Set the byte order libwebp decodes the pixels in, which determines the
+     * color model of the decoded images.
+     *
+     * @param colorMode The color mode (default {@link WebPColorMode#BGRA})
+     */
+    public void setColorMode(WebPColorMode colorMode) {
+        this.colorMode = Objects.requireNonNull(colorMode, "colorMode == null");
+    }
+
+    /**
+     * @return The color mode
+     */
+    public WebPColorMode getColorMode() {
+        return colorMode;
+    }
+
+    /**
+     * Let libwebp use multiple threads for decoding (filtering runs in a
+     * separate thread), which lowers the latency of large lossy images.
+     *
+     * @param useThreads True to use multi-threaded decoding (default false)
+     */
+    public void setUseThreads(boolean useThreads) {
+        this.useThreads = useThreads;
+    }
+
+    /**
+     * @return True if multi-threaded decoding is used
+     */
+    public boolean isUseThreads() {
+        return useThreads;
+    }
+
+    /**
+     * Decode only a region of the image. Still images are cropped by libwebp
+     * while decoding, for frames of animations only the region is copied from
+     * the decoded canvas, so memory use depends on the region size. The
+     * region is clipped to the image bounds.
+     *
+     * <p>
+     * Cropping is applied before scaling, so the scaled size refers to the
+     * region.
+     *
+     * @param region The region in pixels, or null to decode the whole image
+     */
+    public void setRegion(Rectangle region) {
+        this.region = region != null ? new Rectangle(region) : null;
+    }
+
+    /**
+     * @return A copy of the region, or null if not set
+     */
+    public Rectangle getRegion() {
+        return region != null ? new Rectangle(region) : null;
+    }
+
+    /**
+     * Scale the decoded frames to the given size. Still images are scaled by
+     * libwebp while decoding, frames of animations are sampled (nearest
+     * neighbour) from the decoded canvas, so no full size copy is made in
+     * either case.
+     *
+     * <p>
+     * If only one of the dimensions is positive, the other is computed so that
+     * the aspect ratio is preserved. Set both to 0 to disable scaling.
+     *
+     * @param width  The output width in pixels, or 0
+     * @param height The output height in pixels, or 0
+     * @throws IllegalArgumentException When a dimension is negative
+     */
+    public void setScaledSize(int width, int height) {
+        if (width < 0 || height < 0) {
+            throw new IllegalArgumentException("Scaled size must not be negative");
+        }
+        this.scaledWidth = width;
+        this.scaledHeight = height;
+    }
+
+    /**
+     * @return The output width in pixels, or 0 if not set
+     */
+    public int getScaledWidth() {
+        return scaledWidth;
+    }
+
+    /**
+     * @return The output height in pixels, or 0 if not set
+     */
+    public int getScaledHeight() {
+        return scaledHeight;
+    }
+
+    /**
+     * @return True if a scaled size is set
+     */
+    public boolean isScaling() {
+        return scaledWidth > 0 || scaledHeight > 0;
+    }
+}
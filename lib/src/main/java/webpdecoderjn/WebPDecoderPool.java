@@ -0,0 +1,165 @@
+package webpdecoderjn;
+
+import webpdecoderjn.internal.WebPBufferPool;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferInt;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * Decode WebP images reusing the buffers of previous decodes.
+ *
+ * <p>
+ * {@link WebPDecoder#decode(byte[])} allocates native memory for the
+ * compressed data and a new pixel array per frame on every call. A pool
+ * instead copies the data to a recycled native buffer, and decodes the frames
+ * into recycled pixel arrays when the images of previous decodes were given
+ * back with {@link #recycle(WebPImage)}. Using a pool is optional, the
+ * decoded images are the same.
+ *
+ * <p>
+ * The pool keeps at most the configured number of bytes. Buffers that aren't
+ * reused for the idle timeout are dropped (checked when the pool is used, or
+ * by {@link #trim()}). A pool can be shared by multiple threads.
+ */
+public class WebPDecoderPool {
+    /**
+     * The default maximum number of bytes kept by a pool (64 MiB).
+     */
+    public static final long DEFAULT_MAX_POOLED_BYTES = 64L * 1024 * 1024;
+
+    /**
+     * The default time after which unused buffers are dropped (1 minute).
+     */
+    public static final Duration DEFAULT_IDLE_TIMEOUT = Duration.ofMinutes(1);
+
+    private final WebPBufferPool pool;
+
+    /**
+     * Create a pool with the default limits.
+     */
+    public WebPDecoderPool() {
+        this(DEFAULT_MAX_POOLED_BYTES, DEFAULT_IDLE_TIMEOUT);
+    }
+
+    /**
+     * Create a pool.
+     *
+     * @param maxPooledBytes The maximum number of bytes kept by the pool
+     * @param idleTimeout    The time after which unused buffers are dropped
+     */
+    public WebPDecoderPool(final long maxPooledBytes, final Duration idleTimeout) {
+        Objects.requireNonNull(idleTimeout, "idleTimeout == null");
+        this.pool = new WebPBufferPool(maxPooledBytes, idleTimeout.toNanos());
+    }
+
+    /**
+     * Decode a WebP image.
+     *
+     * @param rawData The raw bytes of the image
+     * @return A decoded {@link WebPImage}
+     * @throws WebPDecoderException When the decoder encounters an issue (e.g.
+     *                              if it's not a valid WebP file)
+     * @throws UnsatisfiedLinkError When there was an issue loading the native
+     *                              libraries (note that this is an error, not an exception)
+     * @see WebPDecoder#decode(byte[])
+     */
+    public WebPImage decode(final byte[] rawData) throws IOException, UnsatisfiedLinkError {
+        return this.decode(rawData, new WebPDecoderOptions());
+    }
+
+    /**
+     * Decode a WebP image with the given options.
+     *
+     * @param rawData The raw bytes of the image
+     * @param options The decoding options
+     * @return A decoded {@link WebPImage}
+     * @throws WebPDecoderException When the decoder encounters an issue (e.g.
+     *                              if it's not a valid WebP file)
+     * @throws UnsatisfiedLinkError When there was an issue loading the native
+     *                              libraries (note that this is an error, not an exception)
+     * @see WebPDecoder#decode(byte[], WebPDecoderOptions)
+     */
+    public WebPImage decode(final byte[] rawData, final WebPDecoderOptions options) throws IOException, UnsatisfiedLinkError {
+        Objects.requireNonNull(rawData, "rawData == null");
+        return this.decode(ByteBuffer.wrap(rawData), options);
+    }
+
+    /**
+     * Decode a WebP image from the remaining bytes of a buffer with the given
+     * options. A direct buffer is decoded in place, a heap buffer is copied to
+     * a recycled native buffer. The position of the buffer is not changed.
+     *
+     * @param data    The raw bytes of the image
+     * @param options The decoding options
+     * @return A decoded {@link WebPImage}
+     * @throws WebPDecoderException When the decoder encounters an issue (e.g.
+     *                              if it's not a valid WebP file)
+     * @throws UnsatisfiedLinkError When there was an issue loading the native
+     *                              libraries (note that this is an error, not an exception)
+     * @see WebPDecoder#decode(ByteBuffer, WebPDecoderOptions)
+     */
+    public WebPImage decode(final ByteBuffer data, final WebPDecoderOptions options) throws IOException, UnsatisfiedLinkError {
+        Objects.requireNonNull(data, "data == null");
+        if (data.isDirect() || !data.hasRemaining()) {
+            return this.decodeInPlace(data, options);
+        }
+
+        final ByteBuffer input = this.pool.acquireDirect(data.remaining());
+        try {
+            input.put(data.duplicate()).flip();
+            return this.decodeInPlace(input, options);
+        } finally {
+            this.pool.release(input);
+        }
+    }
+
+    private WebPImage decodeInPlace(final ByteBuffer data, final WebPDecoderOptions options) throws IOException {
+        return WebPDecoder.decode(data, options, this.pool::acquireInts);
+    }
+
+    /**
+     * Give the pixel arrays of a decoded image back to the pool, to decode
+     * the next images into them. Neither the image nor its frames can be used
+     * afterwards.
+     *
+     * @param image An image decoded by this pool (or by {@link WebPDecoder})
+     */
+    public void recycle(final WebPImage image) {
+        Objects.requireNonNull(image, "image == null");
+        for (final WebPImageFrame frame : image.frames) {
+            final BufferedImage img = frame.img;
+            final DataBuffer dataBuffer = img.getRaster().getDataBuffer();
+            // Only arrays holding exactly the frame, as created by the decoder
+            if (dataBuffer instanceof DataBufferInt && dataBuffer.getNumBanks() == 1 && img.getRaster().getParent() == null
+                    && ((DataBufferInt) dataBuffer).getData().length == img.getWidth() * img.getHeight()) {
+                this.pool.release(((DataBufferInt) dataBuffer).getData());
+            }
+        }
+    }
+
+    /**
+     * @return The number of bytes currently kept by the pool
+     */
+    public long getPooledBytes() {
+        return this.pool.getPooledBytes();
+    }
+
+    /**
+     * Drop the buffers that weren't reused for the idle timeout.
+     */
+    public void trim() {
+        this.pool.trim();
+    }
+
+    /**
+     * Drop all the buffers.
+     */
+    public void clear() {
+        this.pool.clear();
+    }
+}
@@ -0,0 +1,124 @@
+package webpdecoderjn;
+
+import webpdecoderjn.internal.LibWebP;
+import webpdecoderjn.internal.WebPImages;
+import webpdecoderjn.internal.WebPStillEncoder;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Objects;
+
+/**
+ * Encode WebP images using native libraries.
+ *
+ * <p>
+ * Like {@link WebPDecoder}, this needs the native library to be loaded (see
+ * {@link WebPLoader#init()}) and may throw an {@code UnsatisfiedLinkError}.
+ *
+ * <p>
+ * The pixels are read by libwebp directly from the image data array (for
+ * {@link BufferedImage#TYPE_INT_ARGB} and {@link BufferedImage#TYPE_INT_RGB}
+ * images) or from the given buffer, and the encoded bytes are written as they
+ * are produced.
+ */
+public class WebPEncoder {
+    private static final WebPEncoderOptions DEFAULT_OPTIONS = new WebPEncoderOptions();
+
+    /**
+     * Encode an image with the default options (lossy, quality 75).
+     *
+     * @param image The image
+     * @return The WebP file
+     * @throws WebPEncoderException When the encoder encounters an issue
+     * @throws UnsatisfiedLinkError When there was an issue loading the native
+     *                              libraries (note that this is an error, not an exception)
+     */
+    public static byte[] encode(final BufferedImage image) throws WebPEncoderException, UnsatisfiedLinkError {
+        return encode(image, DEFAULT_OPTIONS);
+    }
+
+    /**
+     * Encode an image.
+     *
+     * @param image   The image
+     * @param options The encoding options
+     * @return The WebP file
+     * @throws WebPEncoderException When the encoder encounters an issue
+     * @throws UnsatisfiedLinkError When there was an issue loading the native
+     *                              libraries (note that this is an error, not an exception)
+     */
+    public static byte[] encode(final BufferedImage image, final WebPEncoderOptions options) throws WebPEncoderException, UnsatisfiedLinkError {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try {
+            encode(image, options, output);
+        } catch (final WebPEncoderException ex) {
+            throw ex;
+        } catch (final IOException ex) {
+            // Never thrown by a ByteArrayOutputStream
+            throw new IllegalStateException(ex);
+        }
+        return output.toByteArray();
+    }
+
+    /**
+     * Encode an image, writing the WebP file to a stream as it is produced.
+     * The stream is not closed.
+     *
+     * @param image   The image
+     * @param options The encoding options
+     * @param output  The stream to write to
+     * @throws IOException          When writing to the stream fails
+     * @throws WebPEncoderException When the encoder encounters an issue
+     * @throws UnsatisfiedLinkError When there was an issue loading the native
+     *                              libraries (note that this is an error, not an exception)
+     */
+    public static void encode(final BufferedImage image, final WebPEncoderOptions options, final OutputStream output) throws IOException, UnsatisfiedLinkError {
+        Objects.requireNonNull(image, "image == null");
+        Objects.requireNonNull(output, "output == null");
+        newEncoder(options).encode(image, output::write);
+    }
+
+    /**
+     * Encode raw pixels, writing the WebP file to a stream as it is produced.
+     * The stream is not closed.
+     *
+     * <p>
+     * The pixels are read from the buffer position (which is not changed),
+     * 4 bytes per pixel in the order of the color mode. A direct buffer is
+     * read in place.
+     *
+     * @param pixels    The pixels
+     * @param width     The image width
+     * @param height    The image height
+     * @param stride    The distance in bytes between two rows
+     * @param colorMode The byte order of the pixels ({@link WebPColorMode#RGBA}
+     *                  or {@link WebPColorMode#BGRA})
+     * @param options   The encoding options
+     * @param output    The stream to write to
+     * @throws IOException              When writing to the stream fails
+     * @throws WebPEncoderException     When the encoder encounters an issue
+     * @throws IllegalArgumentException When the color mode is premultiplied or
+     *                                  the pixels don't fit in the buffer
+     * @throws UnsatisfiedLinkError     When there was an issue loading the native
+     *                                  libraries (note that this is an error, not an exception)
+     */
+    public static void encode(final ByteBuffer pixels, final int width, final int height, final int stride,
+                              final WebPColorMode colorMode, final WebPEncoderOptions options,
+                              final OutputStream output) throws IOException, UnsatisfiedLinkError {
+        Objects.requireNonNull(pixels, "pixels == null");
+        Objects.requireNonNull(output, "output == null");
+        if (colorMode != WebPColorMode.RGBA && colorMode != WebPColorMode.BGRA) {
+            throw new IllegalArgumentException("Unsupported color mode: " + colorMode);
+        }
+        newEncoder(options).encode(pixels.slice(), WebPImages.toColorspace(colorMode), true, width, height, stride, output::write);
+    }
+
+    private static WebPStillEncoder newEncoder(final WebPEncoderOptions options) throws WebPEncoderException {
+        Objects.requireNonNull(options, "options == null");
+        final LibWebP lib = WebPLoader.lib();
+        return new WebPStillEncoder(lib, options.isLossless(), options.getQuality(), options.getMethod(), options.isUseThreads());
+    }
+}
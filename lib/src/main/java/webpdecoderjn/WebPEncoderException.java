@@ -0,0 +1,11 @@
+package webpdecoderjn;
+
+import java.io.IOException;
+
+public class WebPEncoderException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    public WebPEncoderException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,89 @@
+package webpdecoderjn;
+
+/**
+ * Options for encoding WebP images.
+ *
+ * <p>
+ * The default options encode lossy images with quality 75, like {@code cwebp}.
+ *
+ * @see WebPEncoder#encode(java.awt.image.BufferedImage, WebPEncoderOptions)
+ */
+public class WebPEncoderOptions {
+    private boolean lossless;
+    private float quality = 75;
+    private int method = 4;
+    private boolean useThreads;
+
+    /**
+     * @param lossless True for lossless encoding, false for lossy (default)
+     */
+    public void setLossless(boolean lossless) {
+        this.lossless = lossless;
+    }
+
+    /**
+     * @return True if lossless encoding is used
+     */
+    public boolean isLossless() {
+        return lossless;
+    }
+
+    /**
+     * Set the quality of lossy encoding (0 gives the smallest size, 100 the
+     * best quality), or the compression effort of lossless encoding (0 is the
+     * fastest, 100 gives the smallest size).
+     *
+     * @param quality The quality, between 0 and 100 (default 75)
+     * @throws IllegalArgumentException When the quality is out of range
+     */
+    public void setQuality(float quality) {
+        if (!(quality >= 0 && quality <= 100)) {
+            throw new IllegalArgumentException("Quality must be between 0 and 100");
+        }
+        this.quality = quality;
+    }
+
+    /**
+     * @return The quality
+     */
+    public float getQuality() {
+        return quality;
+    }
+
+    /**
+     * Set the trade-off between encoding speed and size.
+     *
+     * @param method The method, between 0 (fastest) and 6 (slowest, smallest) (default 4)
+     * @throws IllegalArgumentException When the method is out of range
+     */
+    public void setMethod(int method) {
+        if (method < 0 || method > 6) {
+            throw new IllegalArgumentException("Method must be between 0 and 6");
+        }
+        this.method = method;
+    }
+
+    /**
+     * @return The method
+     */
+    public int getMethod() {
+        return method;
+    }
+
+    /**
+     * Let libwebp use multiple threads for encoding (the {@code thread_level}
+     * option), which lowers the latency of large images.
+     *
+     * @param useThreads True to use multi-threaded encoding (default false)
+     */
+    public void setUseThreads(boolean useThreads) {
+        this.useThreads = useThreads;
+    }
+
+    /**
+     * @return True if multi-threaded encoding is used
+     */
+    public boolean isUseThreads() {
+        return useThreads;
+    }
+}
@@ -0,0 +1,43 @@
+package webpdecoderjn;
+
+/**
+ * Basic information about an image, read from its headers without decoding
+ * any pixels.
+ *
+ * @see WebPDecoder#probe(byte[])
+ */
+public class WebPFeatures {
+    /**
+     * The compression used by the image.
+     */
+    public enum Format {
+        /**
+         * Mixed lossy and lossless frames, or unknown (e.g. for some animations).
+         */
+        MIXED,
+        LOSSY,
+        LOSSLESS
+    }
+
+    public final int width;
+    public final int height;
+    public final boolean hasAlpha;
+    public final boolean hasAnimation;
+    public final Format format;
+    public final int frameCount;
+
+    WebPFeatures(int width, int height, boolean hasAlpha, boolean hasAnimation, Format format, int frameCount) {
+        this.width = width;
+        this.height = height;
+        this.hasAlpha = hasAlpha;
+        this.hasAnimation = hasAnimation;
+        this.format = format;
+        this.frameCount = frameCount;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d x %d / %s%s%s / %d frames", width, height, format,
+                hasAlpha ? " / alpha" : "", hasAnimation ? " / animated" : "", frameCount);
+    }
+}
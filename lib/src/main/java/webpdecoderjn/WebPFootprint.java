@@ -0,0 +1,88 @@
+package webpdecoderjn;
+
+import webpdecoderjn.internal.LibWebP;
+import webpdecoderjn.internal.WebPAnimInfo;
+import webpdecoderjn.internal.WebPBitstreamFeatures;
+import webpdecoderjn.internal.WebPContainer;
+import webpdecoderjn.internal.WebPStillDecoder;
+
+import java.awt.Dimension;
+import java.awt.Rectangle;
+import java.nio.ByteBuffer;
+
+/**
+ * The estimated memory needed to decode an image into a {@link WebPImage},
+ * read from its headers only: a part that doesn't depend on the output size,
+ * and a part per output pixel.
+ */
+final class WebPFootprint {
+    private final long fixedBytes;
+    private final long bytesPerPixel;
+    private final Dimension size;
+
+    private WebPFootprint(final long fixedBytes, final long bytesPerPixel, final Dimension size) {
+        this.fixedBytes = fixedBytes;
+        this.bytesPerPixel = bytesPerPixel;
+        this.size = size;
+    }
+
+    static WebPFootprint of(final LibWebP lib, final ByteBuffer data, final WebPDecoderOptions options) throws WebPDecoderException {
+        return of(WebPStillDecoder.getFeatures(lib, data), data, options);
+    }
+
+    /**
+     * @param features The features read from the headers
+     * @param data     The image data, only the start of it for a still image
+     *                 whose data is still arriving
+     * @param options  The decoding options
+     */
+    static WebPFootprint of(final WebPBitstreamFeatures features, final ByteBuffer data, final WebPDecoderOptions options) {
+        // Counting the frames only reads the chunk headers, the demuxer isn't needed
+        final WebPAnimInfo info = features.hasAnimation()
+                ? new WebPAnimInfo(features.width(), features.height(), 0, Math.max(1, WebPContainer.countFrames(data)))
+                : new WebPAnimInfo(features.width(), features.height(), 1, 1);
+        final Rectangle region = WebPFrameDecoder.getRegion(options, info.canvasWidth(), info.canvasHeight());
+        final Dimension size = WebPFrameDecoder.getOutputSize(options, region.width, region.height);
+
+        // The compressed data is copied to native memory, unless it's already there
+        final long inputBytes = data.isDirect() ? 0 : data.remaining();
+        if (features.hasAnimation()) {
+            // The animation decoder keeps two canvases, each frame is copied from them (through a buffer when scaling)
+            final long canvasBytes = (long) info.canvasWidth() * info.canvasHeight() * Integer.BYTES;
+            return new WebPFootprint(inputBytes + 2 * canvasBytes, (long) Integer.BYTES * (info.frameCount() + 1), size);
+        }
+        // libwebp decodes into native memory, read into the frame
+        return new WebPFootprint(inputBytes, 2L * Integer.BYTES, size);
+    }
+
+    /**
+     * @return The number of bytes needed at the requested size
+     */
+    long bytes() {
+        return this.fixedBytes + this.bytesPerPixel * this.size.width * this.size.height;
+    }
+
+    /**
+     * @return The number of bytes needed at the smallest size (1x1)
+     */
+    long minBytes() {
+        return this.fixedBytes + this.bytesPerPixel;
+    }
+
+    /**
+     * Scale the output down, keeping the aspect ratio, so that the decode
+     * needs at most the given number of bytes.
+     *
+     * @return A copy of the options with the scaled size
+     */
+    WebPDecoderOptions downgrade(final WebPDecoderOptions options, final long bytes) {
+        final double pixels = (double) (bytes - this.fixedBytes) / this.bytesPerPixel;
+        final double scale = Math.min(1, Math.sqrt(pixels / this.size.width / this.size.height));
+        final WebPDecoderOptions downgraded = new WebPDecoderOptions();
+        downgraded.setColorMode(options.getColorMode());
+        downgraded.setUseThreads(options.isUseThreads());
+        downgraded.setRegion(options.getRegion());
+        downgraded.setScaledSize(Math.max(1, (int) (this.size.width * scale)), Math.max(1, (int) (this.size.height * scale)));
+        return downgraded;
+    }
+}
@@ -0,0 +1,60 @@
+package webpdecoderjn;
+
+import java.awt.Rectangle;
+import java.nio.ByteBuffer;
+
+/**
+ * A decoded frame, viewed directly in the memory of the native decoder.
+ *
+ * <p>
+ * The pixels are only valid during the call to
+ * {@link WebPFrameVisitor#visit(WebPFrameBuffer)} that received the frame:
+ * the native decoder reuses or frees the memory afterwards. Copy what needs
+ * to be kept.
+ */
+public class WebPFrameBuffer {
+    /**
+     * A read-only view of the pixels, 4 bytes per pixel in the order of the
+     * {@link WebPColorMode}. The buffer is in little endian order, so
+     * {@link ByteBuffer#getInt(int)} reads 0xAARRGGBB ints when decoding
+     * with {@link WebPColorMode#BGRA}. Row {@code y} starts at
+     * {@code y * stride}.
+     */
+    public final ByteBuffer pixels;
+
+    /**
+     * The width in pixels.
+     */
+    public final int width;
+
+    /**
+     * The height in pixels.
+     */
+    public final int height;
+
+    /**
+     * The distance in bytes between two rows.
+     */
+    public final int stride;
+
+    /**
+     * Counted from the start of the animation until when to show the frame
+     * (in ms).
+     */
+    public final int timestamp;
+
+    /**
+     * The part of the frame that differs from the previous frame (see
+     * {@link WebPFrameDecoder#getDirtyRect()}).
+     */
+    public final Rectangle dirtyRect;
+
+    WebPFrameBuffer(ByteBuffer pixels, int width, int height, int stride, int timestamp, Rectangle dirtyRect) {
+        this.pixels = pixels;
+        this.width = width;
+        this.height = height;
+        this.stride = stride;
+        this.timestamp = timestamp;
+        this.dirtyRect = dirtyRect;
+    }
+}
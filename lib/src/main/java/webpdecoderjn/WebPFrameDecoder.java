@@ -0,0 +1,630 @@
+package webpdecoderjn;
+
+import com.sun.jna.Pointer;
+import com.sun.jna.ptr.IntByReference;
+import webpdecoderjn.internal.LibWebP;
+import webpdecoderjn.internal.WebPAnimDecoder;
+import webpdecoderjn.internal.WebPAnimInfo;
+import webpdecoderjn.internal.WebPBitstreamFeatures;
+import webpdecoderjn.internal.WebPData;
+import webpdecoderjn.internal.WebPDemuxFrame;
+import webpdecoderjn.internal.WebPDemuxer;
+import webpdecoderjn.internal.WebPEvents;
+import webpdecoderjn.internal.WebPImages;
+import webpdecoderjn.internal.WebPPixels;
+import webpdecoderjn.internal.WebPStillDecoder;
+
+import java.awt.Dimension;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.ReadOnlyBufferException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * Decode the frames of a WebP image one at a time into buffers provided by
+ * the caller.
+ *
+ * <p>
+ * Decoding every frame into the same destination avoids allocating a new
+ * pixel array and image per frame. Still images have a single frame. Each
+ * frame is the whole canvas (or the region and size selected by the
+ * {@link WebPDecoderOptions}), with the pixels in the byte order of the
+ * {@link WebPColorMode}.
+ *
+ * <p>
+ * The native resources are only released by {@link #close()}.
+ */
+public class WebPFrameDecoder implements Closeable {
+    private final WebPData data;
+    private final WebPColorMode colorMode;
+    private final WebPStillDecoder stillDecoder;
+    private final WebPAnimDecoder animDecoder;
+    private final int canvasWidth;
+    private final int width;
+    private final int height;
+    private final int loopCount;
+    private final int frameCount;
+
+    // The decoded region and output size (null and 0 when not cropping and not scaling)
+    private final Rectangle crop;
+    private final int scaledWidth;
+    private final int scaledHeight;
+    private boolean stillDecoded;
+
+    // Animations, the sampled canvas columns and rows when scaling
+    private final int[] columns;
+    private final int[] rows;
+    private ByteBuffer sampleBuffer;
+
+    // Animations, the dirty rectangle of each frame (in output coordinates)
+    private final Rectangle[] dirtyRects;
+    private int frameIndex;
+    private Rectangle dirtyRect;
+
+    // Reused for every frame instead of a new native allocation each time
+    private final IntByReference timestampRef = new IntByReference();
+
+    /**
+     * Create a decoder for the frames of an image.
+     *
+     * @param rawData The raw bytes of the image
+     * @throws WebPDecoderException When the decoder encounters an issue (e.g.
+     *                              if it's not a valid WebP file)
+     * @throws UnsatisfiedLinkError When there was an issue loading the native
+     *                              libraries (note that this is an error, not an exception)
+     */
+    public WebPFrameDecoder(final byte[] rawData) throws WebPDecoderException, UnsatisfiedLinkError {
+        this(rawData, new WebPDecoderOptions());
+    }
+
+    /**
+     * Create a decoder for the frames of an image.
+     *
+     * @param rawData The raw bytes of the image
+     * @param options The decoding options
+     * @throws WebPDecoderException When the decoder encounters an issue (e.g.
+     *                              if it's not a valid WebP file)
+     * @throws UnsatisfiedLinkError When there was an issue loading the native
+     *                              libraries (note that this is an error, not an exception)
+     */
+    public WebPFrameDecoder(final byte[] rawData, final WebPDecoderOptions options) throws WebPDecoderException, UnsatisfiedLinkError {
+        this(new WebPData(WebPLoader.lib(), rawData), options);
+    }
+
+    /**
+     * Create a decoder for the frames of an image read from the remaining
+     * bytes of a buffer. A direct buffer is used in place, so its content must
+     * not change until the decoder is closed.
+     *
+     * @param data The raw bytes of the image
+     * @throws WebPDecoderException When the decoder encounters an issue (e.g.
+     *                              if it's not a valid WebP file)
+     * @throws UnsatisfiedLinkError When there was an issue loading the native
+     *                              libraries (note that this is an error, not an exception)
+     */
+    public WebPFrameDecoder(final ByteBuffer data) throws WebPDecoderException, UnsatisfiedLinkError {
+        this(data, new WebPDecoderOptions());
+    }
+
+    /**
+     * Create a decoder for the frames of an image read from the remaining
+     * bytes of a buffer. A direct buffer is used in place, so its content must
+     * not change until the decoder is closed.
+     *
+     * @param data    The raw bytes of the image
+     * @param options The decoding options
+     * @throws WebPDecoderException When the decoder encounters an issue (e.g.
+     *                              if it's not a valid WebP file)
+     * @throws UnsatisfiedLinkError When there was an issue loading the native
+     *                              libraries (note that this is an error, not an exception)
+     */
+    public WebPFrameDecoder(final ByteBuffer data, final WebPDecoderOptions options) throws WebPDecoderException, UnsatisfiedLinkError {
+        this(new WebPData(WebPLoader.lib(), data), options);
+    }
+
+    /**
+     * Create a decoder for the frames of an image file. The file is
+     * memory-mapped, so it must not change until the decoder is closed.
+     *
+     * @param path The path of the file
+     * @throws IOException          When mapping the file fails
+     * @throws WebPDecoderException When the decoder encounters an issue (e.g.
+     *                              if it's not a valid WebP file)
+     * @throws UnsatisfiedLinkError When there was an issue loading the native
+     *                              libraries (note that this is an error, not an exception)
+     */
+    public WebPFrameDecoder(final Path path) throws IOException, UnsatisfiedLinkError {
+        this(path, new WebPDecoderOptions());
+    }
+
+    /**
+     * Create a decoder for the frames of an image file. The file is
+     * memory-mapped, so it must not change until the decoder is closed.
+     *
+     * @param path    The path of the file
+     * @param options The decoding options
+     * @throws IOException          When mapping the file fails
+     * @throws WebPDecoderException When the decoder encounters an issue (e.g.
+     *                              if it's not a valid WebP file)
+     * @throws UnsatisfiedLinkError When there was an issue loading the native
+     *                              libraries (note that this is an error, not an exception)
+     */
+    public WebPFrameDecoder(final Path path, final WebPDecoderOptions options) throws IOException, UnsatisfiedLinkError {
+        this(WebPData.map(WebPLoader.lib(), path), options);
+    }
+
+    private WebPFrameDecoder(final WebPData data, final WebPDecoderOptions options) throws WebPDecoderException {
+        this.data = data;
+        try {
+            Objects.requireNonNull(options, "options == null");
+            final LibWebP lib = WebPLoader.lib();
+            this.colorMode = options.getColorMode();
+            final int colorspace = WebPImages.toColorspace(this.colorMode);
+            final WebPStillDecoder stillDecoder = new WebPStillDecoder(lib, this.data, colorspace, options.isUseThreads());
+            final WebPBitstreamFeatures features = stillDecoder.getFeatures();
+            if (features.hasAnimation()) {
+                this.stillDecoder = null;
+                this.animDecoder = new WebPAnimDecoder(lib, this.data, colorspace, options.isUseThreads());
+                final WebPAnimInfo info = this.animDecoder.getInfo();
+                this.canvasWidth = info.canvasWidth();
+                this.loopCount = info.loopCount();
+                this.frameCount = info.frameCount();
+
+                final Rectangle region = getRegion(options, info.canvasWidth(), info.canvasHeight());
+                final Dimension size = getOutputSize(options, region.width, region.height);
+                this.width = size.width;
+                this.height = size.height;
+                this.crop = region.width != info.canvasWidth() || region.height != info.canvasHeight() ? region : null;
+                this.scaledWidth = options.isScaling() ? size.width : 0;
+                this.scaledHeight = options.isScaling() ? size.height : 0;
+                // The animation decoder always renders the whole canvas, so crop and scale while copying it
+                if (options.isScaling()) {
+                    this.columns = WebPPixels.scaleIndices(region.x, region.width, size.width);
+                    this.rows = WebPPixels.scaleIndices(region.y, region.height, size.height);
+                } else {
+                    this.columns = null;
+                    this.rows = null;
+                }
+
+                try (final WebPDemuxer demuxer = new WebPDemuxer(lib, this.data)) {
+                    final List<WebPDemuxFrame> frames = demuxer.getFrames();
+                    final Rectangle canvas = new Rectangle(info.canvasWidth(), info.canvasHeight());
+                    this.dirtyRects = new Rectangle[frames.size()];
+                    WebPDemuxFrame previous = null;
+                    for (int i = 0; i < frames.size(); ++i) {
+                        final WebPDemuxFrame frame = frames.get(i);
+                        this.dirtyRects[i] = toOutput(WebPDemuxer.getDirtyRect(previous, frame, canvas), region, this.columns, this.rows);
+                        previous = frame;
+                    }
+                }
+            } else {
+                this.stillDecoder = stillDecoder;
+                this.animDecoder = null;
+                this.canvasWidth = features.width();
+                this.loopCount = 1;
+                this.frameCount = 1;
+
+                final Rectangle region = getRegion(options, features.width(), features.height());
+                final Dimension size = getOutputSize(options, region.width, region.height);
+                this.width = size.width;
+                this.height = size.height;
+                // libwebp crops and scales while decoding
+                this.crop = region.width != features.width() || region.height != features.height() ? region : null;
+                this.scaledWidth = options.isScaling() ? size.width : 0;
+                this.scaledHeight = options.isScaling() ? size.height : 0;
+                this.columns = null;
+                this.rows = null;
+                this.dirtyRects = null;
+            }
+        } catch (final RuntimeException | WebPDecoderException ex) {
+            // The decoder takes ownership of the data
+            this.close();
+            throw ex;
+        }
+    }
+
+    /**
+     * @return The width of the decoded frames
+     */
+    public int getWidth() {
+        return this.width;
+    }
+
+    /**
+     * @return The height of the decoded frames
+     */
+    public int getHeight() {
+        return this.height;
+    }
+
+    /**
+     * @return The color mode of the decoded pixels
+     */
+    public WebPColorMode getColorMode() {
+        return this.colorMode;
+    }
+
+    /**
+     * @return The number of times the animation should be played (0 means
+     * infinitely), 1 for still images
+     */
+    public int getLoopCount() {
+        return this.loopCount;
+    }
+
+    /**
+     * @return The number of frames
+     */
+    public int getFrameCount() {
+        return this.frameCount;
+    }
+
+    /**
+     * @return True if there are frames left to decode
+     */
+    public boolean hasMoreFrames() {
+        if (this.animDecoder != null) {
+            return this.animDecoder.hasMoreFrames();
+        }
+        return !this.stillDecoded;
+    }
+
+    /**
+     * Restart decoding from the first frame, for example to play an
+     * animation again. This reuses the parsed image data and the decoder
+     * buffers instead of creating a new decoder.
+     */
+    public void reset() {
+        if (this.animDecoder != null) {
+            this.animDecoder.reset();
+        }
+        this.stillDecoded = false;
+        this.frameIndex = 0;
+        this.dirtyRect = null;
+    }
+
+    /**
+     * Get the part of the last decoded frame that differs from the frame
+     * before it (the whole frame for the first frame and still images).
+     * Pixels outside of it are the same as in the previous frame.
+     *
+     * @return The dirty rectangle, in frame coordinates (possibly empty), or
+     * null before the first frame
+     */
+    public Rectangle getDirtyRect() {
+        return this.dirtyRect != null ? new Rectangle(this.dirtyRect) : null;
+    }
+
+    /**
+     * Decode the next frame into an array, one int per pixel.
+     *
+     * @param pixels   The destination array
+     * @param offset   The index of the first pixel in the array
+     * @param scanline The distance in pixels between two rows in the array
+     * @return The timestamp of the frame in milliseconds (0 for still images)
+     * @throws WebPDecoderException   When the decoder encounters an issue
+     * @throws NoSuchElementException When there are no more frames
+     */
+    public int decodeNext(final int[] pixels, final int offset, final int scanline) throws WebPDecoderException {
+        Objects.requireNonNull(pixels, "pixels == null");
+        if (offset < 0 || scanline < this.width
+                || (long) offset + (long) (this.height - 1) * scanline + this.width > pixels.length) {
+            throw new IndexOutOfBoundsException("The frame doesn't fit in the array");
+        }
+
+        return this.decodeNext(pixels, offset, scanline, false, null);
+    }
+
+    /**
+     * Decode the next frame into an array holding the previous frame,
+     * copying only the dirty rectangle of the frame (see
+     * {@link #getDirtyRect()}).
+     *
+     * <p>
+     * The array must contain the previous frame decoded by this decoder (at
+     * the same offset and scanline), so that only the pixels that changed
+     * need to be copied. Nothing is assumed for the first frame.
+     *
+     * @param pixels   The destination array
+     * @param offset   The index of the first pixel in the array
+     * @param scanline The distance in pixels between two rows in the array
+     * @return The timestamp of the frame in milliseconds (0 for still images)
+     * @throws WebPDecoderException   When the decoder encounters an issue
+     * @throws NoSuchElementException When there are no more frames
+     */
+    public int updateNext(final int[] pixels, final int offset, final int scanline) throws WebPDecoderException {
+        return this.decodeNext(pixels, offset, scanline, true, null);
+    }
+
+    /**
+     * Decode the next frame, measuring the native and copy times into the
+     * event if it's not null.
+     */
+    int decodeNext(final int[] pixels, final int offset, final int scanline, final boolean update,
+                   final WebPEvents.Frame event) throws WebPDecoderException {
+        Objects.requireNonNull(pixels, "pixels == null");
+        if (offset < 0 || scanline < this.width
+                || (long) offset + (long) (this.height - 1) * scanline + this.width > pixels.length) {
+            throw new IndexOutOfBoundsException("The frame doesn't fit in the array");
+        }
+
+        if (this.animDecoder == null) {
+            this.checkStillNotDecoded();
+            if (event == null) {
+                this.stillDecoder.decode(this.crop, this.scaledWidth, this.scaledHeight, pixels, offset, scanline);
+            } else {
+                final long nativeStart = System.nanoTime();
+                this.stillDecoder.decode(this.crop, this.scaledWidth, this.scaledHeight, (buffer, stride, width, height) -> {
+                    final long copyStart = System.nanoTime();
+                    WebPPixels.read(buffer, stride, width, height, pixels, offset, scanline);
+                    event.nativeTime = copyStart - nativeStart;
+                    event.copyTime = System.nanoTime() - copyStart;
+                    return null;
+                });
+                event.frameIndex = 0;
+            }
+            this.stillDecoded();
+            return 0;
+        }
+
+        final long nativeStart = event != null ? System.nanoTime() : 0;
+        final Pointer canvas = this.nextCanvas(this.timestampRef);
+        final long copyStart = event != null ? System.nanoTime() : 0;
+        if (event != null) {
+            event.frameIndex = this.frameIndex - 1;
+            event.nativeTime = copyStart - nativeStart;
+        }
+        final Rectangle rect = update ? this.dirtyRect : new Rectangle(this.width, this.height);
+        if (rect.isEmpty()) {
+            return this.timestampRef.getValue();
+        }
+
+        final int start = offset + rect.y * scanline + rect.x;
+        if (this.columns != null) {
+            WebPPixels.sample(canvas, this.canvasWidth * Integer.BYTES, slice(this.columns, rect.x, rect.width),
+                    slice(this.rows, rect.y, rect.height), pixels, start, scanline);
+        } else {
+            WebPPixels.read(this.getOrigin(canvas, rect.x, rect.y), this.canvasWidth * Integer.BYTES,
+                    rect.width, rect.height, pixels, start, scanline);
+        }
+        if (event != null) {
+            event.copyTime = System.nanoTime() - copyStart;
+        }
+        return this.timestampRef.getValue();
+    }
+
+    /**
+     * Decode the next frame into the top left corner of an image.
+     *
+     * <p>
+     * The image must be of type {@link BufferedImage#TYPE_INT_ARGB} when
+     * decoding with {@link WebPColorMode#BGRA} and of type
+     * {@link BufferedImage#TYPE_INT_ARGB_PRE} when decoding with
+     * {@link WebPColorMode#BGRA_PREMULTIPLIED}.
+     *
+     * @param image The destination image
+     * @return The timestamp of the frame in milliseconds (0 for still images)
+     * @throws WebPDecoderException     When the decoder encounters an issue
+     * @throws IllegalArgumentException When the image type doesn't match the
+     *                                  color mode or the image is too small
+     * @throws NoSuchElementException   When there are no more frames
+     */
+    public int decodeNext(final BufferedImage image) throws WebPDecoderException {
+        final WebPImages.Pixels pixels = this.getPixels(image);
+        return this.decodeNext(pixels.data(), pixels.offset(), pixels.scanline(), false, null);
+    }
+
+    /**
+     * Decode the next frame into an image holding the previous frame,
+     * copying only the dirty rectangle of the frame (see
+     * {@link #getDirtyRect()} and {@link #updateNext(int[], int, int)}).
+     *
+     * @param image The destination image, with the same requirements as for
+     *              {@link #decodeNext(BufferedImage)}
+     * @return The timestamp of the frame in milliseconds (0 for still images)
+     * @throws WebPDecoderException     When the decoder encounters an issue
+     * @throws IllegalArgumentException When the image type doesn't match the
+     *                                  color mode or the image is too small
+     * @throws NoSuchElementException   When there are no more frames
+     */
+    public int updateNext(final BufferedImage image) throws WebPDecoderException {
+        final WebPImages.Pixels pixels = this.getPixels(image);
+        return this.decodeNext(pixels.data(), pixels.offset(), pixels.scanline(), true, null);
+    }
+
+    private WebPImages.Pixels getPixels(final BufferedImage image) {
+        Objects.requireNonNull(image, "image == null");
+        if (WebPImages.fromImageType(image.getType()) != this.colorMode) {
+            throw new IllegalArgumentException("Image type " + image.getType() + " doesn't match color mode " + this.colorMode);
+        } else if (image.getWidth() < this.width || image.getHeight() < this.height) {
+            throw new IllegalArgumentException("Image is smaller than the frames");
+        }
+        return WebPImages.getPixels(image);
+    }
+
+    /**
+     * Decode the next frame into a buffer, 4 bytes per pixel in the order of
+     * the color mode, starting at the position of the buffer (which is not
+     * changed). Still images are decoded directly into direct buffers.
+     *
+     * @param buffer The destination buffer
+     * @param stride The distance in bytes between two rows in the buffer
+     * @return The timestamp of the frame in milliseconds (0 for still images)
+     * @throws WebPDecoderException   When the decoder encounters an issue
+     * @throws NoSuchElementException When there are no more frames
+     */
+    public int decodeNext(final ByteBuffer buffer, final int stride) throws WebPDecoderException {
+        Objects.requireNonNull(buffer, "buffer == null");
+        if (buffer.isReadOnly()) {
+            throw new ReadOnlyBufferException();
+        } else if (stride < this.width * Integer.BYTES
+                || (long) (this.height - 1) * stride + (long) this.width * Integer.BYTES > buffer.remaining()) {
+            throw new IndexOutOfBoundsException("The frame doesn't fit in the buffer");
+        }
+
+        if (this.animDecoder == null) {
+            this.checkStillNotDecoded();
+            this.stillDecoder.decode(this.crop, this.scaledWidth, this.scaledHeight, buffer, stride);
+            this.stillDecoded();
+            return 0;
+        }
+
+        final Pointer canvas = this.nextCanvas(this.timestampRef);
+        if (this.columns != null) {
+            WebPPixels.sample(canvas, this.canvasWidth * Integer.BYTES, this.columns, this.rows, buffer, stride);
+        } else {
+            WebPPixels.read(this.getOrigin(canvas, 0, 0), this.canvasWidth * Integer.BYTES, this.width, this.height, buffer, stride);
+        }
+        return this.timestampRef.getValue();
+    }
+
+    /**
+     * Decode the next frame and pass it to the visitor without copying it
+     * (unless scaling an animation).
+     *
+     * @param visitor Receives the frame
+     * @throws IOException            When the decoder encounters an issue or the
+     *                                visitor fails
+     * @throws NoSuchElementException When there are no more frames
+     */
+    public void visitNext(final WebPFrameVisitor visitor) throws IOException {
+        Objects.requireNonNull(visitor, "visitor == null");
+
+        if (this.animDecoder == null) {
+            this.checkStillNotDecoded();
+            this.stillDecoded();
+            this.stillDecoder.decode(this.crop, this.scaledWidth, this.scaledHeight, (buffer, stride, width, height) -> {
+                final ByteBuffer pixels = WebPPixels.view(buffer, stride, width, height);
+                visitor.visit(new WebPFrameBuffer(pixels, width, height, stride, 0, this.getDirtyRect()));
+                return null;
+            });
+            return;
+        }
+
+        final Pointer canvas = this.nextCanvas(this.timestampRef);
+        final int canvasStride = this.canvasWidth * Integer.BYTES;
+        final WebPFrameBuffer frame;
+        if (this.columns == null) {
+            final ByteBuffer pixels = WebPPixels.view(this.getOrigin(canvas, 0, 0), canvasStride, this.width, this.height);
+            frame = new WebPFrameBuffer(pixels, this.width, this.height, canvasStride, this.timestampRef.getValue(), this.getDirtyRect());
+        } else {
+            final int stride = this.width * Integer.BYTES;
+            if (this.sampleBuffer == null) {
+                this.sampleBuffer = ByteBuffer.allocateDirect(stride * this.height);
+            }
+            WebPPixels.sample(canvas, canvasStride, this.columns, this.rows, this.sampleBuffer, stride);
+            final ByteBuffer pixels = this.sampleBuffer.asReadOnlyBuffer().order(ByteOrder.LITTLE_ENDIAN);
+            frame = new WebPFrameBuffer(pixels, this.width, this.height, stride, this.timestampRef.getValue(), this.getDirtyRect());
+        }
+        visitor.visit(frame);
+    }
+
+    /**
+     * @return The pixel of the canvas at the given frame coordinates (when not scaling)
+     */
+    private Pointer getOrigin(final Pointer canvas, final int x, final int y) {
+        final int canvasX = (this.crop != null ? this.crop.x : 0) + x;
+        final int canvasY = (this.crop != null ? this.crop.y : 0) + y;
+        return canvas.share(((long) canvasY * this.canvasWidth + canvasX) * Integer.BYTES);
+    }
+
+    private void checkStillNotDecoded() {
+        if (this.stillDecoded) {
+            throw new NoSuchElementException("No more frames");
+        }
+    }
+
+    private void stillDecoded() {
+        this.stillDecoded = true;
+        this.dirtyRect = new Rectangle(this.width, this.height);
+    }
+
+    private Pointer nextCanvas(final IntByReference timestampRef) throws WebPDecoderException {
+        if (!this.animDecoder.hasMoreFrames()) {
+            throw new NoSuchElementException("No more frames");
+        }
+        final Pointer canvas = this.animDecoder.getNextCanvas(timestampRef);
+        this.dirtyRect = this.frameIndex < this.dirtyRects.length
+                ? this.dirtyRects[this.frameIndex] : new Rectangle(this.width, this.height);
+        ++this.frameIndex;
+        return canvas;
+    }
+
+    private static int[] slice(final int[] indices, final int offset, final int length) {
+        return offset == 0 && length == indices.length ? indices : Arrays.copyOfRange(indices, offset, offset + length);
+    }
+
+    /**
+     * Maps a rectangle of the canvas to the frame pixels sampled from it.
+     */
+    private static Rectangle toOutput(final Rectangle rect, final Rectangle region, final int[] columns, final int[] rows) {
+        final Rectangle clipped = rect.intersection(region);
+        if (clipped.isEmpty()) {
+            return new Rectangle();
+        } else if (columns == null) {
+            clipped.translate(-region.x, -region.y);
+            return clipped;
+        }
+
+        final int x = firstIndexOf(columns, clipped.x);
+        final int y = firstIndexOf(rows, clipped.y);
+        return new Rectangle(x, y, firstIndexOf(columns, clipped.x + clipped.width) - x, firstIndexOf(rows, clipped.y + clipped.height) - y);
+    }
+
+    /**
+     * @return The index of the first value at least the given value in the ascending indices
+     */
+    private static int firstIndexOf(final int[] indices, final int value) {
+        int index = 0;
+        while (index < indices.length && indices[index] < value) {
+            ++index;
+        }
+        return index;
+    }
+
+    @Override
+    public void close() {
+        if (this.animDecoder != null) {
+            this.animDecoder.close();
+        }
+        if (this.data != null) {
+            this.data.close();
+        }
+    }
+
+    static Rectangle getRegion(final WebPDecoderOptions options, final int width, final int height) {
+        final Rectangle bounds = new Rectangle(width, height);
+        final Rectangle region = options.getRegion();
+        if (region == null) {
+            return bounds;
+        }
+
+        final Rectangle clipped = region.intersection(bounds);
+        if (clipped.isEmpty()) {
+            throw new IllegalArgumentException("Region " + region + " is outside of the image " + bounds);
+        }
+        return clipped;
+    }
+
+    static Dimension getOutputSize(final WebPDecoderOptions options, final int width, final int height) {
+        final int scaledWidth = options.getScaledWidth();
+        final int scaledHeight = options.getScaledHeight();
+        if (scaledWidth > 0 && scaledHeight > 0) {
+            return new Dimension(scaledWidth, scaledHeight);
+        } else if (scaledWidth > 0) {
+            return new Dimension(scaledWidth, (int) Math.max(1, Math.round((double) scaledWidth * height / width)));
+        } else if (scaledHeight > 0) {
+            return new Dimension((int) Math.max(1, Math.round((double) scaledHeight * width / height)), scaledHeight);
+        } else {
+            return new Dimension(width, height);
+        }
+    }
+}
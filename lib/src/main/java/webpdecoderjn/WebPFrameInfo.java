@@ -0,0 +1,83 @@
+package webpdecoderjn;
+
+/**
+ * Information about a frame of an image, read from the container without
+ * decoding it.
+ *
+ * @see WebPImageInfo
+ */
+public class WebPFrameInfo {
+    /**
+     * How the frame is combined with the canvas.
+     */
+    public enum BlendMethod {
+        /**
+         * Alpha-blend the frame over the canvas.
+         */
+        BLEND,
+        /**
+         * Replace the canvas pixels covered by the frame.
+         */
+        NO_BLEND
+    }
+
+    /**
+     * What happens to the frame area after the frame is shown.
+     */
+    public enum DisposeMethod {
+        /**
+         * Leave the canvas as is.
+         */
+        NONE,
+        /**
+         * Clear the frame area to transparent.
+         */
+        BACKGROUND
+    }
+
+    /**
+     * The position of the frame in the canvas.
+     */
+    public final int x;
+    public final int y;
+
+    /**
+     * The size of the frame.
+     */
+    public final int width;
+    public final int height;
+
+    /**
+     * How long to show the frame (in ms).
+     */
+    public final int duration;
+
+    public final BlendMethod blendMethod;
+    public final DisposeMethod disposeMethod;
+    public final boolean hasAlpha;
+
+    /**
+     * Whether the frame can be rendered without any of the previous frames
+     * (as decided by the libwebp animation decoder).
+     */
+    public final boolean keyFrame;
+
+    WebPFrameInfo(int x, int y, int width, int height, int duration, BlendMethod blendMethod,
+                  DisposeMethod disposeMethod, boolean hasAlpha, boolean keyFrame) {
+        this.x = x;
+        this.y = y;
+        this.width = width;
+        this.height = height;
+        this.duration = duration;
+        this.blendMethod = blendMethod;
+        this.disposeMethod = disposeMethod;
+        this.hasAlpha = hasAlpha;
+        this.keyFrame = keyFrame;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d x %d at %d, %d / %d ms / %s / %s%s", width, height, x, y, duration,
+                blendMethod, disposeMethod, keyFrame ? " / key frame" : "");
+    }
+}
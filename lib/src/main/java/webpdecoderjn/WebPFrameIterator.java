@@ -0,0 +1,159 @@
+package webpdecoderjn;
+
+import webpdecoderjn.internal.WebPEvents;
+import webpdecoderjn.internal.WebPImages;
+
+import java.awt.image.BufferedImage;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Decode the frames of a WebP image lazily, one frame per call to
+ * {@link #next()}.
+ *
+ * <p>
+ * Unlike {@link WebPDecoder#decode(byte[])}, frames are only decoded when
+ * requested, so the memory used doesn't depend on the number of frames (as
+ * long as the frames aren't all kept by the caller).
+ *
+ * <p>
+ * The native resources are only released by {@link #close()} (or by closing
+ * the {@link #stream()}).
+ */
+public class WebPFrameIterator implements Iterator<WebPImageFrame>, Closeable {
+    private final WebPFrameDecoder decoder;
+    private int prevTimestamp;
+
+    /**
+     * Create an iterator over the frames of a decoder. The iterator takes
+     * ownership of the decoder and closes it when closed.
+     *
+     * @param decoder The decoder
+     */
+    public WebPFrameIterator(final WebPFrameDecoder decoder) {
+        this.decoder = Objects.requireNonNull(decoder, "decoder == null");
+    }
+
+    /**
+     * @return The width of the decoded frames
+     */
+    public int getWidth() {
+        return this.decoder.getWidth();
+    }
+
+    /**
+     * @return The height of the decoded frames
+     */
+    public int getHeight() {
+        return this.decoder.getHeight();
+    }
+
+    /**
+     * @return The number of times the animation should be played (0 means
+     * infinitely), 1 for still images
+     */
+    public int getLoopCount() {
+        return this.decoder.getLoopCount();
+    }
+
+    /**
+     * @return The number of frames
+     */
+    public int getFrameCount() {
+        return this.decoder.getFrameCount();
+    }
+
+    @Override
+    public boolean hasNext() {
+        return this.decoder.hasMoreFrames();
+    }
+
+    /**
+     * Decode the next frame.
+     *
+     * @return The next frame
+     * @throws UncheckedIOException   When the decoder encounters an issue
+     * @throws NoSuchElementException When there are no more frames
+     * @see #nextFrame()
+     */
+    @Override
+    public WebPImageFrame next() {
+        try {
+            return this.nextFrame();
+        } catch (final IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * Decode the next frame, like {@link #next()} but with a checked
+     * exception.
+     *
+     * @return The next frame
+     * @throws WebPDecoderException   When the decoder encounters an issue
+     * @throws NoSuchElementException When there are no more frames
+     */
+    public WebPImageFrame nextFrame() throws WebPDecoderException {
+        return this.nextFrame(new int[this.decoder.getWidth() * this.decoder.getHeight()]);
+    }
+
+    /**
+     * Decode the next frame into the given array, which the frame image then uses.
+     */
+    WebPImageFrame nextFrame(final int[] pixels) throws WebPDecoderException {
+        // Only measure the steps when the event is recorded
+        final WebPEvents.Frame event = WebPEvents.beginFrame();
+
+        final int width = this.decoder.getWidth();
+        final int height = this.decoder.getHeight();
+        final int timestamp = this.decoder.decodeNext(pixels, 0, width, false, event);
+        final int delay = timestamp - this.prevTimestamp;
+        this.prevTimestamp = timestamp;
+
+        final long imageStart = event != null ? System.nanoTime() : 0;
+        final BufferedImage image = WebPImages.createImage(pixels, width, height, this.decoder.getColorMode());
+        if (event != null) {
+            event.imageTime = System.nanoTime() - imageStart;
+            event.width = width;
+            event.height = height;
+            event.commit();
+        }
+        return new WebPImageFrame(image, timestamp, delay, this.decoder.getDirtyRect());
+    }
+
+    /**
+     * Restart the iteration from the first frame, without decoding the
+     * image headers again.
+     *
+     * @see WebPFrameDecoder#reset()
+     */
+    public void reset() {
+        this.decoder.reset();
+        this.prevTimestamp = 0;
+    }
+
+    /**
+     * Get a sequential stream of the remaining frames. Closing the stream
+     * closes this iterator.
+     *
+     * @return The stream
+     */
+    public Stream<WebPImageFrame> stream() {
+        final Spliterator<WebPImageFrame> spliterator = Spliterators.spliteratorUnknownSize(this,
+                Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.IMMUTABLE);
+        return StreamSupport.stream(spliterator, false).onClose(this::close);
+    }
+
+    @Override
+    public void close() {
+        this.decoder.close();
+    }
+}
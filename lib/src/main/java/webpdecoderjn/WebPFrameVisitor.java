@@ -0,0 +1,21 @@
+package webpdecoderjn;
+
+import java.io.IOException;
+
+/**
+ * Receives the frames of an image without copying them to the Java heap.
+ *
+ * @see WebPFrameDecoder#visitNext(WebPFrameVisitor)
+ * @see WebPDecoder#visitFrames(byte[], WebPFrameVisitor)
+ */
+@FunctionalInterface
+public interface WebPFrameVisitor {
+    /**
+     * Process a frame.
+     *
+     * @param frame The frame, only valid until this returns
+     * @throws IOException When processing the frame fails, which stops the
+     *                     decoding
+     */
+    void visit(WebPFrameBuffer frame) throws IOException;
+}
@@ -1,5 +1,6 @@
 package webpdecoderjn;
 
+import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
 
 /**
@@ -22,10 +23,17 @@ public class WebPImageFrame {
      */
     public final int delay;
 
-    WebPImageFrame(BufferedImage img, int timestamp, int delay) {
+    /**
+     * The part of the image that differs from the previous frame (the whole
+     * image for the first frame).
+     */
+    public final Rectangle dirtyRect;
+
+    WebPImageFrame(BufferedImage img, int timestamp, int delay, Rectangle dirtyRect) {
         this.img = img;
         this.timestamp = timestamp;
         this.delay = delay;
+        this.dirtyRect = dirtyRect;
     }
 
     @Override
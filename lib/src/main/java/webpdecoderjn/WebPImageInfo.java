@@ -0,0 +1,41 @@
+package webpdecoderjn;
+
+import java.awt.Color;
+import java.util.List;
+
+/**
+ * Information about an image and each of its frames, read from the container
+ * without decoding any pixels.
+ *
+ * @see WebPDecoder#info(byte[])
+ */
+public class WebPImageInfo {
+    public final int canvasWidth;
+    public final int canvasHeight;
+    public final int loopCount;
+    public final Color bgColor;
+    public final int frameCount;
+
+    /**
+     * The sum of the frame durations (in ms).
+     */
+    public final long totalDuration;
+
+    public final List<WebPFrameInfo> frames;
+
+    WebPImageInfo(int canvasWidth, int canvasHeight, int loopCount, Color bgColor, List<WebPFrameInfo> frames) {
+        this.canvasWidth = canvasWidth;
+        this.canvasHeight = canvasHeight;
+        this.loopCount = loopCount;
+        this.bgColor = bgColor;
+        this.frameCount = frames.size();
+        this.totalDuration = frames.stream().mapToLong(frame -> frame.duration).sum();
+        this.frames = frames;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d x %d / %d loops / %d frames / %d ms %s", canvasWidth, canvasHeight, loopCount,
+                frameCount, totalDuration, frames);
+    }
+}
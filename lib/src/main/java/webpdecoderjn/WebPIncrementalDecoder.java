@@ -0,0 +1,117 @@
+package webpdecoderjn;
+
+import webpdecoderjn.internal.WebPIDecoder;
+import webpdecoderjn.internal.WebPImages;
+
+import java.awt.image.BufferedImage;
+import java.io.Closeable;
+import java.nio.ByteBuffer;
+import java.util.Objects;
+
+/**
+ * Decode a still WebP image while its data is still arriving.
+ *
+ * <p>
+ * Each call to {@link #append(byte[], int, int)} decodes as far as the data
+ * received so far allows, so loading and decoding overlap and the rows
+ * decoded so far can be shown as a preview. Animated images are not supported
+ * (use {@link WebPDecoder#decode(byte[])} for those).
+ *
+ * <p>
+ * The native resources are only released by {@link #close()}.
+ */
+public class WebPIncrementalDecoder implements Closeable {
+    private final WebPIDecoder decoder;
+    private final WebPColorMode colorMode;
+    private boolean complete;
+
+    /**
+     * Create a new incremental decoder.
+     *
+     * @throws UnsatisfiedLinkError When there was an issue loading the native
+     *                              libraries (note that this is an error, not an exception)
+     */
+    public WebPIncrementalDecoder() throws UnsatisfiedLinkError {
+        this(WebPColorMode.BGRA);
+    }
+
+    /**
+     * Create a new incremental decoder.
+     *
+     * @param colorMode The color mode to decode the pixels in
+     * @throws UnsatisfiedLinkError When there was an issue loading the native
+     *                              libraries (note that this is an error, not an exception)
+     */
+    public WebPIncrementalDecoder(final WebPColorMode colorMode) throws UnsatisfiedLinkError {
+        this.colorMode = Objects.requireNonNull(colorMode, "colorMode == null");
+        this.decoder = new WebPIDecoder(WebPLoader.lib(), WebPImages.toColorspace(colorMode));
+    }
+
+    /**
+     * Append the next bytes of the image and decode them.
+     *
+     * @param data   The buffer containing the data
+     * @param offset The start of the data in the buffer
+     * @param length The number of bytes
+     * @return True when the image is completely decoded (any further data is
+     * ignored), false when more data is expected
+     * @throws WebPDecoderException When the decoder encounters an issue (e.g.
+     *                              if it's not a valid WebP file or it's animated)
+     */
+    public boolean append(final byte[] data, final int offset, final int length) throws WebPDecoderException {
+        if (!this.complete) {
+            this.complete = this.decoder.append(ByteBuffer.wrap(data, offset, length));
+        }
+        return this.complete;
+    }
+
+    /**
+     * @return True when the image is completely decoded
+     */
+    public boolean isComplete() {
+        return this.complete;
+    }
+
+    /**
+     * @return The image width, or 0 if the headers haven't been decoded yet
+     */
+    public int getWidth() {
+        final WebPIDecoder.Progress progress = this.decoder.getProgress();
+        return progress != null ? progress.width() : 0;
+    }
+
+    /**
+     * @return The image height, or 0 if the headers haven't been decoded yet
+     */
+    public int getHeight() {
+        final WebPIDecoder.Progress progress = this.decoder.getProgress();
+        return progress != null ? progress.height() : 0;
+    }
+
+    /**
+     * @return The number of rows (from the top) decoded so far
+     */
+    public int getDecodedRows() {
+        final WebPIDecoder.Progress progress = this.decoder.getProgress();
+        return progress != null ? progress.lastRow() : 0;
+    }
+
+    /**
+     * Get the image decoded so far. Rows that haven't been decoded yet are
+     * transparent. Each call copies the pixels into a new image.
+     *
+     * @return The image, or null if the headers haven't been decoded yet
+     */
+    public BufferedImage getImage() {
+        final WebPIDecoder.Progress progress = this.decoder.getProgress();
+        if (progress == null) {
+            return null;
+        }
+        return WebPImages.createImage(progress.pixels(), progress.width(), progress.height(), this.colorMode);
+    }
+
+    @Override
+    public void close() {
+        this.decoder.close();
+    }
+}
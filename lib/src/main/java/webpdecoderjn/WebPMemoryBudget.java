@@ -0,0 +1,209 @@
+package webpdecoderjn;
+
+import java.io.InterruptedIOException;
+
+/**
+ * A limit on the memory used by the decodes in progress, shared by all
+ * threads.
+ *
+ * <p>
+ * Before allocating anything, a decode reserves its estimated footprint, read
+ * from the headers of the image: the native memory used by libwebp (the
+ * compressed data, the decoded canvas, and a second canvas for animations)
+ * and the pixel arrays of the decoded frames. The reservation is released
+ * when the decode returns, so the budget bounds the memory of concurrent
+ * decodes, not the memory of the images kept afterwards.
+ *
+ * <p>
+ * When a decode doesn't fit in the remaining memory, the {@link Policy}
+ * decides whether it waits, fails, or is decoded at a smaller size. An image
+ * larger than the whole budget is decoded once no other decode is in
+ * progress (or fails, or is decoded at the size of the budget).
+ *
+ * <p>
+ * The budget set with {@link #setGlobal(WebPMemoryBudget)} applies to
+ * {@link WebPDecoder}, {@link WebPDecoderPool} and the ImageIO reader. There
+ * is none by default.
+ */
+public final class WebPMemoryBudget {
+    /**
+     * What a decode does when its footprint doesn't fit in the budget.
+     */
+    public enum Policy {
+        /**
+         * Wait until enough memory is released by the other decodes.
+         */
+        WAIT,
+        /**
+         * Throw a {@link WebPMemoryBudgetException} right away.
+         */
+        FAIL,
+        /**
+         * Decode at a lower resolution that fits in the remaining memory, or
+         * wait if not even the smallest size fits. Decodes into an existing
+         * image can't change size, so they wait.
+         */
+        DOWNGRADE
+    }
+
+    private static volatile WebPMemoryBudget global;
+
+    private final long maxBytes;
+    private final Policy policy;
+    private long reservedBytes;
+
+    /**
+     * Create a budget.
+     *
+     * @param maxBytes The maximum number of bytes reserved by the decodes in progress
+     * @param policy   What a decode does when it doesn't fit
+     */
+    public WebPMemoryBudget(final long maxBytes, final Policy policy) {
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("maxBytes <= 0");
+        } else if (policy == null) {
+            throw new NullPointerException("policy == null");
+        }
+        this.maxBytes = maxBytes;
+        this.policy = policy;
+    }
+
+    /**
+     * Set the budget used by all decodes.
+     *
+     * @param budget The budget, or null to not limit the decodes (default)
+     */
+    public static void setGlobal(final WebPMemoryBudget budget) {
+        global = budget;
+    }
+
+    /**
+     * @return The budget used by all decodes, or null if there is none
+     */
+    public static WebPMemoryBudget getGlobal() {
+        return global;
+    }
+
+    /**
+     * @return The maximum number of bytes reserved by the decodes in progress
+     */
+    public long getMaxBytes() {
+        return this.maxBytes;
+    }
+
+    /**
+     * @return What a decode does when it doesn't fit
+     */
+    public Policy getPolicy() {
+        return this.policy;
+    }
+
+    /**
+     * @return The number of bytes currently reserved
+     */
+    public synchronized long getReservedBytes() {
+        return this.reservedBytes;
+    }
+
+    /**
+     * Reserve memory, waiting or failing according to the policy. With
+     * {@link Policy#DOWNGRADE} this waits, since the amount is fixed.
+     *
+     * @param bytes The number of bytes
+     * @return The reservation, to close once the memory is freed
+     * @throws WebPMemoryBudgetException When the policy is {@link Policy#FAIL}
+     *                                   and the bytes don't fit
+     * @throws InterruptedIOException    When the thread is interrupted while waiting
+     */
+    public Reservation reserve(final long bytes) throws WebPMemoryBudgetException, InterruptedIOException {
+        return this.reserve(bytes, bytes);
+    }
+
+    /**
+     * Reserve memory for a decode that can use less of it at a lower
+     * resolution. With {@link Policy#DOWNGRADE}, the remaining memory is
+     * reserved if it's less than {@code bytes} but at least {@code minBytes}.
+     * With the other policies this is the same as {@link #reserve(long)}.
+     *
+     * @param minBytes The number of bytes needed at the smallest size
+     * @param bytes    The number of bytes needed at the full size
+     * @return The reservation, to close once the memory is freed
+     * @throws WebPMemoryBudgetException When the policy is {@link Policy#FAIL}
+     *                                   and the bytes don't fit
+     * @throws InterruptedIOException    When the thread is interrupted while waiting
+     */
+    public Reservation reserve(final long minBytes, final long bytes) throws WebPMemoryBudgetException, InterruptedIOException {
+        if (minBytes < 0) {
+            throw new IllegalArgumentException("minBytes < 0");
+        } else if (bytes < minBytes) {
+            throw new IllegalArgumentException("bytes < minBytes");
+        }
+
+        synchronized (this) {
+            while (true) {
+                final long available = this.maxBytes - this.reservedBytes;
+                final long granted;
+                if (bytes <= available) {
+                    granted = bytes;
+                } else if (this.policy == Policy.DOWNGRADE && minBytes <= available) {
+                    granted = available;
+                } else if (this.policy != Policy.FAIL && this.reservedBytes == 0) {
+                    // More than the whole budget, so it's decoded alone
+                    granted = this.policy == Policy.DOWNGRADE ? minBytes : bytes;
+                } else if (this.policy == Policy.FAIL) {
+                    throw new WebPMemoryBudgetException(bytes, available);
+                } else {
+                    try {
+                        this.wait();
+                    } catch (final InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                        throw new InterruptedIOException("Interrupted while waiting for memory");
+                    }
+                    continue;
+                }
+
+                this.reservedBytes += granted;
+                return new Reservation(granted);
+            }
+        }
+    }
+
+    private synchronized void release(final long bytes) {
+        this.reservedBytes -= bytes;
+        this.notifyAll();
+    }
+
+    /**
+     * Memory reserved in a budget, until it's closed.
+     */
+    public final class Reservation implements AutoCloseable {
+        private final long bytes;
+        private boolean closed;
+
+        private Reservation(final long bytes) {
+            this.bytes = bytes;
+        }
+
+        /**
+         * @return The number of bytes reserved, less than requested when
+         * the decode is downgraded
+         */
+        public long getBytes() {
+            return this.bytes;
+        }
+
+        /**
+         * Release the memory. Closing a reservation twice has no effect.
+         */
+        @Override
+        public void close() {
+            synchronized (WebPMemoryBudget.this) {
+                if (this.closed) {
+                    return;
+                }
+                this.closed = true;
+                WebPMemoryBudget.this.release(this.bytes);
+            }
+        }
+    }
+}
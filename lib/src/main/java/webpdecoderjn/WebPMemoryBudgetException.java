@@ -0,0 +1,32 @@
+package webpdecoderjn;
+
+/**
+ * Thrown when a decode doesn't fit in a {@link WebPMemoryBudget} using the
+ * {@link WebPMemoryBudget.Policy#FAIL} policy.
+ */
+public class WebPMemoryBudgetException extends WebPDecoderException {
+    private static final long serialVersionUID = 1L;
+
+    private final long requestedBytes;
+    private final long availableBytes;
+
+    public WebPMemoryBudgetException(long requestedBytes, long availableBytes) {
+        super("Memory budget exceeded (" + requestedBytes + " bytes needed, " + availableBytes + " available)");
+        this.requestedBytes = requestedBytes;
+        this.availableBytes = availableBytes;
+    }
+
+    /**
+     * @return The estimated number of bytes needed by the decode
+     */
+    public long getRequestedBytes() {
+        return requestedBytes;
+    }
+
+    /**
+     * @return The number of bytes that were left in the budget
+     */
+    public long getAvailableBytes() {
+        return availableBytes;
+    }
+}
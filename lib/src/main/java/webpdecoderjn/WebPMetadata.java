@@ -0,0 +1,60 @@
+package webpdecoderjn;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The metadata chunks of an image (color profile, EXIF and XMP), read from
+ * the container without decoding any pixels.
+ *
+ * <p>
+ * The chunks are read-only slices of the image data, not copies, so they are
+ * only valid as long as the image data doesn't change.
+ *
+ * @see WebPDecoder#metadata(byte[])
+ */
+public class WebPMetadata {
+    private final ByteBuffer iccProfile;
+    private final ByteBuffer exif;
+    private final ByteBuffer xmp;
+
+    WebPMetadata(ByteBuffer iccProfile, ByteBuffer exif, ByteBuffer xmp) {
+        this.iccProfile = iccProfile;
+        this.exif = exif;
+        this.xmp = xmp;
+    }
+
+    /**
+     * @return The ICC profile (ICCP chunk), or null if there is none
+     */
+    public ByteBuffer getICCProfile() {
+        return duplicate(this.iccProfile);
+    }
+
+    /**
+     * @return The EXIF metadata (EXIF chunk), or null if there is none
+     */
+    public ByteBuffer getEXIF() {
+        return duplicate(this.exif);
+    }
+
+    /**
+     * @return The XMP metadata (XMP chunk), or null if there is none
+     */
+    public ByteBuffer getXMP() {
+        return duplicate(this.xmp);
+    }
+
+    private static ByteBuffer duplicate(ByteBuffer buffer) {
+        // Each caller gets its own position and limit
+        return buffer != null ? buffer.duplicate() : null;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ICCP %d bytes / EXIF %d bytes / XMP %d bytes", size(iccProfile), size(exif), size(xmp));
+    }
+
+    private static int size(ByteBuffer buffer) {
+        return buffer != null ? buffer.remaining() : 0;
+    }
+}
@@ -0,0 +1,109 @@
+package webpdecoderjn;
+
+import webpdecoderjn.internal.NativeResource;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Tracks the native memory allocated by this library.
+ *
+ * <p>
+ * Native memory (the copied image data, and the decoders and encoders of
+ * libwebp) is freed when its owner is closed or disposed, e.g.
+ * {@link WebPFrameDecoder#close()} or {@code ImageReader.dispose()}. An owner
+ * that is never closed is freed once it's garbage collected, which can be
+ * much later, so closing remains the way to keep memory use low.
+ *
+ * <p>
+ * Leak tracking records the stack trace and size of every allocation while
+ * it is open, and logs the allocations freed by the garbage collector with
+ * their stack trace (as warnings of the
+ * {@code webpdecoderjn.internal.NativeResource} logger). It's meant for
+ * finding leaks, since capturing a stack trace per allocation is slow. It can
+ * also be enabled with the {@code webpdecoderjn.trackLeaks} system property.
+ */
+public final class WebPNativeMemory {
+    private WebPNativeMemory() {
+    }
+
+    /**
+     * Enable or disable leak tracking. Only the allocations made while it is
+     * enabled are tracked.
+     *
+     * @param enabled True to track the allocations (default false, unless the
+     *                {@code webpdecoderjn.trackLeaks} system property is true)
+     */
+    public static void setLeakTracking(boolean enabled) {
+        NativeResource.setTracking(enabled);
+    }
+
+    /**
+     * @return True if the allocations are tracked
+     */
+    public static boolean isLeakTracking() {
+        return NativeResource.isTracking();
+    }
+
+    /**
+     * The sizes include the copied image data and the canvases of animation
+     * decoders and encoders, other allocations of libwebp count as 0 bytes.
+     *
+     * @return The number of bytes of the tracked allocations not freed yet
+     */
+    public static long getTrackedBytes() {
+        return NativeResource.getOpenBytes();
+    }
+
+    /**
+     * @return The tracked allocations not freed yet
+     */
+    public static List<Allocation> getTrackedAllocations() {
+        final List<Allocation> allocations = new ArrayList<>();
+        for (final NativeResource.Allocation allocation : NativeResource.getOpenAllocations()) {
+            allocations.add(new Allocation(allocation.type(), allocation.bytes(), Arrays.asList(allocation.stackTrace())));
+        }
+        return allocations;
+    }
+
+    /**
+     * @return The number of allocations freed by the garbage collector
+     * because their owner wasn't closed, tracked or not
+     */
+    public static long getLeakCount() {
+        return NativeResource.getLeakCount();
+    }
+
+    /**
+     * A native allocation that is not freed yet.
+     */
+    public static final class Allocation {
+        /**
+         * The kind of allocation (e.g. WebPAnimDecoder).
+         */
+        public final String type;
+
+        /**
+         * The size of the allocation (estimated), 0 if unknown.
+         */
+        public final long bytes;
+
+        /**
+         * Where the allocation was made.
+         */
+        public final List<StackTraceElement> stackTrace;
+
+        Allocation(String type, long bytes, List<StackTraceElement> stackTrace) {
+            this.type = type;
+            this.bytes = bytes;
+            this.stackTrace = Collections.unmodifiableList(stackTrace);
+        }
+
+        @Override
+        public String toString() {
+            return "Allocation{type=" + type + ", bytes=" + bytes + "}";
+        }
+    }
+}
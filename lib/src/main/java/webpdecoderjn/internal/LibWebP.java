@@ -2,12 +2,92 @@ package webpdecoderjn.internal;
 
 import com.sun.jna.Library;
 import com.sun.jna.Pointer;
-import com.sun.jna.Structure;
 import com.sun.jna.ptr.IntByReference;
 import com.sun.jna.ptr.PointerByReference;
 
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+
 public interface LibWebP extends Library {
     int WEBP_DEMUX_ABI_VERSION = 0x0107;
+    int WEBP_DECODER_ABI_VERSION = 0x0209;
+    int WEBP_ENCODER_ABI_VERSION = 0x020f;
+    int WEBP_MUX_ABI_VERSION = 0x0108;
+
+    /*
+    [webp/decode.h]
+        typedef enum VP8StatusCode { ... } VP8StatusCode;
+    */
+    int VP8_STATUS_OK = 0;
+    int VP8_STATUS_OUT_OF_MEMORY = 1;
+    int VP8_STATUS_INVALID_PARAM = 2;
+    int VP8_STATUS_BITSTREAM_ERROR = 3;
+    int VP8_STATUS_UNSUPPORTED_FEATURE = 4;
+    int VP8_STATUS_SUSPENDED = 5;
+    int VP8_STATUS_USER_ABORT = 6;
+    int VP8_STATUS_NOT_ENOUGH_DATA = 7;
+
+    /*
+    [webp/decode.h]
+        typedef enum WEBP_CSP_MODE { ... } WEBP_CSP_MODE;
+    */
+    int MODE_RGBA = 1;
+    int MODE_BGRA = 3;
+    int MODE_rgbA = 7;
+    int MODE_bgrA = 8;
+
+    /*
+    [webp/encode.h]
+        typedef enum WebPPreset { ... } WebPPreset;
+    */
+    int WEBP_PRESET_DEFAULT = 0;
+
+    /*
+    [webp/encode.h]
+        typedef enum WebPEncodingError { ... } WebPEncodingError;
+    */
+    int VP8_ENC_OK = 0;
+    int VP8_ENC_ERROR_OUT_OF_MEMORY = 1;
+    int VP8_ENC_ERROR_BITSTREAM_OUT_OF_MEMORY = 2;
+    int VP8_ENC_ERROR_NULL_PARAMETER = 3;
+    int VP8_ENC_ERROR_INVALID_CONFIGURATION = 4;
+    int VP8_ENC_ERROR_BAD_DIMENSION = 5;
+    int VP8_ENC_ERROR_PARTITION0_OVERFLOW = 6;
+    int VP8_ENC_ERROR_PARTITION_OVERFLOW = 7;
+    int VP8_ENC_ERROR_BAD_WRITE = 8;
+    int VP8_ENC_ERROR_FILE_TOO_BIG = 9;
+    int VP8_ENC_ERROR_USER_ABORT = 10;
+
+    /*
+    [webp/demux.h]
+        typedef enum WebPFormatFeature { ... } WebPFormatFeature;
+    */
+    int WEBP_FF_FORMAT_FLAGS = 0;
+    int WEBP_FF_CANVAS_WIDTH = 1;
+    int WEBP_FF_CANVAS_HEIGHT = 2;
+    int WEBP_FF_LOOP_COUNT = 3;
+    int WEBP_FF_BACKGROUND_COLOR = 4;
+    int WEBP_FF_FRAME_COUNT = 5;
+
+    /*
+    [webp/mux_types.h]
+        typedef enum WebPFeatureFlags { ... } WebPFeatureFlags;
+    */
+    int ANIMATION_FLAG = 0x00000002;
+    int XMP_FLAG = 0x00000004;
+    int EXIF_FLAG = 0x00000008;
+    int ALPHA_FLAG = 0x00000010;
+    int ICCP_FLAG = 0x00000020;
+
+    /*
+    [webp/mux_types.h]
+        typedef enum WebPMuxAnimDispose { ... } WebPMuxAnimDispose;
+        typedef enum WebPMuxAnimBlend { ... } WebPMuxAnimBlend;
+    */
+    int WEBP_MUX_DISPOSE_NONE = 0;
+    int WEBP_MUX_DISPOSE_BACKGROUND = 1;
+    int WEBP_MUX_BLEND = 0;
+    int WEBP_MUX_NO_BLEND = 1;
 
     /*
     [webp/types.h]
@@ -47,7 +127,7 @@ public interface LibWebP extends Library {
                                             WEBP_DEMUX_ABI_VERSION);
         }
     */
-    Pointer WebPAnimDecoderNewInternal(WebPData.Struct webp_data, Structure dec_options, int version);
+    Pointer WebPAnimDecoderNewInternal(WebPData.Struct webp_data, WebPAnimDecoderOptions.Struct dec_options, int version);
 
     /*
     [webp/demux.h]
@@ -93,6 +173,18 @@ public interface LibWebP extends Library {
     */
     int WebPAnimDecoderGetNext(Pointer dec, PointerByReference buf, IntByReference timestamp);
 
+    /*
+    [webp/demux.h]
+        // Resets the WebPAnimDecoder object, so that next call to
+        // WebPAnimDecoderGetNext() will restart decoding from 1st frame. This would be
+        // helpful when all frames need to be decoded multiple times (e.g.
+        // info.loop_count times) without destroying and recreating the 'dec' object.
+        // Parameters:
+        //   dec - (in/out) decoder instance to be reset
+        WEBP_EXTERN void WebPAnimDecoderReset(WebPAnimDecoder* dec);
+    */
+    void WebPAnimDecoderReset(Pointer dec);
+
     /*
     [webp/demux.h]
         // Deletes the WebPAnimDecoder object.
@@ -101,4 +193,385 @@ public interface LibWebP extends Library {
         WEBP_EXTERN void WebPAnimDecoderDelete(WebPAnimDecoder* dec);
     */
     void WebPAnimDecoderDelete(Pointer dec);
+
+    /*
+    [webp/demux.h]
+        // Internal, version-checked, entry point
+        WEBP_EXTERN WebPDemuxer* WebPDemuxInternal(
+            const WebPData*, int, WebPDemuxState*, int);
+
+        // Parses the full WebP file given by 'data'. For single images the WebP file
+        // header alone or the file header and the chunk header may be absent.
+        // Returns a WebPDemuxer object on successful parse, NULL otherwise.
+        static WEBP_INLINE WebPDemuxer* WebPDemux(const WebPData* data) {
+          return WebPDemuxInternal(data, 0, NULL, WEBP_DEMUX_ABI_VERSION);
+        }
+    */
+    Pointer WebPDemuxInternal(WebPData.Struct data, int allow_partial, IntByReference state, int version);
+
+    /*
+    [webp/demux.h]
+        // Frees memory associated with 'dmux'.
+        WEBP_EXTERN void WebPDemuxDelete(WebPDemuxer* dmux);
+    */
+    void WebPDemuxDelete(Pointer dmux);
+
+    /*
+    [webp/demux.h]
+        // Get the 'feature' value from the 'dmux'.
+        // NOTE: values are only valid if WebPDemux() was used or WebPDemuxPartial()
+        // returned a state > WEBP_DEMUX_PARSING_HEADER.
+        // If 'feature' is WEBP_FF_FORMAT_FLAGS, the returned value is a bit-wise
+        // combination of WebPFeatureFlags values.
+        // If 'feature' is WEBP_FF_LOOP_COUNT, WEBP_FF_BACKGROUND_COLOR, the returned
+        // value is only meaningful if the bitstream is animated.
+        WEBP_EXTERN uint32_t WebPDemuxGetI(
+            const WebPDemuxer* dmux, WebPFormatFeature feature);
+    */
+    int WebPDemuxGetI(Pointer dmux, int feature);
+
+    /*
+    [webp/demux.h]
+        // Retrieves frame 'frame_number' from 'dmux'.
+        // 'iter->fragment' points to the frame on return from this function.
+        // Setting 'frame_number' equal to 0 will return the last frame of the image.
+        // Returns false if 'dmux' is NULL or frame 'frame_number' is not present.
+        // Call WebPDemuxReleaseIterator() when use of the iterator is complete.
+        // NOTE: 'dmux' must persist for the lifetime of 'iter'.
+        WEBP_EXTERN int WebPDemuxGetFrame(
+            const WebPDemuxer* dmux, int frame_number, WebPIterator* iter);
+    */
+    int WebPDemuxGetFrame(Pointer dmux, int frame_number, WebPDemuxFrame.Struct iter);
+
+    /*
+    [webp/demux.h]
+        // Releases any memory associated with 'iter'.
+        // Must be called before any subsequent calls to WebPDemuxGetChunk() on the same
+        // iter. Also, must be called before destroying the associated WebPDemuxer with
+        // WebPDemuxDelete().
+        WEBP_EXTERN void WebPDemuxReleaseIterator(WebPIterator* iter);
+    */
+    void WebPDemuxReleaseIterator(WebPDemuxFrame.Struct iter);
+
+    /*
+    [webp/demux.h]
+        // Retrieves the 'chunk_number' instance of the chunk with id 'fourcc' from
+        // 'dmux'.
+        // 'fourcc' is a character array containing the fourcc of the chunk to return,
+        // e.g., "ICCP", "XMP ", "EXIF", etc.
+        // Setting 'chunk_number' equal to 0 will return the last chunk in a set.
+        // Returns true if the chunk is found, false otherwise. Image related chunk
+        // payloads are accessed through WebPDemuxGetFrame() and related functions.
+        // Call WebPDemuxReleaseChunkIterator() when use of the iterator is complete.
+        // NOTE: 'dmux' must persist for the lifetime of the iterator.
+        WEBP_EXTERN int WebPDemuxGetChunk(const WebPDemuxer* dmux,
+                                          const char fourcc[4], int chunk_number,
+                                          WebPChunkIterator* iter);
+    */
+    int WebPDemuxGetChunk(Pointer dmux, byte[] fourcc, int chunk_number, WebPDemuxChunk.Struct iter);
+
+    /*
+    [webp/demux.h]
+        // Releases any memory associated with 'iter'.
+        // Must be called before destroying the associated WebPDemuxer with
+        // WebPDemuxDelete().
+        WEBP_EXTERN void WebPDemuxReleaseChunkIterator(WebPChunkIterator* iter);
+    */
+    void WebPDemuxReleaseChunkIterator(WebPDemuxChunk.Struct iter);
+
+    /*
+    [webp/decode.h]
+        // Internal, version-checked, entry point
+        WEBP_EXTERN VP8StatusCode WebPGetFeaturesInternal(
+            const uint8_t*, size_t, WebPBitstreamFeatures*, int);
+
+        // Retrieve features from the bitstream. The *features structure is filled
+        // with information gathered from the bitstream.
+        // Returns VP8_STATUS_OK when the features are successfully retrieved. Returns
+        // VP8_STATUS_NOT_ENOUGH_DATA when more data is needed to retrieve the
+        // features from headers. Returns error in other cases.
+        static WEBP_INLINE VP8StatusCode WebPGetFeatures(
+            const uint8_t* data, size_t data_size,
+            WebPBitstreamFeatures* features) {
+          return WebPGetFeaturesInternal(data, data_size, features,
+                                         WEBP_DECODER_ABI_VERSION);
+        }
+    */
+    int WebPGetFeaturesInternal(Pointer data, Size_T data_size, WebPBitstreamFeatures.Struct features, int version);
+
+    int WebPGetFeaturesInternal(byte[] data, Size_T data_size, WebPBitstreamFeatures.Struct features, int version);
+
+    /*
+    [webp/decode.h]
+        // Internal, version-checked, entry point
+        WEBP_EXTERN int WebPInitDecoderConfigInternal(WebPDecoderConfig*, int);
+
+        // Initialize the configuration as empty. This function must always be
+        // called first, unless WebPGetFeatures() is to be called.
+        // Returns false in case of mismatched version.
+        static WEBP_INLINE int WebPInitDecoderConfig(WebPDecoderConfig* config) {
+          return WebPInitDecoderConfigInternal(config, WEBP_DECODER_ABI_VERSION);
+        }
+    */
+    int WebPInitDecoderConfigInternal(WebPDecoderConfig.Struct config, int version);
+
+    /*
+    [webp/decode.h]
+        // Non-incremental version. This version decodes the full data at once, taking
+        // 'config' into account. Returns decoding status (which should be VP8_STATUS_OK
+        // if the decoding was successful). Note that 'config' cannot be NULL.
+        WEBP_EXTERN VP8StatusCode WebPDecode(const uint8_t* data, size_t data_size,
+                                             WebPDecoderConfig* config);
+    */
+    int WebPDecode(Pointer data, Size_T data_size, WebPDecoderConfig.Struct config);
+
+    /*
+    [webp/decode.h]
+        // Free any memory associated with the buffer. Must always be called last.
+        // Note: doesn't free the 'buffer' structure itself.
+        WEBP_EXTERN void WebPFreeDecBuffer(WebPDecBuffer* buffer);
+    */
+    void WebPFreeDecBuffer(WebPDecoderConfig.DecBuffer buffer);
+
+    /*
+    [webp/decode.h]
+        // Creates a new incremental decoder with the supplied buffer parameter.
+        // This output_buffer can be passed NULL, in which case a default output buffer
+        // is used (with MODE_RGB). Otherwise, an internal reference to 'output_buffer'
+        // is kept, which means that the lifespan of 'output_buffer' must be larger than
+        // that of the returned WebPIDecoder object.
+        // ...
+        // This function allocates and initializes an incremental-decoder object, which
+        // will output the RGB/A samples specified by 'csp' into a preallocated
+        // buffer 'output_buffer'. The size of this buffer is at least
+        // 'output_buffer_size' and the stride (distance in bytes between two scanlines)
+        // is specified by 'output_stride'.
+        // Additionally, output_buffer can be passed NULL in which case the output
+        // buffer will be allocated automatically when the decoding starts. The
+        // colorspace 'csp' is taken into account for allocating this buffer. All other
+        // parameters are ignored.
+        // Returns NULL if the allocation failed, or if some parameters are invalid.
+        WEBP_EXTERN WebPIDecoder* WebPINewRGB(
+            WEBP_CSP_MODE csp,
+            uint8_t* output_buffer, size_t output_buffer_size, int output_stride);
+    */
+    Pointer WebPINewRGB(int csp, Pointer output_buffer, Size_T output_buffer_size, int output_stride);
+
+    /*
+    [webp/decode.h]
+        // Copies and decodes the next available data. Returns VP8_STATUS_OK when
+        // the image is successfully decoded. Returns VP8_STATUS_SUSPENDED when more
+        // data is expected. Returns error in other cases.
+        WEBP_EXTERN VP8StatusCode WebPIAppend(
+            WebPIDecoder* idec, const uint8_t* data, size_t data_size);
+    */
+    int WebPIAppend(Pointer idec, ByteBuffer data, Size_T data_size);
+
+    /*
+    [webp/decode.h]
+        // Returns the RGB/A image decoded so far. Returns NULL if output params
+        // are not initialized yet. The RGB/A output type corresponds to the colorspace
+        // specified during call to WebPINewDecoder() or WebPINewRGB().
+        // *last_y is the index of last decoded row in raster scan order. Some pointers
+        // (*last_y, *width etc.) can be NULL if corresponding information is not
+        // needed. The values in these pointers are only valid on successful (non-NULL)
+        // return.
+        WEBP_EXTERN uint8_t* WebPIDecGetRGB(
+            const WebPIDecoder* idec, int* last_y,
+            int* width, int* height, int* stride);
+    */
+    Pointer WebPIDecGetRGB(Pointer idec, IntByReference last_y, IntByReference width, IntByReference height, IntByReference stride);
+
+    /*
+    [webp/decode.h]
+        // Deletes the WebPIDecoder object and associated memory. Must always be called
+        // if WebPINewDecoder, WebPINewRGB or WebPINewYUV succeeded.
+        WEBP_EXTERN void WebPIDelete(WebPIDecoder* idec);
+    */
+    void WebPIDelete(Pointer idec);
+
+    /*
+    [webp/encode.h]
+        // Internal, version-checked, entry point
+        WEBP_EXTERN int WebPConfigInitInternal(WebPConfig*, WebPPreset, float, int);
+
+        // Should always be called, to initialize a fresh WebPConfig structure before
+        // modification. Returns false in case of version mismatch. WebPConfigInit()
+        // must have succeeded before using the 'config' object.
+        // Note that the default values are lossless=0 and quality=75.
+        static WEBP_INLINE int WebPConfigInit(WebPConfig* config) {
+          return WebPConfigInitInternal(config, WEBP_PRESET_DEFAULT, 75.f,
+                                        WEBP_ENCODER_ABI_VERSION);
+        }
+    */
+    int WebPConfigInitInternal(WebPEncoderConfig.Struct config, int preset, float quality, int version);
+
+    /*
+    [webp/encode.h]
+        // Returns true if 'config' is non-NULL and all configuration parameters are
+        // within their valid ranges.
+        WEBP_EXTERN int WebPValidateConfig(const WebPConfig* config);
+    */
+    int WebPValidateConfig(WebPEncoderConfig.Struct config);
+
+    /*
+    [webp/encode.h]
+        // Internal, version-checked, entry point
+        WEBP_EXTERN int WebPPictureInitInternal(WebPPicture*, int);
+
+        // Should always be called, to initialize the structure. Returns false in case
+        // of version mismatch. WebPPictureInit() must have succeeded before using the
+        // 'picture' object.
+        // Note that, by default, use_argb is false and colorspace is WEBP_YUV420.
+        static WEBP_INLINE int WebPPictureInit(WebPPicture* picture) {
+          return WebPPictureInitInternal(picture, WEBP_ENCODER_ABI_VERSION);
+        }
+    */
+    int WebPPictureInitInternal(WebPPicture.Struct picture, int version);
+
+    /*
+    [webp/encode.h]
+        // Colorspace conversion function to import RGB samples.
+        // Previous buffer will be free'd, if any.
+        // *rgb buffer should have a size of at least height * rgb_stride.
+        // Returns false in case of memory error.
+        WEBP_EXTERN int WebPPictureImportRGBA(
+            WebPPicture* picture, const uint8_t* rgba, int rgba_stride);
+        WEBP_EXTERN int WebPPictureImportBGRA(
+            WebPPicture* picture, const uint8_t* bgra, int bgra_stride);
+        // Same, but ignoring the alpha channel (the X byte).
+        WEBP_EXTERN int WebPPictureImportBGRX(
+            WebPPicture* picture, const uint8_t* bgrx, int bgrx_stride);
+    */
+    int WebPPictureImportRGBA(WebPPicture.Struct picture, Buffer rgba, int rgba_stride);
+
+    int WebPPictureImportBGRA(WebPPicture.Struct picture, Buffer bgra, int bgra_stride);
+
+    int WebPPictureImportBGRX(WebPPicture.Struct picture, Buffer bgrx, int bgrx_stride);
+
+    /*
+    [webp/encode.h]
+        // Release the memory allocated by WebPPictureAlloc() or WebPPictureImport*().
+        // Note that this function does _not_ free the memory used by the 'picture'
+        // object itself.
+        // Besides memory (which is reclaimed) all other fields of 'picture' are
+        // preserved.
+        WEBP_EXTERN void WebPPictureFree(WebPPicture* picture);
+    */
+    void WebPPictureFree(WebPPicture.Struct picture);
+
+    /*
+    [webp/encode.h]
+        // Main encoding call, after config and picture have been initialized.
+        // 'picture' must be less than 16384x16384 in dimension (cf WEBP_MAX_DIMENSION),
+        // and the 'config' object must be a valid one.
+        // Returns false in case of error, true otherwise.
+        // In case of error, picture->error_code is updated accordingly.
+        // 'picture' can hold the source samples in both YUV(A) or ARGB input, depending
+        // on the value of 'picture->use_argb'. It is highly recommended to use
+        // the former for lossy encoding, and the latter for lossless encoding
+        // (when config.lossless is true). Automatic conversion from one format to
+        // another is provided but they both incur some loss.
+        WEBP_EXTERN int WebPEncode(const WebPConfig* config, WebPPicture* picture);
+    */
+    int WebPEncode(WebPEncoderConfig.Struct config, WebPPicture.Struct picture);
+
+    /*
+    [webp/mux.h]
+        // Internal, version-checked, entry point.
+        WEBP_EXTERN int WebPAnimEncoderOptionsInitInternal(
+            WebPAnimEncoderOptions*, int);
+
+        // Should always be called, to initialize a fresh WebPAnimEncoderOptions
+        // structure before modification. Returns false in case of version mismatch.
+        // WebPAnimEncoderOptionsInit() must have succeeded before using the
+        // 'enc_options' object.
+        static WEBP_INLINE int WebPAnimEncoderOptionsInit(
+            WebPAnimEncoderOptions* enc_options) {
+          return WebPAnimEncoderOptionsInitInternal(enc_options, WEBP_MUX_ABI_VERSION);
+        }
+    */
+    int WebPAnimEncoderOptionsInitInternal(WebPAnimEncoderOptions.Struct enc_options, int version);
+
+    /*
+    [webp/mux.h]
+        // Internal, version-checked, entry point.
+        WEBP_EXTERN WebPAnimEncoder* WebPAnimEncoderNewInternal(
+            int, int, const WebPAnimEncoderOptions*, int);
+
+        // Creates and initializes a WebPAnimEncoder object.
+        // Parameters:
+        //   width/height - (in) canvas width and height of the animation.
+        //   enc_options - (in) encoding options; can be passed NULL to pick
+        //                      reasonable defaults.
+        // Returns:
+        //   A pointer to the newly created WebPAnimEncoder object.
+        //   Or NULL in case of memory error.
+    */
+    Pointer WebPAnimEncoderNewInternal(int width, int height, WebPAnimEncoderOptions.Struct enc_options, int version);
+
+    /*
+    [webp/mux.h]
+        // Optimize the given frame for WebP, encode it and add it to the
+        // WebPAnimEncoder object.
+        // The last call to 'WebPAnimEncoderAdd' should be with frame = NULL, which
+        // indicates that no more frames are to be added. This call is also used to
+        // determine the duration of the last frame.
+        // Parameters:
+        //   enc - (in/out) object to which the frame is to be added.
+        //   frame - (in/out) frame data in ARGB or YUV(A) format. If it is in YUV(A)
+        //           format, it will be converted to ARGB, which incurs a small loss.
+        //   timestamp_ms - (in) timestamp of this frame in milliseconds.
+        //                       Duration of a frame would be calculated as
+        //                       "timestamp of next frame - timestamp of this frame".
+        //                       Hence, timestamps should be in non-decreasing order.
+        //   config - (in) encoding options; can be passed NULL to pick
+        //            reasonable defaults.
+        // Returns:
+        //   On error, returns false and frame->error_code is set appropriately.
+        //   Otherwise, returns true.
+        WEBP_EXTERN int WebPAnimEncoderAdd(
+            WebPAnimEncoder* enc, struct WebPPicture* frame, int timestamp_ms,
+            const struct WebPConfig* config);
+    */
+    int WebPAnimEncoderAdd(Pointer enc, WebPPicture.Struct frame, int timestamp_ms, WebPEncoderConfig.Struct config);
+
+    /*
+    [webp/mux.h]
+        // Assemble all frames added so far into a WebP bitstream.
+        // This call should be preceded by  a call to 'WebPAnimEncoderAdd' with
+        // frame = NULL; if not, the duration of the last frame will be internally
+        // estimated.
+        // Parameters:
+        //   enc - (in/out) object from which the frames are to be assembled.
+        //   webp_data - (out) generated WebP bitstream.
+        // Returns:
+        //   True on success.
+        WEBP_EXTERN int WebPAnimEncoderAssemble(WebPAnimEncoder* enc,
+                                                WebPData* webp_data);
+    */
+    int WebPAnimEncoderAssemble(Pointer enc, WebPData.Struct webp_data);
+
+    /*
+    [webp/mux.h]
+        // Get error string corresponding to the most recent call using 'enc'. The
+        // returned string is owned by 'enc' and is valid only until the next call to
+        // WebPAnimEncoderAdd() or WebPAnimEncoderAssemble() or WebPAnimEncoderDelete().
+        // Parameters:
+        //   enc - (in/out) object from which the error string is to be fetched.
+        // Returns:
+        //   NULL if 'enc' is NULL. Otherwise, returns the error string if the last call
+        //   to 'enc' had an error, or an empty string if the last call was a success.
+        WEBP_EXTERN const char* WebPAnimEncoderGetError(WebPAnimEncoder* enc);
+    */
+    String WebPAnimEncoderGetError(Pointer enc);
+
+    /*
+    [webp/mux.h]
+        // Deletes the WebPAnimEncoder object.
+        // Parameters:
+        //   enc - (in/out) object to be deleted
+        WEBP_EXTERN void WebPAnimEncoderDelete(WebPAnimEncoder* enc);
+    */
+    void WebPAnimEncoderDelete(Pointer enc);
 }
@@ -0,0 +1,143 @@
+package webpdecoderjn.internal;
+
+import java.lang.ref.Cleaner;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Releases a native allocation when it's closed, or else once its owner is
+ * no longer reachable, so a forgotten close only delays the release.
+ * <p>
+ * The release action must not reference the owner, or the owner would never
+ * become unreachable. Owners keep the memory they point into reachable (e.g.
+ * a decoder keeps its {@link WebPData}), and keep themselves reachable until
+ * their native calls return, so the cleaner can't free memory in use.
+ * <p>
+ * With leak tracking, the open resources are recorded with their size and the
+ * stack trace of their allocation, and the ones released by the cleaner are
+ * logged with it. Only the resources allocated while tracking are recorded.
+ */
+public final class NativeResource {
+	private static final Logger LOGGER = Logger.getLogger(NativeResource.class.getName());
+	private static final Cleaner CLEANER = Cleaner.create();
+
+	private static volatile boolean tracking = Boolean.getBoolean("webpdecoderjn.trackLeaks");
+	private static final Set<State> OPEN = ConcurrentHashMap.newKeySet();
+	private static final AtomicLong OPEN_BYTES = new AtomicLong();
+	private static final AtomicLong LEAKS = new AtomicLong();
+
+	private final State state;
+	private final Cleaner.Cleanable cleanable;
+
+	private NativeResource(final Object owner, final State state) {
+		this.state = state;
+		this.cleanable = CLEANER.register(owner, state);
+	}
+
+	/**
+	 * @param owner   The object using the allocation
+	 * @param type    The kind of allocation, for the leak reports
+	 * @param bytes   The (estimated) size of the allocation, 0 if unknown
+	 * @param release Frees the allocation, without referencing the owner
+	 * @return The resource, to close with the owner
+	 */
+	public static NativeResource register(final Object owner, final String type, final long bytes, final Runnable release) {
+		Objects.requireNonNull(owner, "owner == null");
+		Objects.requireNonNull(release, "release == null");
+		final State state = new State(type, bytes, release, tracking ? new Throwable("Allocation of " + type) : null);
+		if (state.allocation != null) {
+			OPEN.add(state);
+			OPEN_BYTES.addAndGet(bytes);
+		}
+		WebPEvents.nativeAllocation(type, bytes, false, false);
+		return new NativeResource(owner, state);
+	}
+
+	/**
+	 * Releases the allocation now. Closing a resource twice has no effect.
+	 */
+	public void close() {
+		this.state.closed = true;
+		this.cleanable.clean();
+	}
+
+	public static void setTracking(final boolean tracking) {
+		NativeResource.tracking = tracking;
+	}
+
+	public static boolean isTracking() {
+		return tracking;
+	}
+
+	/**
+	 * @return The size of the tracked resources that are still open
+	 */
+	public static long getOpenBytes() {
+		return OPEN_BYTES.get();
+	}
+
+	/**
+	 * @return The tracked resources that are still open, with the stack
+	 * trace of their allocation
+	 */
+	public static List<Allocation> getOpenAllocations() {
+		final List<Allocation> allocations = new ArrayList<>(OPEN.size());
+		for (final State state : OPEN) {
+			allocations.add(new Allocation(state.type, state.bytes, state.allocation.getStackTrace()));
+		}
+		return allocations;
+	}
+
+	/**
+	 * @return The number of resources released by the cleaner instead of
+	 * being closed (tracked or not)
+	 */
+	public static long getLeakCount() {
+		return LEAKS.get();
+	}
+
+	public record Allocation(String type, long bytes, StackTraceElement[] stackTrace) {
+	}
+
+	private static final class State implements Runnable {
+		private final String type;
+		private final long bytes;
+		private final Runnable release;
+		// Null when not tracked
+		private final Throwable allocation;
+		private volatile boolean closed;
+
+		private State(final String type, final long bytes, final Runnable release, final Throwable allocation) {
+			this.type = type;
+			this.bytes = bytes;
+			this.release = release;
+			this.allocation = allocation;
+		}
+
+		@Override
+		public void run() {
+			if (this.allocation != null) {
+				OPEN.remove(this);
+				OPEN_BYTES.addAndGet(-this.bytes);
+			}
+			this.release.run();
+			WebPEvents.nativeAllocation(this.type, this.bytes, true, !this.closed);
+
+			// Counted once released, so the counts are consistent when a leak is seen
+			if (!this.closed) {
+				if (this.allocation != null) {
+					LOGGER.log(Level.WARNING, this.type + " (" + this.bytes + " bytes) was not closed", this.allocation);
+				} else {
+					LOGGER.fine(() -> this.type + " (" + this.bytes + " bytes) was not closed");
+				}
+				LEAKS.incrementAndGet();
+			}
+		}
+	}
+}
@@ -0,0 +1,205 @@
+package webpdecoderjn.internal;
+
+import webpdecoderjn.WebPDecoderException;
+
+import java.awt.Rectangle;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Renders the frames of an animation on a canvas, in any order.
+ * <p>
+ * This follows the compositing of the animation decoder (anim_decode.c), but
+ * decodes the frames on its own so it can start from the key frame preceding
+ * the requested frame instead of from the first frame. Only two canvases are
+ * kept, whatever the number of frames.
+ */
+public final class WebPAnimCompositor {
+	private final LibWebP lib;
+	private final List<WebPDemuxFrame> frames;
+	private final boolean[] keyFrames;
+	private final int canvasWidth;
+	private final int canvasHeight;
+	private final int colorMode;
+	private final boolean useThreads;
+
+	// Points to the data of the frame being rendered, so a single decoder serves all the frames
+	private final WebPData.Struct fragment = new WebPData.Struct();
+	private final WebPStillDecoder decoder;
+
+	private final int[] canvas;
+	// The canvas of the previous frame, after its dispose method
+	private final int[] disposed;
+	private int current = -1;
+
+	/**
+	 * @param lib          The native library
+	 * @param frames       The frames, from a demuxer which must stay open as long as the compositor
+	 * @param canvasWidth  The canvas width
+	 * @param canvasHeight The canvas height
+	 * @param colorMode    The output colorspace (MODE_RGBA, MODE_BGRA, MODE_rgbA or MODE_bgrA)
+	 * @param useThreads   Whether libwebp should decode using multiple threads
+	 */
+	public WebPAnimCompositor(final LibWebP lib, final List<WebPDemuxFrame> frames, final int canvasWidth, final int canvasHeight,
+	                          final int colorMode, final boolean useThreads) {
+		if (frames == null) {
+			throw new NullPointerException("frames == null");
+		} else if (frames.isEmpty()) {
+			throw new IllegalArgumentException("frames.size() == 0");
+		}
+
+		this.lib = Objects.requireNonNull(lib, "lib == null");
+		this.frames = List.copyOf(frames);
+		this.canvasWidth = canvasWidth;
+		this.canvasHeight = canvasHeight;
+		this.colorMode = colorMode;
+		this.useThreads = useThreads;
+		this.decoder = new WebPStillDecoder(this.lib, null, this.fragment, this.colorMode, this.useThreads);
+
+		final Rectangle bounds = new Rectangle(this.canvasWidth, this.canvasHeight);
+		this.keyFrames = new boolean[this.frames.size()];
+		WebPDemuxFrame previous = null;
+		for (int i = 0; i < this.keyFrames.length; ++i) {
+			final WebPDemuxFrame frame = this.frames.get(i);
+			this.keyFrames[i] = WebPDemuxer.isKeyFrame(previous, frame, i > 0 && this.keyFrames[i - 1], bounds);
+			previous = frame;
+		}
+
+		this.canvas = new int[this.canvasWidth * this.canvasHeight];
+		this.disposed = new int[this.canvasWidth * this.canvasHeight];
+	}
+
+	public int getColorMode() {
+		return this.colorMode;
+	}
+
+	public boolean isUseThreads() {
+		return this.useThreads;
+	}
+
+	public int getFrameCount() {
+		return this.frames.size();
+	}
+
+	/**
+	 * Renders a frame, starting from the current frame when it comes before
+	 * and there's no key frame in between, or else from the closest key frame.
+	 *
+	 * @param index The frame index (starting at 0)
+	 * @return The canvas, only valid until the next call
+	 * @throws WebPDecoderException When a frame can't be decoded
+	 */
+	public int[] render(final int index) throws WebPDecoderException {
+		if (index < 0 || index >= this.frames.size()) {
+			throw new IndexOutOfBoundsException("index out of range: " + index);
+		}
+
+		int keyFrame = index;
+		while (!this.keyFrames[keyFrame]) {
+			--keyFrame;
+		}
+
+		final int start = this.current >= keyFrame && this.current <= index ? this.current + 1 : keyFrame;
+		for (int i = start; i <= index; ++i) {
+			this.renderFrame(i);
+		}
+		return this.canvas;
+	}
+
+	private void renderFrame(final int index) throws WebPDecoderException {
+		// Don't leave a half rendered canvas behind if decoding fails
+		this.current = -1;
+
+		final WebPDemuxFrame frame = this.frames.get(index);
+		if (this.keyFrames[index]) {
+			Arrays.fill(this.canvas, 0);
+		} else {
+			System.arraycopy(this.disposed, 0, this.canvas, 0, this.canvas.length);
+		}
+
+		this.fragment.bytes = frame.fragment();
+		this.fragment.length = new Size_T(frame.fragmentSize());
+		this.decoder.decode(null, 0, 0, this.canvas, frame.y() * this.canvasWidth + frame.x(), this.canvasWidth);
+
+		// The decoded frame replaced the pixels of the previous frame, so blend the transparent pixels back
+		if (index > 0 && frame.blendMethod() == LibWebP.WEBP_MUX_BLEND && !this.keyFrames[index]) {
+			final WebPDemuxFrame previous = this.frames.get(index - 1);
+			for (int y = frame.y(); y < frame.y() + frame.height(); ++y) {
+				final int row = y * this.canvasWidth;
+				if (previous.disposeMethod() == LibWebP.WEBP_MUX_DISPOSE_NONE
+						|| y < previous.y() || y >= previous.y() + previous.height()) {
+					this.blendRow(row + frame.x(), frame.width());
+				} else {
+					// The previous frame area was cleared, so only blend what's outside of it
+					final int left = Math.min(previous.x(), frame.x() + frame.width()) - frame.x();
+					final int right = Math.max(previous.x() + previous.width(), frame.x());
+					if (left > 0) {
+						this.blendRow(row + frame.x(), left);
+					}
+					if (right < frame.x() + frame.width()) {
+						this.blendRow(row + right, frame.x() + frame.width() - right);
+					}
+				}
+			}
+		}
+
+		System.arraycopy(this.canvas, 0, this.disposed, 0, this.canvas.length);
+		if (frame.disposeMethod() == LibWebP.WEBP_MUX_DISPOSE_BACKGROUND) {
+			for (int y = frame.y(); y < frame.y() + frame.height(); ++y) {
+				final int row = y * this.canvasWidth + frame.x();
+				Arrays.fill(this.disposed, row, row + frame.width(), 0);
+			}
+		}
+		this.current = index;
+	}
+
+	private void blendRow(final int offset, final int length) {
+		final boolean premultiplied = this.colorMode == LibWebP.MODE_rgbA || this.colorMode == LibWebP.MODE_bgrA;
+		for (int i = offset; i < offset + length; ++i) {
+			if (this.canvas[i] >>> 24 == 0xff) {
+				// Opaque pixels are kept as is (BlendPixelRow* in anim_decode.c)
+				continue;
+			}
+			this.canvas[i] = premultiplied
+					? blendPremultiplied(this.canvas[i], this.disposed[i])
+					: blendNonPremultiplied(this.canvas[i], this.disposed[i]);
+		}
+	}
+
+	/**
+	 * Blends a pixel over another, as BlendPixelNonPremult (anim_decode.c).
+	 * The alpha is the most significant byte for all the supported modes.
+	 */
+	static int blendNonPremultiplied(final int src, final int dst) {
+		final int srcA = src >>> 24;
+		if (srcA == 0) {
+			return dst;
+		}
+
+		final int dstA = dst >>> 24;
+		// Approximate integer arithmetic for: dstFactorA = (dstA * (255 - srcA)) / 255
+		final int dstFactorA = (dstA * (256 - srcA)) >> 8;
+		final int blendA = srcA + dstFactorA;
+		final long scale = (1L << 24) / blendA;
+
+		int pixel = blendA << 24;
+		for (int shift = 0; shift < 24; shift += 8) {
+			final long blend = ((src >>> shift) & 0xff) * srcA + ((dst >>> shift) & 0xff) * dstFactorA;
+			pixel |= (int) (((blend * scale) >> 24) & 0xff) << shift;
+		}
+		return pixel;
+	}
+
+	/**
+	 * Blends a pixel over another, as BlendPixelPremult (anim_decode.c).
+	 */
+	static int blendPremultiplied(final int src, final int dst) {
+		final int srcA = src >>> 24;
+		final int dstFactorA = 256 - srcA;
+		final int mask = 0x00ff00ff;
+		final int rb = (((dst & mask) * dstFactorA) >>> 8) & mask;
+		final int ag = (((dst >>> 8) & mask) * dstFactorA) & ~mask;
+		return src + (rb | ag);
+	}
+}
@@ -6,6 +6,7 @@ import com.sun.jna.ptr.PointerByReference;
 import webpdecoderjn.WebPDecoderException;
 
 import java.io.Closeable;
+import java.lang.ref.Reference;
 import java.util.Objects;
 
 public final class WebPAnimDecoder implements Closeable {
@@ -13,17 +14,51 @@ public final class WebPAnimDecoder implements Closeable {
 	private static final int JNA_FALSE = 0;
 
 	private final LibWebP lib;
+	// Keeps the data reachable (and its memory alive) while the decoder points into it
+	private final WebPData data;
 	private Pointer decoder;
+	private final NativeResource resource;
+	// Reused for every frame, the decoder isn't thread-safe anyway
+	private final IntByReference timestampRef = new IntByReference();
+	private final PointerByReference bufferRef = new PointerByReference();
 
 	public WebPAnimDecoder(final LibWebP lib, final WebPData data) {
+		this(lib, data, LibWebP.MODE_BGRA, false);
+	}
+
+	/**
+	 * @param lib        The native library
+	 * @param data       The image data, which must stay open as long as the decoder
+	 * @param colorMode  The output colorspace (MODE_RGBA, MODE_BGRA, MODE_rgbA or MODE_bgrA)
+	 * @param useThreads Whether libwebp should decode using multiple threads
+	 */
+	public WebPAnimDecoder(final LibWebP lib, final WebPData data, final int colorMode, final boolean useThreads) {
 		Objects.requireNonNull(data, "data == null");
 		final WebPData.Struct struct = Objects.requireNonNull(data.getStruct(), "data.struct == null");
 		this.lib = Objects.requireNonNull(lib, "lib == null");
 
-		this.decoder = lib.WebPAnimDecoderNewInternal(struct, null, LibWebP.WEBP_DEMUX_ABI_VERSION);
-		if (this.decoder == null) {
+		// WebPAnimDecoderOptionsInit only zeroes the struct and sets the defaults (the ABI version is checked by
+		// WebPAnimDecoderNew), and the bundled Windows libraries don't export it, so fill the fields directly
+		final WebPAnimDecoderOptions.Struct options = new WebPAnimDecoderOptions.Struct();
+		options.color_mode = colorMode;
+		options.use_threads = useThreads ? JNA_TRUE : JNA_FALSE;
+
+		this.data = data;
+		final Pointer decoder = lib.WebPAnimDecoderNewInternal(struct, options, LibWebP.WEBP_DEMUX_ABI_VERSION);
+		Reference.reachabilityFence(data);
+		if (decoder == null) {
 			throw new NullPointerException("Failed initializing decoder");
 		}
+		this.decoder = decoder;
+		// The decoder keeps two canvases, only worth a native call when tracking
+		long bytes = 0;
+		if (NativeResource.isTracking()) {
+			final WebPAnimInfo.Struct info = new WebPAnimInfo.Struct();
+			if (lib.WebPAnimDecoderGetInfo(decoder, info) != 0) {
+				bytes = 2L * info.canvas_width * info.canvas_height * Integer.BYTES;
+			}
+		}
+		this.resource = NativeResource.register(this, "WebPAnimDecoder", bytes, () -> lib.WebPAnimDecoderDelete(decoder));
 	}
 
 	public WebPAnimInfo getInfo() throws WebPDecoderException {
@@ -32,8 +67,12 @@ public final class WebPAnimDecoder implements Closeable {
 		}
 
 		final WebPAnimInfo.Struct struct = new WebPAnimInfo.Struct();
-		if (this.lib.WebPAnimDecoderGetInfo(this.decoder, struct) == 0) {
-			throw new WebPDecoderException("Failed getting decoder info");
+		try {
+			if (this.lib.WebPAnimDecoderGetInfo(this.decoder, struct) == 0) {
+				throw new WebPDecoderException("Failed getting decoder info");
+			}
+		} finally {
+			Reference.reachabilityFence(this);
 		}
 
 		return WebPAnimInfo.copy(struct);
@@ -44,38 +83,93 @@ public final class WebPAnimDecoder implements Closeable {
 			throw new IllegalStateException("WebPAnimDecoder already closed");
 		}
 
-		return this.lib.WebPAnimDecoderHasMoreFrames(this.decoder) == JNA_TRUE;
+		try {
+			return this.lib.WebPAnimDecoderHasMoreFrames(this.decoder) == JNA_TRUE;
+		} finally {
+			Reference.reachabilityFence(this);
+		}
 	}
 
 	public WebPFrame getNext(final WebPAnimInfo info) throws WebPDecoderException {
-		if (this.decoder == null) {
-			throw new IllegalStateException("WebPAnimDecoder already closed");
-		}
+		Objects.requireNonNull(info, "info == null");
+
+		final Pointer buffer = this.getNextCanvas(this.timestampRef);
+
+		final int[] pixels = buffer.getIntArray(0, info.canvasWidth() * info.canvasHeight());
+		final int timestamp = this.timestampRef.getValue();
+
+		return new WebPFrame(pixels, timestamp);
+	}
 
+	/**
+	 * Decodes the next frame, copying only the sampled pixels of the canvas.
+	 *
+	 * @param info    The animation info
+	 * @param columns The canvas column of each output column (in ascending order)
+	 * @param rows    The canvas row of each output row (in ascending order)
+	 * @return The frame with columns.length * rows.length pixels
+	 * @throws WebPDecoderException When decoding fails
+	 * @see WebPPixels#sample(Pointer, int, int[], int[])
+	 */
+	public WebPFrame getNext(final WebPAnimInfo info, final int[] columns, final int[] rows) throws WebPDecoderException {
 		Objects.requireNonNull(info, "info == null");
 
-		final PointerByReference bufferRef = new PointerByReference();
-		final IntByReference timestampRef = new IntByReference();
+		final Pointer buffer = this.getNextCanvas(this.timestampRef);
 
-		if (this.lib.WebPAnimDecoderGetNext(this.decoder, bufferRef, timestampRef) == JNA_FALSE) {
-			throw new WebPDecoderException("Error decoding next frame");
+		final int[] pixels = WebPPixels.sample(buffer, info.canvasWidth() * Integer.BYTES, columns, rows);
+		final int timestamp = this.timestampRef.getValue();
+
+		return new WebPFrame(pixels, timestamp);
+	}
+
+	/**
+	 * Decodes the next frame without copying the canvas.
+	 *
+	 * @param timestampRef Receives the timestamp of the frame
+	 * @return The canvas (canvasWidth * canvasHeight pixels, 4 bytes each), owned by the decoder and only valid
+	 * until the next frame is decoded or the decoder is closed
+	 * @throws WebPDecoderException When decoding fails
+	 */
+	public Pointer getNextCanvas(final IntByReference timestampRef) throws WebPDecoderException {
+		if (this.decoder == null) {
+			throw new IllegalStateException("WebPAnimDecoder already closed");
+		}
+
+		try {
+			if (this.lib.WebPAnimDecoderGetNext(this.decoder, this.bufferRef, timestampRef) == JNA_FALSE) {
+				throw new WebPDecoderException("Error decoding next frame");
+			}
+		} finally {
+			Reference.reachabilityFence(this);
 		}
 
-		final Pointer buffer = bufferRef.getValue();
+		final Pointer buffer = this.bufferRef.getValue();
 		if (buffer == null) {
 			throw new WebPDecoderException("Error decoding next frame");
 		}
+		return buffer;
+	}
 
-		final int[] pixels = buffer.getIntArray(0, info.canvasWidth() * info.canvasHeight());
-		final int timestamp = timestampRef.getValue();
+	/**
+	 * Restarts decoding from the first frame, keeping the parsed container
+	 * and the canvases.
+	 */
+	public void reset() {
+		if (this.decoder == null) {
+			throw new IllegalStateException("WebPAnimDecoder already closed");
+		}
 
-		return new WebPFrame(pixels, timestamp);
+		try {
+			this.lib.WebPAnimDecoderReset(this.decoder);
+		} finally {
+			Reference.reachabilityFence(this);
+		}
 	}
 
 	@Override
 	public void close() {
 		if (this.decoder != null) {
-			this.lib.WebPAnimDecoderDelete(this.decoder);
+			this.resource.close();
 			this.decoder = null;
 		}
 	}
@@ -0,0 +1,26 @@
+package webpdecoderjn.internal;
+
+import com.sun.jna.Structure;
+
+public final class WebPAnimDecoderOptions {
+	private WebPAnimDecoderOptions() {
+	}
+
+	/*
+	[webp/demux.h]
+	    // Global options.
+	    struct WebPAnimDecoderOptions {
+	      // Output colorspace. Only the following modes are supported:
+	      // MODE_RGBA, MODE_BGRA, MODE_rgbA and MODE_bgrA.
+	      WEBP_CSP_MODE color_mode;
+	      int use_threads;           // If true, use multi-threaded decoding.
+	      uint32_t padding[7];       // Padding for later use.
+	    };
+	*/
+	@Structure.FieldOrder({"color_mode", "use_threads", "padding"})
+	public static class Struct extends Structure {
+		public int color_mode;
+		public int use_threads;
+		public int[] padding = new int[7];
+	}
+}
@@ -0,0 +1,142 @@
+package webpdecoderjn.internal;
+
+import com.sun.jna.Pointer;
+import webpdecoderjn.WebPEncoderException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.ref.Reference;
+import java.util.Objects;
+
+/**
+ * Encodes animations frame by frame.
+ * <p>
+ * Each frame is encoded when it is added, so only the encoded frames and the
+ * few canvases libwebp uses to pick the sub-frames are kept in memory. The
+ * file is only put together when the animation is assembled.
+ */
+public final class WebPAnimEncoder implements Closeable {
+	private static final int JNA_FALSE = 0;
+	private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+	private final LibWebP lib;
+	private final int canvasWidth;
+	private final int canvasHeight;
+	private Pointer encoder;
+	private final NativeResource resource;
+
+	/**
+	 * @param lib          The native library
+	 * @param canvasWidth  The canvas width
+	 * @param canvasHeight The canvas height
+	 * @param loopCount    The number of times to play the animation (0 for infinite)
+	 * @throws WebPEncoderException When the encoder can't be created
+	 */
+	public WebPAnimEncoder(final LibWebP lib, final int canvasWidth, final int canvasHeight, final int loopCount) throws WebPEncoderException {
+		this.lib = Objects.requireNonNull(lib, "lib == null");
+		if (canvasWidth <= 0 || canvasHeight <= 0) {
+			throw new IllegalArgumentException("Invalid dimensions: " + canvasWidth + " x " + canvasHeight);
+		}
+		this.canvasWidth = canvasWidth;
+		this.canvasHeight = canvasHeight;
+
+		final WebPAnimEncoderOptions.Struct options = new WebPAnimEncoderOptions.Struct();
+		if (lib.WebPAnimEncoderOptionsInitInternal(options, LibWebP.WEBP_MUX_ABI_VERSION) == JNA_FALSE) {
+			throw new WebPEncoderException("Failed initializing encoder options");
+		}
+		options.loop_count = loopCount;
+
+		final Pointer encoder = lib.WebPAnimEncoderNewInternal(canvasWidth, canvasHeight, options, LibWebP.WEBP_MUX_ABI_VERSION);
+		if (encoder == null) {
+			throw new WebPEncoderException("Failed initializing encoder");
+		}
+		this.encoder = encoder;
+		// The encoder keeps (at least) the current, previous and disposed canvases
+		this.resource = NativeResource.register(this, "WebPAnimEncoder", 3L * canvasWidth * canvasHeight * Integer.BYTES,
+				() -> lib.WebPAnimEncoderDelete(encoder));
+	}
+
+	public int getCanvasWidth() {
+		return this.canvasWidth;
+	}
+
+	public int getCanvasHeight() {
+		return this.canvasHeight;
+	}
+
+	/**
+	 * Encodes a frame. The picture is released, whether encoding succeeds or not.
+	 *
+	 * @param picture   The frame, of the size of the canvas
+	 * @param timestamp The timestamp of the frame in milliseconds, not before the previous one
+	 * @param config    The encoding config
+	 * @throws WebPEncoderException When encoding fails
+	 */
+	public void add(final WebPPicture.Struct picture, final int timestamp, final WebPEncoderConfig.Struct config) throws WebPEncoderException {
+		Objects.requireNonNull(picture, "picture == null");
+		Objects.requireNonNull(config, "config == null");
+		try {
+			if (this.encoder == null) {
+				throw new IllegalStateException("WebPAnimEncoder already closed");
+			} else if (picture.width != this.canvasWidth || picture.height != this.canvasHeight) {
+				throw new IllegalArgumentException("The frame size (" + picture.width + " x " + picture.height
+						+ ") doesn't match the canvas size (" + this.canvasWidth + " x " + this.canvasHeight + ")");
+			}
+
+			if (this.lib.WebPAnimEncoderAdd(this.encoder, picture, timestamp, config) == JNA_FALSE) {
+				throw new WebPEncoderException("Error encoding frame: " + this.lib.WebPAnimEncoderGetError(this.encoder));
+			}
+		} finally {
+			this.lib.WebPPictureFree(picture);
+			Reference.reachabilityFence(this);
+		}
+	}
+
+	/**
+	 * Puts the encoded frames together and writes the file.
+	 *
+	 * @param endTimestamp The timestamp at which the last frame ends, in milliseconds
+	 * @param output       Receives the file
+	 * @throws IOException When assembling or writing fails
+	 */
+	public void assemble(final int endTimestamp, final WebPStillEncoder.Output output) throws IOException {
+		Objects.requireNonNull(output, "output == null");
+		if (this.encoder == null) {
+			throw new IllegalStateException("WebPAnimEncoder already closed");
+		}
+
+		final WebPData.Struct data = new WebPData.Struct();
+		try {
+			if (this.lib.WebPAnimEncoderAdd(this.encoder, null, endTimestamp, null) == JNA_FALSE) {
+				throw new WebPEncoderException("Error ending animation: " + this.lib.WebPAnimEncoderGetError(this.encoder));
+			}
+			if (this.lib.WebPAnimEncoderAssemble(this.encoder, data) == JNA_FALSE) {
+				throw new WebPEncoderException("Error assembling animation: " + this.lib.WebPAnimEncoderGetError(this.encoder));
+			}
+		} finally {
+			Reference.reachabilityFence(this);
+		}
+
+		// The assembled file is owned by the caller, not by the encoder
+		try {
+			// Copy in chunks rather than the whole file at once
+			final long size = data.length.longValue();
+			final byte[] buffer = new byte[(int) Math.min(size, COPY_BUFFER_SIZE)];
+			for (long offset = 0; offset < size; offset += buffer.length) {
+				final int length = (int) Math.min(size - offset, buffer.length);
+				data.bytes.read(offset, buffer, 0, length);
+				output.write(buffer, 0, length);
+			}
+		} finally {
+			this.lib.WebPFree(data.bytes);
+		}
+	}
+
+	@Override
+	public void close() {
+		if (this.encoder != null) {
+			this.resource.close();
+			this.encoder = null;
+		}
+	}
+}
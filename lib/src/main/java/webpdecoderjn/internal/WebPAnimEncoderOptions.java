@@ -0,0 +1,53 @@
+package webpdecoderjn.internal;
+
+import com.sun.jna.Structure;
+
+public final class WebPAnimEncoderOptions {
+	private WebPAnimEncoderOptions() {
+	}
+
+	/*
+	[webp/mux.h]
+	    // Animation parameters.
+	    struct WebPMuxAnimParams {
+	      uint32_t bgcolor;  // Background color of the canvas stored (in MSB order) as:
+	                         // Bits 00 to 07: Alpha.
+	                         // Bits 08 to 15: Red.
+	                         // Bits 16 to 23: Green.
+	                         // Bits 24 to 31: Blue.
+	      int loop_count;    // Number of times to repeat the animation [0 = infinite].
+	    };
+
+	    // Global options.
+	    struct WebPAnimEncoderOptions {
+	      WebPMuxAnimParams anim_params;  // Animation parameters.
+	      int minimize_size;    // If true, minimize the output size (slow). Implicitly
+	                            // disables key-frame insertion.
+	      int kmin;
+	      int kmax;             // Minimum and maximum distance between consecutive key
+	                            // frames in the output. The library may insert some key
+	                            // frames as needed to satisfy this criteria.
+	                            // Note that these conditions should hold: kmax > kmin
+	                            // and kmin >= kmax / 2 + 1. Also, if kmax <= 0, then
+	                            // key-frame insertion is disabled; and if kmax == 1,
+	                            // then all frames will be key-frames (kmin value does
+	                            // not matter for these special cases).
+	      int allow_mixed;      // If true, use mixed compression mode; may choose
+	                            // either lossy and lossless for each frame.
+	      int verbose;          // If true, print info and warning messages to stderr.
+
+	      uint32_t padding[4];  // Padding for later use.
+	    };
+	*/
+	@Structure.FieldOrder({"bgcolor", "loop_count", "minimize_size", "kmin", "kmax", "allow_mixed", "verbose", "padding"})
+	public static class Struct extends Structure {
+		public int bgcolor;
+		public int loop_count;
+		public int minimize_size;
+		public int kmin;
+		public int kmax;
+		public int allow_mixed;
+		public int verbose;
+		public int[] padding = new int[4];
+	}
+}
@@ -0,0 +1,42 @@
+package webpdecoderjn.internal;
+
+import com.sun.jna.Structure;
+
+public record WebPBitstreamFeatures(
+		int width,
+		int height,
+		boolean hasAlpha,
+		boolean hasAnimation,
+		int format
+) {
+	public static final int FORMAT_MIXED = 0;
+	public static final int FORMAT_LOSSY = 1;
+	public static final int FORMAT_LOSSLESS = 2;
+
+	public static WebPBitstreamFeatures copy(final Struct struct) {
+		return new WebPBitstreamFeatures(struct.width, struct.height, struct.has_alpha != 0, struct.has_animation != 0, struct.format);
+	}
+
+	/*
+	[webp/decode.h]
+	    // Features gathered from the bitstream
+	    struct WebPBitstreamFeatures {
+	      int width;          // Width in pixels, as read from the bitstream.
+	      int height;         // Height in pixels, as read from the bitstream.
+	      int has_alpha;      // True if the bitstream contains an alpha channel.
+	      int has_animation;  // True if the bitstream is an animation.
+	      int format;         // 0 = undefined (/mixed), 1 = lossy, 2 = lossless
+
+	      uint32_t pad[5];    // padding for later use
+	    };
+	*/
+	@Structure.FieldOrder({"width", "height", "has_alpha", "has_animation", "format", "pad"})
+	public static class Struct extends Structure {
+		public int width;
+		public int height;
+		public int has_alpha;
+		public int has_animation;
+		public int format;
+		public int[] pad = new int[5];
+	}
+}
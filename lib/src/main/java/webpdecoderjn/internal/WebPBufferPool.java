@@ -0,0 +1,169 @@
+package webpdecoderjn.internal;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Keeps released buffers to hand them out again.
+ * <p>
+ * Direct buffers (native memory for the compressed data) are grouped by
+ * power of two size classes and handed out with their limit set to the
+ * requested size, so a buffer grows to the largest input of its class and is
+ * reused for the smaller ones. Int arrays (canvases) are pooled by exact
+ * length, since the images are created over the whole array.
+ * <p>
+ * The pooled bytes are capped: buffers released while the pool is full are
+ * left to the garbage collector. Buffers that weren't reused for the idle
+ * timeout are dropped on the next call. All methods are thread-safe.
+ */
+public final class WebPBufferPool {
+	private final long maxBytes;
+	private final long idleNanos;
+
+	private final Map<Integer, ArrayDeque<Entry<ByteBuffer>>> directBuffers = new HashMap<>();
+	private final Map<Integer, ArrayDeque<Entry<int[]>>> intArrays = new HashMap<>();
+	private long pooledBytes;
+
+	/**
+	 * @param maxBytes  The maximum number of bytes kept in the pool
+	 * @param idleNanos The time after which an unused buffer is dropped, in nanoseconds
+	 */
+	public WebPBufferPool(final long maxBytes, final long idleNanos) {
+		if (maxBytes < 0) {
+			throw new IllegalArgumentException("maxBytes < 0");
+		} else if (idleNanos <= 0) {
+			throw new IllegalArgumentException("idleNanos <= 0");
+		}
+		this.maxBytes = maxBytes;
+		this.idleNanos = idleNanos;
+	}
+
+	/**
+	 * @param size The number of bytes needed
+	 * @return A direct buffer with its position at 0 and its limit at size
+	 */
+	public ByteBuffer acquireDirect(final int size) {
+		if (size <= 0) {
+			throw new IllegalArgumentException("size <= 0");
+		}
+
+		final int capacity = sizeClass(size);
+		ByteBuffer buffer;
+		synchronized (this) {
+			buffer = this.poll(this.directBuffers, capacity, capacity);
+		}
+		if (buffer == null) {
+			buffer = ByteBuffer.allocateDirect(capacity);
+		}
+		buffer.clear().limit(size);
+		return buffer;
+	}
+
+	/**
+	 * @param buffer A buffer from {@link #acquireDirect(int)}, not to be used afterwards
+	 */
+	public void release(final ByteBuffer buffer) {
+		if (!buffer.isDirect() || buffer.capacity() != sizeClass(buffer.capacity())) {
+			throw new IllegalArgumentException("Not a pooled buffer");
+		}
+		synchronized (this) {
+			this.offer(this.directBuffers, buffer.capacity(), buffer.capacity(), buffer);
+		}
+	}
+
+	/**
+	 * @param length The length of the array
+	 * @return An array, with the content left by its previous user
+	 */
+	public int[] acquireInts(final int length) {
+		int[] array;
+		synchronized (this) {
+			array = this.poll(this.intArrays, length, (long) length * Integer.BYTES);
+		}
+		return array != null ? array : new int[length];
+	}
+
+	/**
+	 * @param array An array, not to be used afterwards
+	 */
+	public void release(final int[] array) {
+		synchronized (this) {
+			this.offer(this.intArrays, array.length, (long) array.length * Integer.BYTES, array);
+		}
+	}
+
+	public synchronized long getPooledBytes() {
+		return this.pooledBytes;
+	}
+
+	/**
+	 * Drops the buffers that weren't reused for the idle timeout.
+	 */
+	public synchronized void trim() {
+		final long now = System.nanoTime();
+		for (final Map.Entry<Integer, ArrayDeque<Entry<ByteBuffer>>> entry : this.directBuffers.entrySet()) {
+			this.trim(entry.getValue(), entry.getKey(), now);
+		}
+		for (final Map.Entry<Integer, ArrayDeque<Entry<int[]>>> entry : this.intArrays.entrySet()) {
+			this.trim(entry.getValue(), (long) entry.getKey() * Integer.BYTES, now);
+		}
+		this.directBuffers.values().removeIf(ArrayDeque::isEmpty);
+		this.intArrays.values().removeIf(ArrayDeque::isEmpty);
+	}
+
+	/**
+	 * Drops all the buffers.
+	 */
+	public synchronized void clear() {
+		this.directBuffers.clear();
+		this.intArrays.clear();
+		this.pooledBytes = 0;
+	}
+
+	private static int sizeClass(final int size) {
+		final int capacity = Integer.highestOneBit(size);
+		return capacity == size || capacity == 1 << 30 ? size : capacity << 1;
+	}
+
+	private <T> T poll(final Map<Integer, ArrayDeque<Entry<T>>> pool, final int key, final long bytes) {
+		final ArrayDeque<Entry<T>> entries = pool.get(key);
+		if (entries == null) {
+			return null;
+		}
+		this.trim(entries, bytes, System.nanoTime());
+		// The most recently released buffer is the most likely to be in the CPU caches
+		final Entry<T> entry = entries.pollFirst();
+		if (entry == null) {
+			return null;
+		}
+		this.pooledBytes -= bytes;
+		return entry.buffer;
+	}
+
+	private <T> void offer(final Map<Integer, ArrayDeque<Entry<T>>> pool, final int key, final long bytes, final T buffer) {
+		final long now = System.nanoTime();
+		final ArrayDeque<Entry<T>> entries = pool.computeIfAbsent(key, k -> new ArrayDeque<>());
+		this.trim(entries, bytes, now);
+		if (this.pooledBytes + bytes <= this.maxBytes) {
+			entries.addFirst(new Entry<>(buffer, now));
+			this.pooledBytes += bytes;
+		}
+	}
+
+	private <T> void trim(final ArrayDeque<Entry<T>> entries, final long bytes, final long now) {
+		// The least recently released buffers are at the end
+		for (final Iterator<Entry<T>> it = entries.descendingIterator(); it.hasNext(); ) {
+			if (now - it.next().releasedAt < this.idleNanos) {
+				break;
+			}
+			it.remove();
+			this.pooledBytes -= bytes;
+		}
+	}
+
+	private record Entry<T>(T buffer, long releasedAt) {
+	}
+}
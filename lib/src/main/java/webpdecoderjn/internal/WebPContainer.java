@@ -0,0 +1,69 @@
+package webpdecoderjn.internal;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Reads the RIFF container structure without touching the bitstream.
+ *
+ * @see <a href="https://developers.google.com/speed/webp/docs/riff_container">WebP Container Specification</a>
+ */
+public final class WebPContainer {
+	public static final int CHUNK_VP8X = 'V' | 'P' << 8 | '8' << 16 | 'X' << 24;
+	public static final int CHUNK_ANMF = 'A' | 'N' << 8 | 'M' << 16 | 'F' << 24;
+
+	private static final int RIFF_HEADER_SIZE = 12;
+	private static final int CHUNK_HEADER_SIZE = 8;
+	private static final int VP8X_FLAG_ANIMATION = 0x02;
+
+	/**
+	 * The number of bytes needed by {@link #isAnimated(ByteBuffer)}.
+	 */
+	public static final int HEADER_SIZE = RIFF_HEADER_SIZE + CHUNK_HEADER_SIZE + 1;
+
+	private WebPContainer() {
+	}
+
+	/**
+	 * Checks the animation flag of the extended format header. Only animations
+	 * can have it set, since the ANIM chunk requires it.
+	 *
+	 * @param data The WebP file, read from its position
+	 * @return True if the file is an animation, false if it's a still image
+	 * (or if there is not enough data)
+	 */
+	public static boolean isAnimated(final ByteBuffer data) {
+		final ByteBuffer buffer = data.slice().order(ByteOrder.LITTLE_ENDIAN);
+		if (buffer.limit() < HEADER_SIZE) {
+			return false;
+		}
+
+		final int flags = buffer.get(RIFF_HEADER_SIZE + CHUNK_HEADER_SIZE);
+		return buffer.getInt(RIFF_HEADER_SIZE) == CHUNK_VP8X && (flags & VP8X_FLAG_ANIMATION) != 0;
+	}
+
+	/**
+	 * Counts the ANMF chunks by skipping from one chunk header to the next,
+	 * so only the chunk headers are read.
+	 *
+	 * @param data The WebP file, read from its position
+	 * @return The number of animation frames (0 for a still image)
+	 */
+	public static int countFrames(final ByteBuffer data) {
+		final ByteBuffer buffer = data.slice().order(ByteOrder.LITTLE_ENDIAN);
+		final long limit = buffer.limit();
+
+		int frameCount = 0;
+		long offset = RIFF_HEADER_SIZE;
+		while (offset + CHUNK_HEADER_SIZE <= limit) {
+			final int fourCC = buffer.getInt((int) offset);
+			final long size = Integer.toUnsignedLong(buffer.getInt((int) offset + 4));
+			if (fourCC == CHUNK_ANMF) {
+				++frameCount;
+			}
+			// Chunks are padded to an even size
+			offset += CHUNK_HEADER_SIZE + size + (size & 1);
+		}
+		return frameCount;
+	}
+}
@@ -1,13 +1,22 @@
 package webpdecoderjn.internal;
 
+import com.sun.jna.Native;
 import com.sun.jna.Pointer;
 import com.sun.jna.Structure;
 
 import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.Objects;
 
 public final class WebPData implements Closeable {
-	private final LibWebP lib;
+	// Keeps a direct buffer reachable (and its memory alive) while the struct points into it
+	private final ByteBuffer buffer;
+	// Frees the copy of the data, null for direct buffers
+	private final NativeResource resource;
 	private Struct struct;
 
 	public WebPData(final LibWebP lib, final byte[] rawData) {
@@ -17,19 +26,91 @@ public final class WebPData implements Closeable {
 			throw new IllegalArgumentException("rawData.length == 0");
 		}
 
-		this.lib = Objects.requireNonNull(lib, "lib == null");
+		Objects.requireNonNull(lib, "lib == null");
+		this.buffer = null;
 
 		final Pointer bytes = lib.WebPMalloc(rawData.length);
 		if (bytes == null) {
 			throw new NullPointerException("Failed to allocate memory for WebPData");
 		}
 		bytes.write(0, rawData, 0, rawData.length);
+		this.resource = NativeResource.register(this, "WebPData", rawData.length, () -> lib.WebPFree(bytes));
 
 		this.struct = new Struct();
 		this.struct.bytes = bytes;
 		this.struct.length = new Size_T(rawData.length);
 	}
 
+	/**
+	 * Wrap the remaining bytes of a buffer.
+	 * <p>
+	 * A direct buffer is used in place, without copying, so its content must
+	 * not change until this is closed. A heap buffer is copied to native memory.
+	 * The position of the buffer is not changed.
+	 */
+	public WebPData(final LibWebP lib, final ByteBuffer data) {
+		if (data == null) {
+			throw new NullPointerException("data == null");
+		} else if (!data.hasRemaining()) {
+			throw new IllegalArgumentException("data.remaining() == 0");
+		}
+
+		Objects.requireNonNull(lib, "lib == null");
+
+		final int length = data.remaining();
+		final Pointer bytes;
+		if (data.isDirect()) {
+			this.buffer = data;
+			this.resource = null;
+			bytes = Native.getDirectBufferPointer(data).share(data.position());
+		} else {
+			this.buffer = null;
+			bytes = lib.WebPMalloc(length);
+			if (bytes == null) {
+				throw new NullPointerException("Failed to allocate memory for WebPData");
+			}
+			if (data.hasArray()) {
+				bytes.write(0, data.array(), data.arrayOffset() + data.position(), length);
+			} else {
+				// Read-only heap buffer
+				final byte[] rawData = new byte[length];
+				data.duplicate().get(rawData);
+				bytes.write(0, rawData, 0, length);
+			}
+			this.resource = NativeResource.register(this, "WebPData", length, () -> lib.WebPFree(bytes));
+		}
+
+		this.struct = new Struct();
+		this.struct.bytes = bytes;
+		this.struct.length = new Size_T(length);
+	}
+
+	/**
+	 * Memory-map a file and wrap the mapping without copying it.
+	 * <p>
+	 * A single mapping is limited to {@link Integer#MAX_VALUE} bytes. The
+	 * mapping is released once this and the buffer are no longer reachable.
+	 */
+	public static WebPData map(final LibWebP lib, final Path path) throws IOException {
+		return new WebPData(lib, mapFile(path));
+	}
+
+	/**
+	 * Memory-map a file, read-only.
+	 *
+	 * @see #map(LibWebP, Path)
+	 */
+	public static ByteBuffer mapFile(final Path path) throws IOException {
+		Objects.requireNonNull(path, "path == null");
+		try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			final long size = channel.size();
+			if (size > Integer.MAX_VALUE) {
+				throw new IOException("File too large to be mapped: " + path);
+			}
+			return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+		}
+	}
+
 	Struct getStruct() {
 		return this.struct;
 	}
@@ -37,7 +118,9 @@ public final class WebPData implements Closeable {
 	@Override
 	public void close() {
 		if (this.struct != null) {
-			this.lib.WebPFree(this.struct.bytes);
+			if (this.resource != null) {
+				this.resource.close();
+			}
 			this.struct.bytes = null;
 			this.struct = null;
 		}
@@ -0,0 +1,40 @@
+package webpdecoderjn.internal;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event for the decoding of a whole image (or of an image read through
+ * ImageIO), from the compressed data to the decoded frames.
+ * <p>
+ * Disabled by default, enable it in the recording settings. When disabled,
+ * nothing is measured.
+ */
+@Name("webpdecoderjn.Decode")
+@Label("WebP Decode")
+@Category("WebP")
+@Description("Decoding of a WebP image")
+@Enabled(false)
+final class WebPDecodeEvent extends Event {
+	@Label("Source")
+	@Description("The API used, WebPDecoder or WebPImageReader")
+	String source;
+
+	@Label("Input Size")
+	@DataAmount
+	long inputBytes;
+
+	@Label("Canvas Width")
+	int canvasWidth;
+
+	@Label("Canvas Height")
+	int canvasHeight;
+
+	@Label("Frame Count")
+	int frameCount;
+}
@@ -0,0 +1,154 @@
+package webpdecoderjn.internal;
+
+import com.sun.jna.Pointer;
+import com.sun.jna.Structure;
+import com.sun.jna.Union;
+
+public final class WebPDecoderConfig {
+	private WebPDecoderConfig() {
+	}
+
+	/*
+	[webp/decode.h]
+	    // Main object storing the configuration for advanced decoding.
+	    struct WebPDecoderConfig {
+	      WebPBitstreamFeatures input;  // Immutable bitstream features (optional)
+	      WebPDecBuffer output;         // Output buffer (can point to external mem)
+	      WebPDecoderOptions options;   // Decoding options
+	    };
+	*/
+	@Structure.FieldOrder({"input", "output", "options"})
+	public static class Struct extends Structure {
+		public WebPBitstreamFeatures.Struct input = new WebPBitstreamFeatures.Struct();
+		public DecBuffer output = new DecBuffer();
+		public Options options = new Options();
+	}
+
+	/*
+	[webp/decode.h]
+	    // Output buffer
+	    struct WebPDecBuffer {
+	      WEBP_CSP_MODE colorspace;  // Colorspace.
+	      int width, height;         // Dimensions.
+	      int is_external_memory;    // If non-zero, 'internal_memory' pointer is not
+	                                 // used. If value is '2' or more, the external
+	                                 // memory is considered 'slow' and multiple
+	                                 // read/write will be avoided.
+	      union {
+	        WebPRGBABuffer RGBA;
+	        WebPYUVABuffer YUVA;
+	      } u;                       // Nameless union of buffer parameters.
+	      uint32_t       pad[4];     // padding for later use
+
+	      uint8_t* private_memory;   // Internally allocated memory (only when
+	                                 // is_external_memory is 0). Should not be used
+	                                 // externally, but accessed via the buffer union.
+	    };
+	*/
+	@Structure.FieldOrder({"colorspace", "width", "height", "is_external_memory", "u", "pad", "private_memory"})
+	public static class DecBuffer extends Structure {
+		public int colorspace;
+		public int width;
+		public int height;
+		public int is_external_memory;
+		public BufferUnion u = new BufferUnion();
+		public int[] pad = new int[4];
+		public Pointer private_memory;
+	}
+
+	public static class BufferUnion extends Union {
+		public RGBABuffer RGBA = new RGBABuffer();
+		public YUVABuffer YUVA = new YUVABuffer();
+
+		public BufferUnion() {
+			// Only RGB(A) output is used, the YUVA member just keeps the union at its full size
+			this.setType(RGBABuffer.class);
+		}
+	}
+
+	/*
+	[webp/decode.h]
+	    // view as RGBA
+	    struct WebPRGBABuffer {
+	      uint8_t* rgba;    // pointer to RGBA samples
+	      int stride;       // stride in bytes from one scanline to the next.
+	      size_t size;      // total size of the *rgba buffer.
+	    };
+	*/
+	@Structure.FieldOrder({"rgba", "stride", "size"})
+	public static class RGBABuffer extends Structure {
+		public Pointer rgba;
+		public int stride;
+		public Size_T size = Size_T.ZERO;
+	}
+
+	/*
+	[webp/decode.h]
+	    // view as YUVA
+	    struct WebPYUVABuffer {
+	      uint8_t* y, *u, *v, *a;     // pointer to luma, chroma U/V, alpha samples
+	      int y_stride;               // luma stride
+	      int u_stride, v_stride;     // chroma strides
+	      int a_stride;               // alpha stride
+	      size_t y_size;              // luma plane size
+	      size_t u_size, v_size;      // chroma planes size
+	      size_t a_size;              // alpha-plane size
+	    };
+	*/
+	@Structure.FieldOrder({"y", "u", "v", "a", "y_stride", "u_stride", "v_stride", "a_stride", "y_size", "u_size", "v_size", "a_size"})
+	public static class YUVABuffer extends Structure {
+		public Pointer y;
+		public Pointer u;
+		public Pointer v;
+		public Pointer a;
+		public int y_stride;
+		public int u_stride;
+		public int v_stride;
+		public int a_stride;
+		public Size_T y_size = Size_T.ZERO;
+		public Size_T u_size = Size_T.ZERO;
+		public Size_T v_size = Size_T.ZERO;
+		public Size_T a_size = Size_T.ZERO;
+	}
+
+	/*
+	[webp/decode.h]
+	    // Decoding options
+	    struct WebPDecoderOptions {
+	      int bypass_filtering;               // if true, skip the in-loop filtering
+	      int no_fancy_upsampling;            // if true, use faster pointwise upsampler
+	      int use_cropping;                   // if true, cropping is applied _first_
+	      int crop_left, crop_top;            // top-left position for cropping.
+	                                          // Will be snapped to even values.
+	      int crop_width, crop_height;        // dimension of the cropping area
+	      int use_scaling;                    // if true, scaling is applied _afterward_
+	      int scaled_width, scaled_height;    // final resolution
+	      int use_threads;                    // if true, use multi-threaded decoding
+	      int dithering_strength;             // dithering strength (0=Off, 100=full)
+	      int flip;                           // if true, flip output vertically
+	      int alpha_dithering_strength;       // alpha dithering strength in [0..100]
+
+	      uint32_t pad[5];                    // padding for later use
+	    };
+	*/
+	@Structure.FieldOrder({"bypass_filtering", "no_fancy_upsampling", "use_cropping", "crop_left", "crop_top",
+			"crop_width", "crop_height", "use_scaling", "scaled_width", "scaled_height", "use_threads",
+			"dithering_strength", "flip", "alpha_dithering_strength", "pad"})
+	public static class Options extends Structure {
+		public int bypass_filtering;
+		public int no_fancy_upsampling;
+		public int use_cropping;
+		public int crop_left;
+		public int crop_top;
+		public int crop_width;
+		public int crop_height;
+		public int use_scaling;
+		public int scaled_width;
+		public int scaled_height;
+		public int use_threads;
+		public int dithering_strength;
+		public int flip;
+		public int alpha_dithering_strength;
+		public int[] pad = new int[5];
+	}
+}
@@ -0,0 +1,45 @@
+package webpdecoderjn.internal;
+
+import com.sun.jna.Pointer;
+import com.sun.jna.Structure;
+
+/**
+ * A chunk of the container (e.g. ICCP, EXIF or XMP), as found by the demuxer.
+ *
+ * @param chunkNumber The chunk number among the chunks with the same id (starting at 1)
+ * @param chunkCount  The number of chunks with the same id
+ * @param bytes       The payload of the chunk, only valid while the demuxer is open
+ * @param size        The size of the payload
+ */
+public record WebPDemuxChunk(
+		int chunkNumber,
+		int chunkCount,
+		Pointer bytes,
+		long size
+) {
+	public static WebPDemuxChunk copy(final Struct struct) {
+		return new WebPDemuxChunk(struct.chunk_num, struct.num_chunks, struct.chunk.bytes, struct.chunk.length.longValue());
+	}
+
+	/*
+	[webp/demux.h]
+	    struct WebPChunkIterator {
+	      // The current and total number of chunks with the fourcc given to
+	      // WebPDemuxGetChunk().
+	      int chunk_num;
+	      int num_chunks;
+	      WebPData chunk;    // The payload of the chunk.
+
+	      uint32_t pad[6];   // padding for later use
+	      void* private_;
+	    };
+	*/
+	@Structure.FieldOrder({"chunk_num", "num_chunks", "chunk", "pad", "private_"})
+	public static class Struct extends Structure {
+		public int chunk_num;
+		public int num_chunks;
+		public WebPData.Struct chunk = new WebPData.Struct();
+		public int[] pad = new int[6];
+		public Pointer private_;
+	}
+}
@@ -0,0 +1,77 @@
+package webpdecoderjn.internal;
+
+import com.sun.jna.Pointer;
+import com.sun.jna.Structure;
+
+import java.awt.Rectangle;
+
+/**
+ * A frame of the container, as found by the demuxer.
+ *
+ * @param frameNumber   The frame number (starting at 1)
+ * @param fragment      The bitstream of the frame, only valid while the demuxer is open
+ * @param fragmentSize  The size of the bitstream
+ */
+public record WebPDemuxFrame(
+		int frameNumber,
+		int x,
+		int y,
+		int width,
+		int height,
+		int duration,
+		int disposeMethod,
+		int blendMethod,
+		boolean hasAlpha,
+		boolean complete,
+		Pointer fragment,
+		long fragmentSize
+) {
+	public static WebPDemuxFrame copy(final Struct struct) {
+		return new WebPDemuxFrame(struct.frame_num, struct.x_offset, struct.y_offset, struct.width, struct.height,
+				struct.duration, struct.dispose_method, struct.blend_method, struct.has_alpha != 0, struct.complete != 0,
+				struct.fragment.bytes, struct.fragment.length.longValue());
+	}
+
+	public Rectangle bounds() {
+		return new Rectangle(this.x, this.y, this.width, this.height);
+	}
+
+	/*
+	[webp/demux.h]
+	    struct WebPIterator {
+	      int frame_num;
+	      int num_frames;          // equivalent to WEBP_FF_FRAME_COUNT.
+	      int x_offset, y_offset;  // offset relative to the canvas.
+	      int width, height;       // dimensions of this frame.
+	      int duration;            // display duration in milliseconds.
+	      WebPMuxAnimDispose dispose_method;  // dispose method for the frame.
+	      int complete;   // true if 'fragment' contains a full frame. partial images
+	                      // may still be decoded with the WebP incremental decoder.
+	      WebPData fragment;  // The frame given by 'frame_num'. Note for historical
+	                          // reasons this is called a fragment.
+	      int has_alpha;      // True if the frame contains transparency.
+	      WebPMuxAnimBlend blend_method;  // Blend operation for the frame.
+
+	      uint32_t pad[2];         // padding for later use.
+	      void* private_;          // for internal use only.
+	    };
+	*/
+	@Structure.FieldOrder({"frame_num", "num_frames", "x_offset", "y_offset", "width", "height", "duration",
+			"dispose_method", "complete", "fragment", "has_alpha", "blend_method", "pad", "private_"})
+	public static class Struct extends Structure {
+		public int frame_num;
+		public int num_frames;
+		public int x_offset;
+		public int y_offset;
+		public int width;
+		public int height;
+		public int duration;
+		public int dispose_method;
+		public int complete;
+		public WebPData.Struct fragment = new WebPData.Struct();
+		public int has_alpha;
+		public int blend_method;
+		public int[] pad = new int[2];
+		public Pointer private_;
+	}
+}
@@ -0,0 +1,206 @@
+package webpdecoderjn.internal;
+
+import com.sun.jna.Pointer;
+import webpdecoderjn.WebPDecoderException;
+
+import java.awt.Rectangle;
+import java.io.Closeable;
+import java.lang.ref.Reference;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Parses the chunks of the container without decoding any frame.
+ */
+public final class WebPDemuxer implements Closeable {
+	public static final String CHUNK_ICCP = "ICCP";
+	public static final String CHUNK_EXIF = "EXIF";
+	public static final String CHUNK_XMP = "XMP ";
+
+	private final LibWebP lib;
+	// Keeps the data reachable (and its memory alive) while the demuxer points into it
+	private final WebPData data;
+	// The start of the image data, to locate the chunks in it
+	private final Pointer bytes;
+	private Pointer demuxer;
+	private final NativeResource resource;
+
+	/**
+	 * @param lib  The native library
+	 * @param data The image data, which must stay open as long as the demuxer
+	 * @throws WebPDecoderException When the container can't be parsed
+	 */
+	public WebPDemuxer(final LibWebP lib, final WebPData data) throws WebPDecoderException {
+		Objects.requireNonNull(data, "data == null");
+		final WebPData.Struct struct = Objects.requireNonNull(data.getStruct(), "data.struct == null");
+		this.lib = Objects.requireNonNull(lib, "lib == null");
+		this.data = data;
+		this.bytes = struct.bytes;
+
+		final Pointer demuxer = lib.WebPDemuxInternal(struct, 0, null, LibWebP.WEBP_DEMUX_ABI_VERSION);
+		Reference.reachabilityFence(data);
+		if (demuxer == null) {
+			throw new WebPDecoderException("Failed parsing the container");
+		}
+		this.demuxer = demuxer;
+		this.resource = NativeResource.register(this, "WebPDemuxer", 0, () -> lib.WebPDemuxDelete(demuxer));
+	}
+
+	/**
+	 * @param feature One of the WEBP_FF_* constants
+	 * @return The value of the feature
+	 */
+	public int getI(final int feature) {
+		if (this.demuxer == null) {
+			throw new IllegalStateException("WebPDemuxer already closed");
+		}
+
+		try {
+			return this.lib.WebPDemuxGetI(this.demuxer, feature);
+		} finally {
+			Reference.reachabilityFence(this);
+		}
+	}
+
+	/**
+	 * @param frameNumber The frame number (starting at 1)
+	 * @return The frame
+	 * @throws WebPDecoderException When the frame doesn't exist
+	 */
+	public WebPDemuxFrame getFrame(final int frameNumber) throws WebPDecoderException {
+		if (this.demuxer == null) {
+			throw new IllegalStateException("WebPDemuxer already closed");
+		}
+
+		final WebPDemuxFrame.Struct iter = new WebPDemuxFrame.Struct();
+		try {
+			if (this.lib.WebPDemuxGetFrame(this.demuxer, frameNumber, iter) == 0) {
+				throw new WebPDecoderException("Failed getting frame " + frameNumber);
+			}
+			try {
+				return WebPDemuxFrame.copy(iter);
+			} finally {
+				this.lib.WebPDemuxReleaseIterator(iter);
+			}
+		} finally {
+			Reference.reachabilityFence(this);
+		}
+	}
+
+	/**
+	 * @return All the frames, in order
+	 * @throws WebPDecoderException When a frame can't be read
+	 */
+	public List<WebPDemuxFrame> getFrames() throws WebPDecoderException {
+		final int frameCount = this.getI(LibWebP.WEBP_FF_FRAME_COUNT);
+		final List<WebPDemuxFrame> frames = new ArrayList<>(frameCount);
+		for (int i = 1; i <= frameCount; ++i) {
+			frames.add(this.getFrame(i));
+		}
+		return frames;
+	}
+
+	/**
+	 * Finds the first chunk with the given id, and returns its payload as a
+	 * slice of the image data, without copying it.
+	 * <p>
+	 * The input must have the same content as the data the demuxer was
+	 * created from (but doesn't need to be the same memory), so a heap
+	 * buffer copied to native memory can be sliced too.
+	 *
+	 * @param fourCC The chunk id, one of the CHUNK_* constants
+	 * @param input  The image data, read from its position (which is not changed)
+	 * @return A read-only slice of the input, or null if there is no such chunk
+	 */
+	public ByteBuffer getChunk(final String fourCC, final ByteBuffer input) {
+		if (this.demuxer == null) {
+			throw new IllegalStateException("WebPDemuxer already closed");
+		}
+		Objects.requireNonNull(input, "input == null");
+
+		final WebPDemuxChunk.Struct iter = new WebPDemuxChunk.Struct();
+		final WebPDemuxChunk chunk;
+		try {
+			if (this.lib.WebPDemuxGetChunk(this.demuxer, fourCC.getBytes(StandardCharsets.US_ASCII), 1, iter) == 0) {
+				return null;
+			}
+			try {
+				chunk = WebPDemuxChunk.copy(iter);
+			} finally {
+				this.lib.WebPDemuxReleaseChunkIterator(iter);
+			}
+		} finally {
+			Reference.reachabilityFence(this);
+		}
+
+		final long offset = Pointer.nativeValue(chunk.bytes()) - Pointer.nativeValue(this.bytes);
+		if (offset < 0 || offset + chunk.size() > input.remaining()) {
+			throw new IllegalArgumentException("input doesn't match the demuxed data");
+		}
+		return input.slice(input.position() + (int) offset, (int) chunk.size()).asReadOnlyBuffer();
+	}
+
+	/**
+	 * Computes the part of the canvas that can change when rendering a frame
+	 * over the previous one.
+	 * <p>
+	 * That's the frame itself, plus the previous frame if it is disposed to
+	 * the background. This also covers the frames after which the animation
+	 * decoder clears the whole canvas (key frames): either they cover the
+	 * whole canvas, or everything outside of the previous frame is already
+	 * transparent.
+	 *
+	 * @param previous The previous frame, or null for the first frame
+	 * @param frame    The frame
+	 * @param canvas   The canvas bounds
+	 * @return The dirty rectangle, within the canvas
+	 */
+	public static Rectangle getDirtyRect(final WebPDemuxFrame previous, final WebPDemuxFrame frame, final Rectangle canvas) {
+		if (previous == null) {
+			return new Rectangle(canvas);
+		}
+
+		Rectangle dirty = frame.bounds();
+		if (previous.disposeMethod() == LibWebP.WEBP_MUX_DISPOSE_BACKGROUND) {
+			dirty = dirty.union(previous.bounds());
+		}
+		return dirty.intersection(canvas);
+	}
+
+	/**
+	 * Tells whether a frame is rendered without any of the previous frames,
+	 * using the same rules as the animation decoder (anim_decode.c).
+	 *
+	 * @param previous         The previous frame, or null for the first frame
+	 * @param frame            The frame
+	 * @param previousKeyFrame Whether the previous frame is a key frame
+	 * @param canvas           The canvas bounds
+	 * @return True for a key frame
+	 */
+	public static boolean isKeyFrame(final WebPDemuxFrame previous, final WebPDemuxFrame frame,
+	                                 final boolean previousKeyFrame, final Rectangle canvas) {
+		if (previous == null) {
+			return true;
+		} else if ((!frame.hasAlpha() || frame.blendMethod() == LibWebP.WEBP_MUX_NO_BLEND) && isFullFrame(frame, canvas)) {
+			return true;
+		} else {
+			return previous.disposeMethod() == LibWebP.WEBP_MUX_DISPOSE_BACKGROUND
+					&& (isFullFrame(previous, canvas) || previousKeyFrame);
+		}
+	}
+
+	private static boolean isFullFrame(final WebPDemuxFrame frame, final Rectangle canvas) {
+		return frame.width() == canvas.width && frame.height() == canvas.height;
+	}
+
+	@Override
+	public void close() {
+		if (this.demuxer != null) {
+			this.resource.close();
+			this.demuxer = null;
+		}
+	}
+}
@@ -0,0 +1,138 @@
+package webpdecoderjn.internal;
+
+import com.sun.jna.Structure;
+import webpdecoderjn.WebPEncoderException;
+
+import java.util.Objects;
+
+public final class WebPEncoderConfig {
+	private WebPEncoderConfig() {
+	}
+
+	/**
+	 * Creates a validated config.
+	 *
+	 * @param lib        The native library
+	 * @param lossless   Whether to use lossless encoding
+	 * @param quality    The quality (or the effort for lossless), between 0 and 100
+	 * @param method     The speed/size trade-off, between 0 (fast) and 6 (small)
+	 * @param useThreads Whether libwebp should encode using multiple threads
+	 * @throws WebPEncoderException When the configuration is invalid
+	 */
+	public static Struct create(final LibWebP lib, final boolean lossless, final float quality, final int method,
+	                            final boolean useThreads) throws WebPEncoderException {
+		Objects.requireNonNull(lib, "lib == null");
+
+		final Struct config = new Struct();
+		if (lib.WebPConfigInitInternal(config, LibWebP.WEBP_PRESET_DEFAULT, quality, LibWebP.WEBP_ENCODER_ABI_VERSION) == 0) {
+			throw new WebPEncoderException("Failed initializing encoder config");
+		}
+		config.lossless = lossless ? 1 : 0;
+		config.method = method;
+		config.thread_level = useThreads ? 1 : 0;
+		if (lib.WebPValidateConfig(config) == 0) {
+			throw new WebPEncoderException("Invalid encoder config");
+		}
+		return config;
+	}
+
+	/*
+	[webp/encode.h]
+	    // Compression parameters.
+	    struct WebPConfig {
+	      int lossless;           // Lossless encoding (0=lossy(default), 1=lossless).
+	      float quality;          // between 0 and 100. For lossy, 0 gives the smallest
+	                              // size and 100 the largest. For lossless, this
+	                              // parameter is the amount of effort put into the
+	                              // compression: 0 is the fastest but gives larger
+	                              // files compared to the slowest, but best, 100.
+	      int method;             // quality/speed trade-off (0=fast, 6=slower-better)
+
+	      WebPImageHint image_hint;  // Hint for image type (lossless only for now).
+
+	      int target_size;        // if non-zero, set the desired target size in bytes.
+	                              // Takes precedence over the 'compression' parameter.
+	      float target_PSNR;      // if non-zero, specifies the minimal distortion to
+	                              // try to achieve. Takes precedence over target_size.
+	      int segments;           // maximum number of segments to use, in [1..4]
+	      int sns_strength;       // Spatial Noise Shaping. 0=off, 100=maximum.
+	      int filter_strength;    // range: [0 = off .. 100 = strongest]
+	      int filter_sharpness;   // range: [0 = off .. 7 = least sharp]
+	      int filter_type;        // filtering type: 0 = simple, 1 = strong (only used
+	                              // if filter_strength > 0 or autofilter > 0)
+	      int autofilter;         // Auto adjust filter's strength [0 = off, 1 = on]
+	      int alpha_compression;  // Algorithm for encoding the alpha plane (0 = none,
+	                              // 1 = compressed with WebP lossless). Default is 1.
+	      int alpha_filtering;    // Predictive filtering method for alpha plane.
+	                              //  0: none, 1: fast, 2: best. Default if 1.
+	      int alpha_quality;      // Between 0 (smallest size) and 100 (lossless).
+	                              // Default is 100.
+	      int pass;               // number of entropy-analysis passes (in [1..10]).
+
+	      int show_compressed;    // if true, export the compressed picture back.
+	                              // In-loop filtering is not applied.
+	      int preprocessing;      // preprocessing filter:
+	                              // 0=none, 1=segment-smooth, 2=pseudo-random dithering
+	      int partitions;         // log2(number of token partitions) in [0..3]. Default
+	                              // is set to 0 for easier progressive decoding.
+	      int partition_limit;    // quality degradation allowed to fit the 512k limit
+	                              // on prediction modes coding (0: no degradation,
+	                              // 100: maximum possible degradation).
+	      int emulate_jpeg_size;  // If true, compression parameters will be remapped
+	                              // to better match the expected output size from
+	                              // JPEG compression. Generally, the output size will
+	                              // be similar but the degradation will be lower.
+	      int thread_level;       // If non-zero, try and use multi-threaded encoding.
+	      int low_memory;         // If set, reduce memory usage (but increase CPU use).
+
+	      int near_lossless;      // Near lossless encoding [0 = max loss .. 100 = off
+	                              // (default)].
+	      int exact;              // if non-zero, preserve the exact RGB values under
+	                              // transparent area. Otherwise, discard this invisible
+	                              // RGB information for better compression. The default
+	                              // value is 0.
+
+	      int use_delta_palette;  // reserved for future lossless feature
+	      int use_sharp_yuv;      // if needed, use sharp (and slow) RGB->YUV conversion
+
+	      int qmin;               // minimum permissible quality factor
+	      int qmax;               // maximum permissible quality factor
+	    };
+	*/
+	@Structure.FieldOrder({"lossless", "quality", "method", "image_hint", "target_size", "target_PSNR", "segments",
+			"sns_strength", "filter_strength", "filter_sharpness", "filter_type", "autofilter", "alpha_compression",
+			"alpha_filtering", "alpha_quality", "pass", "show_compressed", "preprocessing", "partitions",
+			"partition_limit", "emulate_jpeg_size", "thread_level", "low_memory", "near_lossless", "exact",
+			"use_delta_palette", "use_sharp_yuv", "qmin", "qmax"})
+	public static class Struct extends Structure {
+		public int lossless;
+		public float quality;
+		public int method;
+		public int image_hint;
+		public int target_size;
+		public float target_PSNR;
+		public int segments;
+		public int sns_strength;
+		public int filter_strength;
+		public int filter_sharpness;
+		public int filter_type;
+		public int autofilter;
+		public int alpha_compression;
+		public int alpha_filtering;
+		public int alpha_quality;
+		public int pass;
+		public int show_compressed;
+		public int preprocessing;
+		public int partitions;
+		public int partition_limit;
+		public int emulate_jpeg_size;
+		public int thread_level;
+		public int low_memory;
+		public int near_lossless;
+		public int exact;
+		public int use_delta_palette;
+		public int use_sharp_yuv;
+		public int qmin;
+		public int qmax;
+	}
+}
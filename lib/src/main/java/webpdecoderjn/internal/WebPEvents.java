@@ -0,0 +1,83 @@
+package webpdecoderjn.internal;
+
+import java.util.Optional;
+
+/**
+ * Records the JFR events of this library (see {@link WebPDecodeEvent},
+ * {@link WebPFrameEvent} and {@link WebPNativeAllocationEvent}).
+ * <p>
+ * The module only optionally requires jdk.jfr, so this class doesn't depend
+ * on it: the event classes are only loaded when the module can read jdk.jfr,
+ * and nothing is recorded otherwise.
+ */
+public final class WebPEvents {
+	private static final boolean AVAILABLE = isAvailable();
+
+	private WebPEvents() {
+	}
+
+	/**
+	 * @return A started decode event, or null when it's not recorded (so nothing is measured)
+	 */
+	public static Decode beginDecode() {
+		return AVAILABLE ? WebPJfrEvents.beginDecode() : null;
+	}
+
+	/**
+	 * @return A started frame event, or null when it's not recorded (so nothing is measured)
+	 */
+	public static Frame beginFrame() {
+		return AVAILABLE ? WebPJfrEvents.beginFrame() : null;
+	}
+
+	/**
+	 * Records a native allocation being made or released.
+	 */
+	public static void nativeAllocation(final String type, final long bytes, final boolean released, final boolean leaked) {
+		if (AVAILABLE) {
+			WebPJfrEvents.nativeAllocation(type, bytes, released, leaked);
+		}
+	}
+
+	private static boolean isAvailable() {
+		final Module module = WebPEvents.class.getModule();
+		return Optional.ofNullable(module.getLayer())
+				.orElse(ModuleLayer.boot())
+				.findModule("jdk.jfr")
+				.map(module::canRead)
+				.orElse(false);
+	}
+
+	/**
+	 * The fields of a {@link WebPDecodeEvent}.
+	 */
+	public abstract static class Decode {
+		public String source;
+		public long inputBytes;
+		public int canvasWidth;
+		public int canvasHeight;
+		public int frameCount;
+
+		/**
+		 * Ends the event and records it, if it's within the recording thresholds.
+		 */
+		public abstract void commit();
+	}
+
+	/**
+	 * The fields of a {@link WebPFrameEvent}, the times are in nanoseconds.
+	 */
+	public abstract static class Frame {
+		public int frameIndex;
+		public int width;
+		public int height;
+		public long nativeTime;
+		public long copyTime;
+		public long imageTime;
+
+		/**
+		 * Ends the event and records it, if it's within the recording thresholds.
+		 */
+		public abstract void commit();
+	}
+}
@@ -0,0 +1,48 @@
+package webpdecoderjn.internal;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR event for the decoding of a frame, split into the time spent in
+ * libwebp, copying the pixels to the Java heap, and creating the image.
+ * <p>
+ * For still images the native time is the whole libwebp decode. For
+ * animations it's the animation decoder rendering the frame on its canvas
+ * (WebPAnimDecoderGetNext), or the compositor of the ImageIO reader.
+ */
+@Name("webpdecoderjn.Frame")
+@Label("WebP Frame")
+@Category("WebP")
+@Description("Decoding of a frame of a WebP image")
+@Enabled(false)
+@StackTrace(false)
+final class WebPFrameEvent extends Event {
+	@Label("Frame Index")
+	int frameIndex;
+
+	@Label("Width")
+	int width;
+
+	@Label("Height")
+	int height;
+
+	@Label("Native Time")
+	@Timespan
+	long nativeTime;
+
+	@Label("Copy Time")
+	@Timespan
+	long copyTime;
+
+	@Label("Image Time")
+	@Description("Creating the BufferedImage over the pixels")
+	@Timespan
+	long imageTime;
+}
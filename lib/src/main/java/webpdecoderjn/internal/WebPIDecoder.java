@@ -0,0 +1,127 @@
+package webpdecoderjn.internal;
+
+import com.sun.jna.Pointer;
+import com.sun.jna.ptr.IntByReference;
+import webpdecoderjn.WebPDecoderException;
+
+import java.io.Closeable;
+import java.lang.ref.Reference;
+import java.nio.ByteBuffer;
+import java.util.Objects;
+
+/**
+ * Incremental decoder for still images, decoding the data as it is appended.
+ */
+public final class WebPIDecoder implements Closeable {
+	private final LibWebP lib;
+	private Pointer decoder;
+	private final NativeResource resource;
+
+	public WebPIDecoder(final LibWebP lib) {
+		this(lib, LibWebP.MODE_BGRA);
+	}
+
+	/**
+	 * @param lib       The native library
+	 * @param colorMode The output colorspace (MODE_RGBA, MODE_BGRA, MODE_rgbA or MODE_bgrA)
+	 */
+	public WebPIDecoder(final LibWebP lib, final int colorMode) {
+		this.lib = Objects.requireNonNull(lib, "lib == null");
+
+		// Let libwebp allocate the output buffer once the headers are known
+		final Pointer decoder = lib.WebPINewRGB(colorMode, null, Size_T.ZERO, 0);
+		if (decoder == null) {
+			throw new NullPointerException("Failed initializing incremental decoder");
+		}
+		this.decoder = decoder;
+		// The output buffer is only allocated once the headers are decoded, so its size is unknown here
+		this.resource = NativeResource.register(this, "WebPIDecoder", 0, () -> lib.WebPIDelete(decoder));
+	}
+
+	/**
+	 * Decodes as much of the image as the data appended so far allows.
+	 *
+	 * @param data The next bytes of the image (from the buffer position to its limit)
+	 * @return True when the image is completely decoded, false when more data is expected
+	 * @throws WebPDecoderException When the data is invalid
+	 */
+	public boolean append(final ByteBuffer data) throws WebPDecoderException {
+		if (this.decoder == null) {
+			throw new IllegalStateException("WebPIDecoder already closed");
+		}
+
+		Objects.requireNonNull(data, "data == null");
+
+		final int status;
+		try {
+			status = this.lib.WebPIAppend(this.decoder, data, new Size_T(data.remaining()));
+		} finally {
+			Reference.reachabilityFence(this);
+		}
+		if (status == LibWebP.VP8_STATUS_OK) {
+			return true;
+		} else if (status == LibWebP.VP8_STATUS_SUSPENDED) {
+			return false;
+		} else {
+			throw new WebPDecoderException("Error decoding image data (status " + status + ")");
+		}
+	}
+
+	/**
+	 * Gets the rows decoded so far.
+	 *
+	 * @return The decoded area, or null if decoding hasn't started yet
+	 */
+	public Progress getProgress() {
+		if (this.decoder == null) {
+			throw new IllegalStateException("WebPIDecoder already closed");
+		}
+
+		final IntByReference lastRowRef = new IntByReference();
+		final IntByReference widthRef = new IntByReference();
+		final IntByReference heightRef = new IntByReference();
+		final IntByReference strideRef = new IntByReference();
+
+		final Pointer buffer;
+		try {
+			buffer = this.lib.WebPIDecGetRGB(this.decoder, lastRowRef, widthRef, heightRef, strideRef);
+		} finally {
+			Reference.reachabilityFence(this);
+		}
+		if (buffer == null) {
+			return null;
+		}
+
+		return new Progress(buffer, lastRowRef.getValue(), widthRef.getValue(), heightRef.getValue(), strideRef.getValue());
+	}
+
+	@Override
+	public void close() {
+		if (this.decoder != null) {
+			this.resource.close();
+			this.decoder = null;
+		}
+	}
+
+	/**
+	 * The output buffer of the incremental decoder, valid until the next
+	 * {@link #append(ByteBuffer)} or {@link #close()}.
+	 *
+	 * @param buffer  The RGBA output buffer
+	 * @param lastRow The number of rows decoded so far
+	 * @param width   The image width
+	 * @param height  The image height
+	 * @param stride  The distance in bytes between two rows
+	 */
+	public record Progress(
+			Pointer buffer,
+			int lastRow,
+			int width,
+			int height,
+			int stride
+	) {
+		public int[] pixels() {
+			return WebPPixels.read(this.buffer, this.stride, this.width, this.height, this.lastRow);
+		}
+	}
+}
@@ -0,0 +1,120 @@
+package webpdecoderjn.internal;
+
+import webpdecoderjn.WebPColorMode;
+
+import java.awt.color.ColorSpace;
+import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferInt;
+import java.awt.image.DirectColorModel;
+import java.awt.image.SampleModel;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.awt.image.WritableRaster;
+
+/**
+ * Wraps decoded pixels in images.
+ *
+ * <p>
+ * Pixels are read from the native buffers as little endian ints, so BGRA bytes
+ * end up as 0xAARRGGBB, the layout of {@link BufferedImage#TYPE_INT_ARGB}
+ * (and {@link BufferedImage#TYPE_INT_ARGB_PRE} when premultiplied), which
+ * Java2D draws with its accelerated loops. RGBA bytes need a custom color
+ * model.
+ */
+public final class WebPImages {
+	private static final ColorSpace SRGB = ColorSpace.getInstance(ColorSpace.CS_sRGB);
+
+	private static final ColorModel RGBA = new DirectColorModel(32, 0x000000ff, 0x0000ff00, 0x00ff0000, 0xff000000);
+	private static final ColorModel BGRA = new DirectColorModel(32, 0x00ff0000, 0x0000ff00, 0x000000ff, 0xff000000);
+	private static final ColorModel RGBA_PREMULTIPLIED = new DirectColorModel(SRGB, 32, 0x000000ff, 0x0000ff00, 0x00ff0000, 0xff000000, true, DataBuffer.TYPE_INT);
+	private static final ColorModel BGRA_PREMULTIPLIED = new DirectColorModel(SRGB, 32, 0x00ff0000, 0x0000ff00, 0x000000ff, 0xff000000, true, DataBuffer.TYPE_INT);
+
+	private WebPImages() {
+	}
+
+	public static int toColorspace(final WebPColorMode colorMode) {
+		switch (colorMode) {
+			case BGRA:
+				return LibWebP.MODE_BGRA;
+			case RGBA_PREMULTIPLIED:
+				return LibWebP.MODE_rgbA;
+			case BGRA_PREMULTIPLIED:
+				return LibWebP.MODE_bgrA;
+			default:
+				return LibWebP.MODE_RGBA;
+		}
+	}
+
+	/**
+	 * Gets the color mode producing images of the given type.
+	 *
+	 * @param imageType The {@link BufferedImage} type
+	 * @return The color mode, or null if the type can't be produced directly
+	 */
+	public static WebPColorMode fromImageType(final int imageType) {
+		switch (imageType) {
+			case BufferedImage.TYPE_INT_ARGB:
+				return WebPColorMode.BGRA;
+			case BufferedImage.TYPE_INT_ARGB_PRE:
+				return WebPColorMode.BGRA_PREMULTIPLIED;
+			default:
+				return null;
+		}
+	}
+
+	/**
+	 * Creates an image backed by the given pixels (without copying them).
+	 *
+	 * @param pixels    The pixels, each int holding the 4 bytes of the color mode in native (little endian) order
+	 * @param width     The image width
+	 * @param height    The image height
+	 * @param colorMode The color mode the pixels were decoded with
+	 * @return The image
+	 */
+	public static BufferedImage createImage(final int[] pixels, final int width, final int height, final WebPColorMode colorMode) {
+		assert pixels.length == width * height;
+		final ColorModel colorModel = getColorModel(colorMode);
+		final SampleModel sampleModel = colorModel.createCompatibleSampleModel(width, height);
+		final DataBufferInt dataBufferInt = new DataBufferInt(pixels, width * height);
+		final WritableRaster writableRaster = WritableRaster.createWritableRaster(sampleModel, dataBufferInt, null);
+		return new BufferedImage(colorModel, writableRaster, colorModel.isAlphaPremultiplied(), null);
+	}
+
+	/**
+	 * Gets the pixel array backing an image of type
+	 * {@link BufferedImage#TYPE_INT_ARGB} or {@link BufferedImage#TYPE_INT_ARGB_PRE}.
+	 *
+	 * @param image The image
+	 * @return The array with the index of the top left pixel and the distance between two rows
+	 */
+	public static Pixels getPixels(final BufferedImage image) {
+		// These types always have a packed int raster, possibly translated for sub-images
+		final WritableRaster raster = image.getRaster();
+		final SinglePixelPackedSampleModel sampleModel = (SinglePixelPackedSampleModel) raster.getSampleModel();
+		final DataBufferInt dataBuffer = (DataBufferInt) raster.getDataBuffer();
+		final int offset = dataBuffer.getOffset()
+				+ sampleModel.getOffset(-raster.getSampleModelTranslateX(), -raster.getSampleModelTranslateY());
+		return new Pixels(dataBuffer.getData(), offset, sampleModel.getScanlineStride());
+	}
+
+	private static ColorModel getColorModel(final WebPColorMode colorMode) {
+		switch (colorMode) {
+			case BGRA:
+				return BGRA;
+			case RGBA_PREMULTIPLIED:
+				return RGBA_PREMULTIPLIED;
+			case BGRA_PREMULTIPLIED:
+				return BGRA_PREMULTIPLIED;
+			default:
+				return RGBA;
+		}
+	}
+
+	public record Pixels(
+			int[] data,
+			int offset,
+			int scanline
+	) {
+	}
+}
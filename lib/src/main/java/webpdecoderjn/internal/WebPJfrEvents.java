@@ -0,0 +1,64 @@
+package webpdecoderjn.internal;
+
+/**
+ * Creates the JFR events, only loaded by {@link WebPEvents} when jdk.jfr is
+ * available.
+ */
+final class WebPJfrEvents {
+	private WebPJfrEvents() {
+	}
+
+	static WebPEvents.Decode beginDecode() {
+		final WebPDecodeEvent event = new WebPDecodeEvent();
+		if (!event.isEnabled()) {
+			return null;
+		}
+		event.begin();
+		return new WebPEvents.Decode() {
+			@Override
+			public void commit() {
+				if (event.shouldCommit()) {
+					event.source = this.source;
+					event.inputBytes = this.inputBytes;
+					event.canvasWidth = this.canvasWidth;
+					event.canvasHeight = this.canvasHeight;
+					event.frameCount = this.frameCount;
+					event.commit();
+				}
+			}
+		};
+	}
+
+	static WebPEvents.Frame beginFrame() {
+		final WebPFrameEvent event = new WebPFrameEvent();
+		if (!event.isEnabled()) {
+			return null;
+		}
+		event.begin();
+		return new WebPEvents.Frame() {
+			@Override
+			public void commit() {
+				if (event.shouldCommit()) {
+					event.frameIndex = this.frameIndex;
+					event.width = this.width;
+					event.height = this.height;
+					event.nativeTime = this.nativeTime;
+					event.copyTime = this.copyTime;
+					event.imageTime = this.imageTime;
+					event.commit();
+				}
+			}
+		};
+	}
+
+	static void nativeAllocation(final String type, final long bytes, final boolean released, final boolean leaked) {
+		final WebPNativeAllocationEvent event = new WebPNativeAllocationEvent();
+		if (event.shouldCommit()) {
+			event.type = type;
+			event.bytes = bytes;
+			event.released = released;
+			event.leaked = leaked;
+			event.commit();
+		}
+	}
+}
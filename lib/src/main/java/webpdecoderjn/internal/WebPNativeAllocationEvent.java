@@ -0,0 +1,35 @@
+package webpdecoderjn.internal;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event for a native allocation of this library being made or released
+ * (see {@link NativeResource}).
+ */
+@Name("webpdecoderjn.NativeAllocation")
+@Label("WebP Native Allocation")
+@Category("WebP")
+@Description("Allocation or release of native memory by libwebp")
+@Enabled(false)
+final class WebPNativeAllocationEvent extends Event {
+	@Label("Type")
+	String type;
+
+	@Label("Size")
+	@Description("The (estimated) size, 0 if unknown")
+	@DataAmount
+	long bytes;
+
+	@Label("Released")
+	boolean released;
+
+	@Label("Leaked")
+	@Description("Released by the garbage collector because it wasn't closed")
+	boolean leaked;
+}
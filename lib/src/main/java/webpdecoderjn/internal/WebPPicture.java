@@ -0,0 +1,211 @@
+package webpdecoderjn.internal;
+
+import com.sun.jna.Callback;
+import com.sun.jna.Pointer;
+import com.sun.jna.Structure;
+import webpdecoderjn.WebPEncoderException;
+
+import java.awt.image.BufferedImage;
+import java.nio.Buffer;
+import java.nio.IntBuffer;
+import java.util.Objects;
+
+public final class WebPPicture {
+	private WebPPicture() {
+	}
+
+	/**
+	 * Creates a picture holding the pixels of an image, reading the pixel
+	 * array of the usual int types in place and converting the other types.
+	 * The picture must be released with {@link LibWebP#WebPPictureFree}.
+	 *
+	 * @param lib     The native library
+	 * @param image   The image
+	 * @param useArgb Whether to import to ARGB (for lossless) or to YUV (for lossy)
+	 * @throws WebPEncoderException When the picture can't be created
+	 */
+	public static Struct create(final LibWebP lib, final BufferedImage image, final boolean useArgb) throws WebPEncoderException {
+		final int width = image.getWidth();
+		final int height = image.getHeight();
+		final boolean hasAlpha = image.getColorModel().hasAlpha();
+		switch (image.getType()) {
+			case BufferedImage.TYPE_INT_ARGB:
+			case BufferedImage.TYPE_INT_RGB: {
+				// 0xAARRGGBB ints are B, G, R, A bytes in native (little endian) order
+				final WebPImages.Pixels pixels = WebPImages.getPixels(image);
+				final IntBuffer buffer = IntBuffer.wrap(pixels.data(), pixels.offset(), pixels.data().length - pixels.offset());
+				return create(lib, buffer, LibWebP.MODE_BGRA, hasAlpha, width, height, pixels.scanline() * Integer.BYTES, useArgb);
+			}
+			default: {
+				// Premultiplied and other layouts are converted to non-premultiplied ARGB
+				final int[] argb = image.getRGB(0, 0, width, height, null, 0, width);
+				return create(lib, IntBuffer.wrap(argb), LibWebP.MODE_BGRA, hasAlpha, width, height, width * Integer.BYTES, useArgb);
+			}
+		}
+	}
+
+	/**
+	 * Creates a picture holding the pixels of a buffer, starting at its position.
+	 * The picture must be released with {@link LibWebP#WebPPictureFree}.
+	 *
+	 * @param lib       The native library
+	 * @param pixels    The pixels, 4 bytes each (in native order for int buffers)
+	 * @param colorMode The byte order of the pixels (MODE_RGBA or MODE_BGRA)
+	 * @param hasAlpha  Whether to import the alpha channel
+	 * @param width     The image width
+	 * @param height    The image height
+	 * @param stride    The distance in bytes between two rows
+	 * @param useArgb   Whether to import to ARGB (for lossless) or to YUV (for lossy)
+	 * @throws WebPEncoderException When the picture can't be created
+	 */
+	public static Struct create(final LibWebP lib, final Buffer pixels, final int colorMode, final boolean hasAlpha,
+	                            final int width, final int height, final int stride, final boolean useArgb) throws WebPEncoderException {
+		Objects.requireNonNull(lib, "lib == null");
+		Objects.requireNonNull(pixels, "pixels == null");
+		final int elementSize = pixels instanceof IntBuffer ? Integer.BYTES : 1;
+		if (width <= 0 || height <= 0) {
+			throw new IllegalArgumentException("Invalid dimensions: " + width + " x " + height);
+		} else if (stride < width * 4 || (long) stride * (height - 1) + width * 4L > (long) pixels.remaining() * elementSize) {
+			throw new IllegalArgumentException("The pixels don't fit in the buffer");
+		}
+
+		final Struct picture = new Struct();
+		if (lib.WebPPictureInitInternal(picture, LibWebP.WEBP_ENCODER_ABI_VERSION) == 0) {
+			throw new WebPEncoderException("Failed initializing picture");
+		}
+		picture.use_argb = useArgb ? 1 : 0;
+		picture.width = width;
+		picture.height = height;
+
+		final int imported;
+		if (colorMode == LibWebP.MODE_RGBA) {
+			imported = lib.WebPPictureImportRGBA(picture, pixels, stride);
+		} else if (hasAlpha) {
+			imported = lib.WebPPictureImportBGRA(picture, pixels, stride);
+		} else {
+			imported = lib.WebPPictureImportBGRX(picture, pixels, stride);
+		}
+		if (imported == 0) {
+			lib.WebPPictureFree(picture);
+			throw new WebPEncoderException("Failed importing pixels");
+		}
+		return picture;
+	}
+
+	/*
+	[webp/encode.h]
+	    // Signature for output function. Should return true if writing was successful.
+	    // data/data_size is the segment of data to write, and 'picture' is for
+	    // reference (and so one can make use of picture->custom_ptr).
+	    typedef int (*WebPWriterFunction)(const uint8_t* data, size_t data_size,
+	                                      const WebPPicture* picture);
+	*/
+	public interface WriterFunction extends Callback {
+		int invoke(Pointer data, Size_T data_size, Pointer picture);
+	}
+
+	/*
+	[webp/encode.h]
+	    struct WebPPicture {
+	      //   INPUT
+	      //////////////
+	      // Main flag for encoder selecting between ARGB or YUV input.
+	      // It is recommended to use ARGB input (*argb, argb_stride) for lossless
+	      // compression, and YUV input (*y, *u, *v, etc.) for lossy compression
+	      // since these are the respective native colorspace for these formats.
+	      int use_argb;
+
+	      // YUV input (mostly used for input to lossy compression)
+	      WebPEncCSP colorspace;     // colorspace: should be YUV420 for now (=Y'CbCr).
+	      int width, height;         // dimensions (less or equal to WEBP_MAX_DIMENSION)
+	      uint8_t* y, *u, *v;        // pointers to luma/chroma planes.
+	      int y_stride, uv_stride;   // luma/chroma strides.
+	      uint8_t* a;                // pointer to the alpha plane
+	      int a_stride;              // stride of the alpha plane
+	      uint32_t pad1[2];          // padding for later use
+
+	      // ARGB input (mostly used for input to lossless compression)
+	      uint32_t* argb;            // Pointer to argb (32 bit) plane.
+	      int argb_stride;           // This is stride in pixels units, not bytes.
+	      uint32_t pad2[3];          // padding for later use
+
+	      //   OUTPUT
+	      ///////////////
+	      // Byte-emission hook, to store compressed bytes as they are ready.
+	      WebPWriterFunction writer;  // can be NULL
+	      void* custom_ptr;           // can be used by the writer.
+
+	      // map for extra information (only for lossy compression mode)
+	      int extra_info_type;    // 1: intra type, 2: segment, 3: quant
+	                              // 4: intra-16 prediction mode,
+	                              // 5: chroma prediction mode,
+	                              // 6: bit cost, 7: distortion
+	      uint8_t* extra_info;    // if not NULL, points to an array of size
+	                              // ((width + 15) / 16) * ((height + 15) / 16) that
+	                              // will be filled with a macroblock map, depending
+	                              // on extra_info_type.
+
+	      //   STATS AND REPORTS
+	      ///////////////////////////
+	      // Pointer to side statistics (updated only if not NULL)
+	      WebPAuxStats* stats;
+
+	      // Error code for the latest error encountered during encoding
+	      WebPEncodingError error_code;
+
+	      // If not NULL, report progress during encoding.
+	      WebPProgressHook progress_hook;
+
+	      void* user_data;        // this field is free to be set to any value and
+	                              // used during callbacks (like progress-report e.g.).
+
+	      uint32_t pad3[3];       // padding for later use
+
+	      // Unused for now
+	      uint8_t* pad4, *pad5;
+	      uint32_t pad6[8];       // padding for later use
+
+	      // PRIVATE FIELDS
+	      ////////////////////
+	      void* memory_;          // row chunk of memory for yuva planes
+	      void* memory_argb_;     // and for argb too.
+	      void* pad7[2];          // padding for later use
+	    };
+	*/
+	@Structure.FieldOrder({"use_argb", "colorspace", "width", "height", "y", "u", "v", "y_stride", "uv_stride", "a",
+			"a_stride", "pad1", "argb", "argb_stride", "pad2", "writer", "custom_ptr", "extra_info_type", "extra_info",
+			"stats", "error_code", "progress_hook", "user_data", "pad3", "pad4", "pad5", "pad6", "memory_",
+			"memory_argb_", "pad7"})
+	public static class Struct extends Structure {
+		public int use_argb;
+		public int colorspace;
+		public int width;
+		public int height;
+		public Pointer y;
+		public Pointer u;
+		public Pointer v;
+		public int y_stride;
+		public int uv_stride;
+		public Pointer a;
+		public int a_stride;
+		public int[] pad1 = new int[2];
+		public Pointer argb;
+		public int argb_stride;
+		public int[] pad2 = new int[3];
+		public WriterFunction writer;
+		public Pointer custom_ptr;
+		public int extra_info_type;
+		public Pointer extra_info;
+		public Pointer stats;
+		public int error_code;
+		public Pointer progress_hook;
+		public Pointer user_data;
+		public int[] pad3 = new int[3];
+		public Pointer pad4;
+		public Pointer pad5;
+		public int[] pad6 = new int[8];
+		public Pointer memory_;
+		public Pointer memory_argb_;
+		public Pointer[] pad7 = new Pointer[2];
+	}
+}
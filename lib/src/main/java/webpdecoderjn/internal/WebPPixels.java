@@ -0,0 +1,189 @@
+package webpdecoderjn.internal;
+
+import com.sun.jna.Pointer;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Copies pixels out of native RGBA buffers.
+ */
+public final class WebPPixels {
+	private WebPPixels() {
+	}
+
+	public static int[] read(final Pointer buffer, final int stride, final int width, final int height) {
+		return read(buffer, stride, width, height, height);
+	}
+
+	/**
+	 * Copies the first rows of a native buffer, leaving the remaining rows
+	 * transparent.
+	 *
+	 * @param buffer The native buffer (4 bytes per pixel)
+	 * @param stride The distance in bytes between two rows
+	 * @param width  The width in pixels
+	 * @param height The height in pixels
+	 * @param rows   The number of rows to copy
+	 * @return The pixels (width * height)
+	 */
+	public static int[] read(final Pointer buffer, final int stride, final int width, final int height, final int rows) {
+		if (stride == width * Integer.BYTES && rows == height) {
+			return buffer.getIntArray(0, width * height);
+		}
+
+		final int[] pixels = new int[width * height];
+		read(buffer, stride, width, rows, pixels, 0, width);
+		return pixels;
+	}
+
+	/**
+	 * Copies the pixels of a native buffer into an array.
+	 *
+	 * @param buffer   The native buffer (4 bytes per pixel)
+	 * @param stride   The distance in bytes between two rows
+	 * @param width    The width in pixels
+	 * @param height   The height in pixels
+	 * @param dest     The destination array
+	 * @param offset   The index of the first pixel in the destination
+	 * @param scanline The distance in pixels between two rows of the destination
+	 */
+	public static void read(final Pointer buffer, final int stride, final int width, final int height,
+	                        final int[] dest, final int offset, final int scanline) {
+		if (stride == width * Integer.BYTES && scanline == width) {
+			buffer.read(0, dest, offset, width * height);
+			return;
+		}
+
+		for (int y = 0; y < height; ++y) {
+			buffer.read((long) y * stride, dest, offset + y * scanline, width);
+		}
+	}
+
+	/**
+	 * Copies the pixels of a native buffer into a byte buffer, keeping their
+	 * byte order. The position of the destination is not changed.
+	 *
+	 * @param buffer     The native buffer (4 bytes per pixel)
+	 * @param stride     The distance in bytes between two rows
+	 * @param width      The width in pixels
+	 * @param height     The height in pixels
+	 * @param dest       The destination, written from its position
+	 * @param destStride The distance in bytes between two rows of the destination
+	 */
+	public static void read(final Pointer buffer, final int stride, final int width, final int height,
+	                        final ByteBuffer dest, final int destStride) {
+		final int rowLength = width * Integer.BYTES;
+		final ByteBuffer source = buffer.getByteBuffer(0, (long) (height - 1) * stride + rowLength);
+		for (int y = 0; y < height; ++y) {
+			dest.put(dest.position() + y * destStride, source, y * stride, rowLength);
+		}
+	}
+
+	/**
+	 * Creates a read-only view of a native buffer, without copying it. The
+	 * view is in little endian order, so {@link ByteBuffer#getInt(int)} reads
+	 * the same values as the other methods.
+	 *
+	 * @param buffer The native buffer (4 bytes per pixel)
+	 * @param stride The distance in bytes between two rows
+	 * @param width  The width in pixels
+	 * @param height The height in pixels
+	 * @return The view, from the first pixel to the end of the last row
+	 */
+	public static ByteBuffer view(final Pointer buffer, final int stride, final int width, final int height) {
+		final long length = (long) (height - 1) * stride + (long) width * Integer.BYTES;
+		return buffer.getByteBuffer(0, length).asReadOnlyBuffer().order(ByteOrder.LITTLE_ENDIAN);
+	}
+
+	/**
+	 * Copies a sampled grid of pixels, reading only the sampled rows from the
+	 * native buffer.
+	 *
+	 * @param buffer  The native buffer (4 bytes per pixel)
+	 * @param stride  The distance in bytes between two rows
+	 * @param columns The source column of each output column (in ascending order)
+	 * @param rows    The source row of each output row (in ascending order)
+	 * @return The pixels (columns.length * rows.length)
+	 */
+	public static int[] sample(final Pointer buffer, final int stride, final int[] columns, final int[] rows) {
+		final int[] pixels = new int[columns.length * rows.length];
+		sample(buffer, stride, columns, rows, pixels, 0, columns.length);
+		return pixels;
+	}
+
+	/**
+	 * Copies a sampled grid of pixels into an array.
+	 *
+	 * @param buffer   The native buffer (4 bytes per pixel)
+	 * @param stride   The distance in bytes between two rows
+	 * @param columns  The source column of each output column (in ascending order)
+	 * @param rows     The source row of each output row (in ascending order)
+	 * @param dest     The destination array
+	 * @param offset   The index of the first pixel in the destination
+	 * @param scanline The distance in pixels between two rows of the destination
+	 * @see #sample(Pointer, int, int[], int[])
+	 */
+	public static void sample(final Pointer buffer, final int stride, final int[] columns, final int[] rows,
+	                          final int[] dest, final int offset, final int scanline) {
+		final int width = columns.length;
+		if (width == 0) {
+			return;
+		}
+
+		final int firstColumn = columns[0];
+		final int[] row = new int[columns[width - 1] - firstColumn + 1];
+		int rowIndex = -1;
+		for (int y = 0; y < rows.length; ++y) {
+			if (rows[y] != rowIndex) {
+				rowIndex = rows[y];
+				buffer.read((long) rowIndex * stride + (long) firstColumn * Integer.BYTES, row, 0, row.length);
+			}
+			final int start = offset + y * scanline;
+			for (int x = 0; x < width; ++x) {
+				dest[start + x] = row[columns[x] - firstColumn];
+			}
+		}
+	}
+
+	/**
+	 * Copies a sampled grid of pixels into a byte buffer, keeping their byte
+	 * order. The position of the destination is not changed.
+	 *
+	 * @param buffer     The native buffer (4 bytes per pixel)
+	 * @param stride     The distance in bytes between two rows
+	 * @param columns    The source column of each output column (in ascending order)
+	 * @param rows       The source row of each output row (in ascending order)
+	 * @param dest       The destination, written from its position
+	 * @param destStride The distance in bytes between two rows of the destination
+	 * @see #sample(Pointer, int, int[], int[])
+	 */
+	public static void sample(final Pointer buffer, final int stride, final int[] columns, final int[] rows,
+	                          final ByteBuffer dest, final int destStride) {
+		final int width = columns.length;
+		final int[] pixels = sample(buffer, stride, columns, rows);
+		// The ints were read in native order, so writing them back in native order keeps the byte order
+		final ByteBuffer target = dest.duplicate().order(ByteOrder.nativeOrder());
+		for (int y = 0; y < rows.length; ++y) {
+			target.position(dest.position() + y * destStride);
+			target.asIntBuffer().put(pixels, y * width, width);
+		}
+	}
+
+	/**
+	 * Maps each output position to the source position closest to its center
+	 * (nearest neighbour scaling).
+	 *
+	 * @param offset       The first source position
+	 * @param length       The number of source positions
+	 * @param scaledLength The number of output positions
+	 * @return The source position of each output position
+	 */
+	public static int[] scaleIndices(final int offset, final int length, final int scaledLength) {
+		final int[] indices = new int[scaledLength];
+		for (int i = 0; i < scaledLength; ++i) {
+			indices[i] = offset + (int) ((2L * i + 1) * length / (2L * scaledLength));
+		}
+		return indices;
+	}
+}
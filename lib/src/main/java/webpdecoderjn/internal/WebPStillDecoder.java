@@ -0,0 +1,310 @@
+package webpdecoderjn.internal;
+
+import com.sun.jna.Native;
+import com.sun.jna.Pointer;
+import webpdecoderjn.WebPDecoderException;
+
+import java.awt.Rectangle;
+import java.lang.ref.Reference;
+import java.nio.ByteBuffer;
+import java.util.Objects;
+
+/**
+ * Decodes non-animated images with the simple libwebp decoding API, skipping
+ * the canvas compositing (and its two full-size canvas allocations) done by
+ * {@link WebPAnimDecoder}.
+ */
+public final class WebPStillDecoder {
+	private static final int FEATURES_PROBE_SIZE = 256;
+	// A config per thread, so its native memory isn't allocated for every decode. It's taken from the
+	// thread while decoding, so a decode started by an output callback doesn't share it.
+	private static final ThreadLocal<WebPDecoderConfig.Struct> SCRATCH_CONFIG = new ThreadLocal<>();
+
+	private final LibWebP lib;
+	// Keeps the data reachable, so its memory isn't freed by the cleaner during a decode
+	private final WebPData owner;
+	private final WebPData.Struct data;
+	private final int colorMode;
+	private final boolean useThreads;
+
+	public WebPStillDecoder(final LibWebP lib, final WebPData data) {
+		this(lib, data, LibWebP.MODE_BGRA, false);
+	}
+
+	/**
+	 * @param lib        The native library
+	 * @param data       The image data
+	 * @param colorMode  The output colorspace (MODE_RGBA, MODE_BGRA, MODE_rgbA or MODE_bgrA)
+	 * @param useThreads Whether libwebp should decode using multiple threads
+	 */
+	public WebPStillDecoder(final LibWebP lib, final WebPData data, final int colorMode, final boolean useThreads) {
+		this(lib, Objects.requireNonNull(data, "data == null"), data.getStruct(), colorMode, useThreads);
+	}
+
+	/**
+	 * Decodes the data the struct points to at the time of each call, so the
+	 * decoder can be reused for other data by updating the struct.
+	 *
+	 * @param owner The owner of the memory the struct points to, kept reachable (or null if the caller keeps it)
+	 */
+	WebPStillDecoder(final LibWebP lib, final WebPData owner, final WebPData.Struct data, final int colorMode, final boolean useThreads) {
+		this.owner = owner;
+		this.data = Objects.requireNonNull(data, "data.struct == null");
+		this.lib = Objects.requireNonNull(lib, "lib == null");
+		this.colorMode = colorMode;
+		this.useThreads = useThreads;
+	}
+
+	public WebPBitstreamFeatures getFeatures() throws WebPDecoderException {
+		final WebPBitstreamFeatures.Struct struct = new WebPBitstreamFeatures.Struct();
+		final int status;
+		try {
+			status = this.lib.WebPGetFeaturesInternal(this.data.bytes, this.data.length, struct, LibWebP.WEBP_DECODER_ABI_VERSION);
+		} finally {
+			Reference.reachabilityFence(this.owner);
+		}
+		if (status != LibWebP.VP8_STATUS_OK) {
+			throw new WebPDecoderException("Failed getting bitstream features (status " + status + ")");
+		}
+
+		return WebPBitstreamFeatures.copy(struct);
+	}
+
+	/**
+	 * Reads the bitstream features from the headers only, passing libwebp as
+	 * few bytes as it needs instead of the whole image.
+	 *
+	 * @param lib  The native library
+	 * @param data The WebP file, read from its position (the position is not changed)
+	 * @return The bitstream features
+	 * @throws WebPDecoderException When the headers are invalid or truncated
+	 */
+	public static WebPBitstreamFeatures getFeatures(final LibWebP lib, final ByteBuffer data) throws WebPDecoderException {
+		return getFeatures(lib, data, false);
+	}
+
+	/**
+	 * Reads the bitstream features from the headers only, of a file that may
+	 * not be complete yet (e.g. while reading it from a stream).
+	 *
+	 * @param lib     The native library
+	 * @param data    The WebP file, read from its position (the position is not changed)
+	 * @param partial True if the data is only the start of the file
+	 * @return The bitstream features, or null if the data is partial and doesn't contain all the headers yet
+	 * @throws WebPDecoderException When the headers are invalid (or truncated, if the data isn't partial)
+	 */
+	public static WebPBitstreamFeatures getFeatures(final LibWebP lib, final ByteBuffer data, final boolean partial) throws WebPDecoderException {
+		Objects.requireNonNull(lib, "lib == null");
+		final ByteBuffer buffer = Objects.requireNonNull(data, "data == null").slice();
+		final int remaining = buffer.remaining();
+
+		// Optional chunks (e.g. ICCP) may come before the image data, so grow the probe until it's enough
+		int length = Math.min(FEATURES_PROBE_SIZE, remaining);
+		while (true) {
+			final WebPBitstreamFeatures.Struct struct = new WebPBitstreamFeatures.Struct();
+			final int status;
+			if (buffer.isDirect()) {
+				final Pointer bytes = Native.getDirectBufferPointer(buffer);
+				status = lib.WebPGetFeaturesInternal(bytes, new Size_T(length), struct, LibWebP.WEBP_DECODER_ABI_VERSION);
+			} else {
+				final byte[] bytes = new byte[length];
+				buffer.get(0, bytes);
+				status = lib.WebPGetFeaturesInternal(bytes, new Size_T(length), struct, LibWebP.WEBP_DECODER_ABI_VERSION);
+			}
+
+			if (status != LibWebP.VP8_STATUS_OK && status != LibWebP.VP8_STATUS_NOT_ENOUGH_DATA) {
+				throw new WebPDecoderException("Failed getting bitstream features (status " + status + ")");
+			}
+			// For a VP8X still, libwebp returns OK with an undefined format until it reaches the VP8/VP8L chunk
+			final boolean complete = status == LibWebP.VP8_STATUS_OK
+					&& (struct.format != WebPBitstreamFeatures.FORMAT_MIXED || struct.has_animation != 0);
+			if (complete || (status == LibWebP.VP8_STATUS_OK && length == remaining && !partial)) {
+				return WebPBitstreamFeatures.copy(struct);
+			} else if (length == remaining && partial) {
+				return null;
+			} else if (length == remaining) {
+				throw new WebPDecoderException("Failed getting bitstream features (status " + status + ")");
+			}
+			length = (int) Math.min(4L * length, remaining);
+		}
+	}
+
+	public WebPFrame decode() throws WebPDecoderException {
+		return this.decode(0, 0);
+	}
+
+	/**
+	 * Decodes the image, scaled by libwebp while decoding.
+	 *
+	 * @param scaledWidth  The output width, or 0 to not scale
+	 * @param scaledHeight The output height, or 0 to not scale
+	 * @return The frame with scaledWidth * scaledHeight pixels (or the full size)
+	 * @throws WebPDecoderException When decoding fails
+	 */
+	public WebPFrame decode(final int scaledWidth, final int scaledHeight) throws WebPDecoderException {
+		return this.decode(null, scaledWidth, scaledHeight);
+	}
+
+	/**
+	 * Decodes a region of the image, cropped and scaled by libwebp while
+	 * decoding, so only the region is decoded into memory.
+	 *
+	 * @param region       The region to decode, or null for the whole image
+	 * @param scaledWidth  The output width, or 0 to not scale
+	 * @param scaledHeight The output height, or 0 to not scale
+	 * @return The frame with scaledWidth * scaledHeight pixels (or the region size)
+	 * @throws WebPDecoderException When decoding fails
+	 */
+	public WebPFrame decode(final Rectangle region, final int scaledWidth, final int scaledHeight) throws WebPDecoderException {
+		final int[] pixels = this.decode(region, scaledWidth, scaledHeight, null, WebPPixels::read);
+		return new WebPFrame(pixels, 0);
+	}
+
+	/**
+	 * Decodes a region of the image into an array.
+	 *
+	 * @param region       The region to decode, or null for the whole image
+	 * @param scaledWidth  The output width, or 0 to not scale
+	 * @param scaledHeight The output height, or 0 to not scale
+	 * @param dest         The destination array
+	 * @param offset       The index of the first pixel in the destination
+	 * @param scanline     The distance in pixels between two rows of the destination
+	 * @throws WebPDecoderException When decoding fails
+	 * @see #decode(Rectangle, int, int)
+	 */
+	public void decode(final Rectangle region, final int scaledWidth, final int scaledHeight,
+	                   final int[] dest, final int offset, final int scanline) throws WebPDecoderException {
+		this.decode(region, scaledWidth, scaledHeight, null, (buffer, stride, width, height) -> {
+			WebPPixels.read(buffer, stride, width, height, dest, offset, scanline);
+			return null;
+		});
+	}
+
+	/**
+	 * Decodes a region of the image into a byte buffer, starting at its
+	 * position (which is not changed).
+	 * <p>
+	 * libwebp writes directly into direct buffers, unless the region starts
+	 * at an odd position (which libwebp can't crop exactly).
+	 *
+	 * @param region       The region to decode, or null for the whole image
+	 * @param scaledWidth  The output width, or 0 to not scale
+	 * @param scaledHeight The output height, or 0 to not scale
+	 * @param dest         The destination buffer
+	 * @param destStride   The distance in bytes between two rows of the destination
+	 * @throws WebPDecoderException When decoding fails
+	 * @see #decode(Rectangle, int, int)
+	 */
+	public void decode(final Rectangle region, final int scaledWidth, final int scaledHeight,
+	                   final ByteBuffer dest, final int destStride) throws WebPDecoderException {
+		final boolean scaling = scaledWidth > 0 && scaledHeight > 0;
+		final boolean exact = region == null || scaling || ((region.x | region.y) & 1) == 0;
+		if (dest.isDirect() && exact) {
+			this.decode(region, scaledWidth, scaledHeight, new ExternalBuffer(dest, destStride), null);
+		} else {
+			this.decode(region, scaledWidth, scaledHeight, null, (buffer, stride, width, height) -> {
+				WebPPixels.read(buffer, stride, width, height, dest, destStride);
+				return null;
+			});
+		}
+	}
+
+	/**
+	 * Decodes a region of the image into a buffer owned by libwebp, which is
+	 * passed to the output and freed once it returns.
+	 *
+	 * @param region       The region to decode, or null for the whole image
+	 * @param scaledWidth  The output width, or 0 to not scale
+	 * @param scaledHeight The output height, or 0 to not scale
+	 * @param output       Reads the decoded pixels
+	 * @return The value returned by the output
+	 * @throws WebPDecoderException When decoding fails
+	 * @throws E                    When the output fails
+	 * @see #decode(Rectangle, int, int)
+	 */
+	public <T, E extends Exception> T decode(final Rectangle region, final int scaledWidth, final int scaledHeight,
+	                                         final Output<T, E> output) throws WebPDecoderException, E {
+		return this.decode(region, scaledWidth, scaledHeight, null, Objects.requireNonNull(output, "output == null"));
+	}
+
+	private <T, E extends Exception> T decode(final Rectangle region, final int scaledWidth, final int scaledHeight,
+	                                          final ExternalBuffer external, final Output<T, E> output) throws WebPDecoderException, E {
+		WebPDecoderConfig.Struct config = SCRATCH_CONFIG.get();
+		if (config != null) {
+			SCRATCH_CONFIG.remove();
+		} else {
+			config = new WebPDecoderConfig.Struct();
+		}
+		try {
+			return this.decode(region, scaledWidth, scaledHeight, external, output, config);
+		} finally {
+			SCRATCH_CONFIG.set(config);
+		}
+	}
+
+	private <T, E extends Exception> T decode(final Rectangle region, final int scaledWidth, final int scaledHeight,
+	                                          final ExternalBuffer external, final Output<T, E> output,
+	                                          final WebPDecoderConfig.Struct config) throws WebPDecoderException, E {
+		// Resets all the fields, including those left by the previous decode
+		if (this.lib.WebPInitDecoderConfigInternal(config, LibWebP.WEBP_DECODER_ABI_VERSION) == 0) {
+			throw new WebPDecoderException("Failed initializing decoder config");
+		}
+		config.output.colorspace = this.colorMode;
+		config.options.use_threads = this.useThreads ? 1 : 0;
+		final boolean scaling = scaledWidth > 0 && scaledHeight > 0;
+		// libwebp snaps the crop position to even values, so start the crop one pixel earlier and skip that
+		// pixel when copying (unless scaling, where the half pixel shift doesn't matter)
+		final int skipX = region != null && !scaling ? region.x & 1 : 0;
+		final int skipY = region != null && !scaling ? region.y & 1 : 0;
+		if (region != null) {
+			config.options.use_cropping = 1;
+			config.options.crop_left = region.x - skipX;
+			config.options.crop_top = region.y - skipY;
+			config.options.crop_width = region.width + skipX;
+			config.options.crop_height = region.height + skipY;
+		}
+		if (scaling) {
+			config.options.use_scaling = 1;
+			config.options.scaled_width = scaledWidth;
+			config.options.scaled_height = scaledHeight;
+		}
+		if (external != null) {
+			// libwebp checks that the decoded image fits in the buffer
+			config.output.is_external_memory = 1;
+			config.output.u.RGBA.rgba = Native.getDirectBufferPointer(external.buffer()).share(external.buffer().position());
+			config.output.u.RGBA.stride = external.stride();
+			config.output.u.RGBA.size = new Size_T(external.buffer().remaining());
+		}
+
+		final int status;
+		try {
+			status = this.lib.WebPDecode(this.data.bytes, this.data.length, config);
+		} finally {
+			Reference.reachabilityFence(this.owner);
+		}
+		try {
+			if (status != LibWebP.VP8_STATUS_OK) {
+				throw new WebPDecoderException("Error decoding image (status " + status + ")");
+			} else if (output == null) {
+				return null;
+			}
+
+			final WebPDecoderConfig.RGBABuffer buffer = config.output.u.RGBA;
+			if (buffer.rgba == null) {
+				throw new WebPDecoderException("Error decoding image");
+			}
+
+			final Pointer origin = buffer.rgba.share((long) skipY * buffer.stride + (long) skipX * Integer.BYTES);
+			return output.read(origin, buffer.stride, config.output.width - skipX, config.output.height - skipY);
+		} finally {
+			this.lib.WebPFreeDecBuffer(config.output);
+		}
+	}
+
+	public interface Output<T, E extends Exception> {
+		T read(Pointer buffer, int stride, int width, int height) throws E;
+	}
+
+	private record ExternalBuffer(ByteBuffer buffer, int stride) {
+	}
+}
@@ -0,0 +1,153 @@
+package webpdecoderjn.internal;
+
+import com.sun.jna.Pointer;
+import webpdecoderjn.WebPEncoderException;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.util.Objects;
+
+/**
+ * Encodes still images with the advanced libwebp encoding API.
+ * <p>
+ * The pixels are imported by libwebp straight from the given buffer (for
+ * lossy encoding directly to YUV) and the encoded bytes are passed to the
+ * output as libwebp produces them, so no full size copy is made on the Java
+ * side.
+ */
+public final class WebPStillEncoder {
+	private static final String[] ERRORS = {
+			"OK",
+			"Out of memory",
+			"Out of memory while flushing the bitstream",
+			"Missing parameter",
+			"Invalid configuration",
+			"Invalid picture dimensions",
+			"Partition 0 is too big",
+			"Partition is too big",
+			"Error writing the bitstream",
+			"File too big",
+			"Aborted by the user"
+	};
+
+	private final LibWebP lib;
+	private final WebPEncoderConfig.Struct config;
+
+	/**
+	 * @param lib        The native library
+	 * @param lossless   Whether to use lossless encoding
+	 * @param quality    The quality (or the effort for lossless), between 0 and 100
+	 * @param method     The speed/size trade-off, between 0 (fast) and 6 (small)
+	 * @param useThreads Whether libwebp should encode using multiple threads
+	 * @throws WebPEncoderException When the configuration is invalid
+	 */
+	public WebPStillEncoder(final LibWebP lib, final boolean lossless, final float quality, final int method,
+	                        final boolean useThreads) throws WebPEncoderException {
+		this(lib, WebPEncoderConfig.create(lib, lossless, quality, method, useThreads));
+	}
+
+	/**
+	 * @param lib    The native library
+	 * @param config The validated config
+	 * @see WebPEncoderConfig#create(LibWebP, boolean, float, int, boolean)
+	 */
+	public WebPStillEncoder(final LibWebP lib, final WebPEncoderConfig.Struct config) {
+		this.lib = Objects.requireNonNull(lib, "lib == null");
+		this.config = Objects.requireNonNull(config, "config == null");
+	}
+
+	/**
+	 * Encodes an image, reading the pixel array of the usual int types in
+	 * place and converting the other types.
+	 *
+	 * @param image  The image
+	 * @param output Receives the encoded bytes
+	 * @throws IOException When encoding or writing fails
+	 */
+	public void encode(final BufferedImage image, final Output output) throws IOException {
+		Objects.requireNonNull(image, "image == null");
+		Objects.requireNonNull(output, "output == null");
+		// Lossless encoding works on ARGB, lossy on YUV, so import to the one that is used
+		this.encode(WebPPicture.create(this.lib, image, this.config.lossless != 0), output);
+	}
+
+	/**
+	 * Encodes the pixels of a buffer, starting at its position.
+	 *
+	 * @param pixels    The pixels, 4 bytes each (in native order for int buffers)
+	 * @param colorMode The byte order of the pixels (MODE_RGBA or MODE_BGRA)
+	 * @param hasAlpha  Whether to encode the alpha channel
+	 * @param width     The image width
+	 * @param height    The image height
+	 * @param stride    The distance in bytes between two rows
+	 * @param output    Receives the encoded bytes
+	 * @throws IOException When encoding or writing fails
+	 */
+	public void encode(final Buffer pixels, final int colorMode, final boolean hasAlpha,
+	                   final int width, final int height, final int stride, final Output output) throws IOException {
+		Objects.requireNonNull(output, "output == null");
+		this.encode(WebPPicture.create(this.lib, pixels, colorMode, hasAlpha, width, height, stride, this.config.lossless != 0), output);
+	}
+
+	private void encode(final WebPPicture.Struct picture, final Output output) throws IOException {
+		final Writer writer = new Writer(output);
+		picture.writer = writer;
+		try {
+			if (this.lib.WebPEncode(this.config, picture) == 0) {
+				if (writer.error instanceof IOException) {
+					throw (IOException) writer.error;
+				} else if (writer.error != null) {
+					throw (RuntimeException) writer.error;
+				}
+				final int error = picture.error_code;
+				throw new WebPEncoderException("Error encoding image: "
+						+ (error >= 0 && error < ERRORS.length ? ERRORS[error] : "status " + error));
+			}
+		} finally {
+			this.lib.WebPPictureFree(picture);
+		}
+	}
+
+	public interface Output {
+		void write(byte[] data, int offset, int length) throws IOException;
+	}
+
+	/**
+	 * Copies the bytes produced by libwebp to the output, keeping the first
+	 * exception to rethrow it once libwebp gives up.
+	 */
+	private static final class Writer implements WebPPicture.WriterFunction {
+		private final Output output;
+		private byte[] buffer = new byte[0];
+		private Exception error;
+
+		private Writer(final Output output) {
+			this.output = output;
+		}
+
+		@Override
+		public int invoke(final Pointer data, final Size_T dataSize, final Pointer picture) {
+			if (this.error != null) {
+				return 0;
+			}
+
+			final int length = dataSize.intValue();
+			if (length == 0) {
+				return 1;
+			}
+			if (this.buffer.length < length) {
+				this.buffer = new byte[length];
+			}
+			data.read(0, this.buffer, 0, length);
+			try {
+				this.output.write(this.buffer, 0, length);
+				return 1;
+			} catch (final IOException | RuntimeException ex) {
+				// Exceptions can't propagate through the native code
+				this.error = ex;
+				return 0;
+			}
+		}
+	}
+}
@@ -4,16 +4,21 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.MethodSource;
 import webpdecoderjn.TestResources;
+import webpdecoderjn.WebPColorMode;
 
 import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
 import javax.imageio.ImageReader;
+import javax.imageio.ImageTypeSpecifier;
 import javax.imageio.stream.ImageInputStream;
+import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
 class WebPImageReaderTest {
@@ -67,4 +72,159 @@ class WebPImageReaderTest {
 			imageReader.dispose();
 		}
 	}
+
+	@ParameterizedTest
+	@MethodSource("webpdecoderjn.TestResources#getTestImages")
+	void readOutOfOrder(final TestResources.TestImage testData) throws IOException {
+		// GIVEN
+		final WebPImageReader imageReader = newImageReader();
+		try (final InputStream inputStream = testData.resource().openStream();
+		     final ImageInputStream imageInputStream = ImageIO.createImageInputStream(inputStream)) {
+			imageReader.setInput(imageInputStream);
+			final int frameCount = imageReader.getNumImages(false);
+			final List<BufferedImage> expectedFrames = new ArrayList<>();
+			for (int imageIndex = 0; imageIndex < frameCount; ++imageIndex) {
+				expectedFrames.add(imageReader.read(imageIndex));
+			}
+
+			// WHEN
+			final List<BufferedImage> actualFrames = new ArrayList<>();
+			for (int imageIndex = frameCount - 1; imageIndex >= 0; --imageIndex) {
+				actualFrames.add(0, imageReader.read(imageIndex));
+			}
+
+			// THEN
+			assertEquals(testData.frames().length, frameCount);
+			for (int i = 0; i < frameCount; ++i) {
+				final BufferedImage expectedFrame = expectedFrames.get(i);
+				final BufferedImage actualFrame = actualFrames.get(i);
+				assertArrayEquals(
+						expectedFrame.getRGB(0, 0, expectedFrame.getWidth(), expectedFrame.getHeight(), null, 0, expectedFrame.getWidth()),
+						actualFrame.getRGB(0, 0, actualFrame.getWidth(), actualFrame.getHeight(), null, 0, actualFrame.getWidth()));
+			}
+		} finally {
+			imageReader.dispose();
+		}
+	}
+
+	@ParameterizedTest
+	@MethodSource("webpdecoderjn.TestResources#getTestImages")
+	void readSubsampled(final TestResources.TestImage testData) throws IOException {
+		// GIVEN
+		final WebPImageReader imageReader = newImageReader();
+		try (final InputStream inputStream = testData.resource().openStream();
+		     final ImageInputStream imageInputStream = ImageIO.createImageInputStream(inputStream)) {
+			imageReader.setInput(imageInputStream);
+			final ImageReadParam param = imageReader.getDefaultReadParam();
+			param.setSourceSubsampling(2, 3, 0, 0);
+
+			// WHEN
+			final BufferedImage image = imageReader.read(0, param);
+
+			// THEN
+			assertEquals((testData.width() + 1) / 2, image.getWidth());
+			assertEquals((testData.height() + 2) / 3, image.getHeight());
+		} finally {
+			imageReader.dispose();
+		}
+	}
+
+	@ParameterizedTest
+	@MethodSource("webpdecoderjn.TestResources#getTestImages")
+	void readSourceRegion(final TestResources.TestImage testData) throws IOException {
+		// GIVEN
+		final WebPImageReader imageReader = newImageReader();
+		try (final InputStream inputStream = testData.resource().openStream();
+		     final ImageInputStream imageInputStream = ImageIO.createImageInputStream(inputStream)) {
+			imageReader.setInput(imageInputStream);
+			final Rectangle region = new Rectangle(testData.width() / 3, testData.height() / 3,
+					(testData.width() + 1) / 2, (testData.height() + 1) / 2);
+			final ImageReadParam param = imageReader.getDefaultReadParam();
+			param.setSourceRegion(region);
+
+			// WHEN
+			final BufferedImage image = imageReader.read(0, param);
+
+			// THEN
+			assertEquals(region.width, image.getWidth());
+			assertEquals(region.height, image.getHeight());
+		} finally {
+			imageReader.dispose();
+		}
+	}
+
+	@ParameterizedTest
+	@MethodSource("webpdecoderjn.TestResources#getTestImages")
+	void getNumImages(final TestResources.TestImage testData) throws IOException {
+		// GIVEN
+		final WebPImageReader imageReader = newImageReader();
+		try (final InputStream inputStream = testData.resource().openStream();
+		     final ImageInputStream imageInputStream = ImageIO.createImageInputStream(inputStream)) {
+			imageReader.setInput(imageInputStream);
+
+			// WHEN
+			final int numImages = imageReader.getNumImages(true);
+
+			// THEN
+			assertEquals(testData.frames().length, numImages);
+		} finally {
+			imageReader.dispose();
+		}
+	}
+
+	@ParameterizedTest
+	@MethodSource("webpdecoderjn.TestResources#getLocalTestImages")
+	void readDestinationType(final TestResources.TestImage testData) throws IOException {
+		// GIVEN
+		final WebPImageReader defaultReader = newImageReader();
+		final WebPImageReader premultipliedReader = newImageReader();
+		try (final InputStream defaultStream = testData.resource().openStream();
+		     final ImageInputStream defaultImageStream = ImageIO.createImageInputStream(defaultStream);
+		     final InputStream premultipliedStream = testData.resource().openStream();
+		     final ImageInputStream premultipliedImageStream = ImageIO.createImageInputStream(premultipliedStream)) {
+			defaultReader.setInput(defaultImageStream);
+			premultipliedReader.setInput(premultipliedImageStream);
+			final ImageReadParam param = premultipliedReader.getDefaultReadParam();
+			param.setDestinationType(ImageTypeSpecifier.createFromBufferedImageType(BufferedImage.TYPE_INT_ARGB_PRE));
+
+			// WHEN
+			final BufferedImage straight = defaultReader.read(0);
+			final BufferedImage premultiplied = premultipliedReader.read(0, param);
+
+			// THEN
+			assertEquals(BufferedImage.TYPE_INT_ARGB, straight.getType());
+			assertEquals(BufferedImage.TYPE_INT_ARGB_PRE, premultiplied.getType());
+		} finally {
+			defaultReader.dispose();
+			premultipliedReader.dispose();
+		}
+	}
+
+	@ParameterizedTest
+	@MethodSource("webpdecoderjn.TestResources#getTestImages")
+	void readOptionsAfterQueries(final TestResources.TestImage testData) throws IOException {
+		// GIVEN
+		final WebPImageReader imageReader = newImageReader();
+		try (final InputStream inputStream = testData.resource().openStream();
+		     final ImageInputStream imageInputStream = ImageIO.createImageInputStream(inputStream)) {
+			imageReader.setInput(imageInputStream);
+			// These load the image before the first read
+			final int lastIndex = imageReader.getNumImages(true) - 1;
+			imageReader.getWidth(lastIndex);
+			imageReader.getImageMetadata(lastIndex);
+			final WebPImageReadParam param = (WebPImageReadParam) imageReader.getDefaultReadParam();
+			param.setColorMode(WebPColorMode.BGRA_PREMULTIPLIED);
+			param.setUseThreads(true);
+
+			// WHEN
+			final BufferedImage premultiplied = imageReader.read(lastIndex, param);
+			final BufferedImage straight = imageReader.read(lastIndex);
+
+			// THEN
+			assertEquals(BufferedImage.TYPE_INT_ARGB_PRE, premultiplied.getType());
+			assertEquals(BufferedImage.TYPE_INT_ARGB, straight.getType());
+		} finally {
+			imageReader.dispose();
+		}
+	}
 }
@@ -0,0 +1,123 @@
+package net.vinrobot.imageio.plugins.webp;
+
+import org.junit.jupiter.api.Test;
+import webpdecoderjn.TestResources;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WebPImageWriterTest {
+	@Test
+	void isRegisteredForFormat() {
+		// GIVEN
+		final String formatName = "webp";
+
+		// WHEN
+		final ImageWriter imageWriter = ImageIO.getImageWritersByFormatName(formatName).next();
+
+		// THEN
+		assertEquals(WebPImageWriter.class, imageWriter.getClass());
+	}
+
+	private static BufferedImage newImage() {
+		final BufferedImage image = new BufferedImage(40, 30, BufferedImage.TYPE_INT_RGB);
+		for (int y = 0; y < image.getHeight(); ++y) {
+			for (int x = 0; x < image.getWidth(); ++x) {
+				image.setRGB(x, y, (x * 6) << 16 | (y * 8) << 8 | (x + y));
+			}
+		}
+		return image;
+	}
+
+	@Test
+	void write() throws IOException {
+		// GIVEN
+		final BufferedImage image = newImage();
+
+		// WHEN
+		final ByteArrayOutputStream output = new ByteArrayOutputStream();
+		assertTrue(ImageIO.write(image, "webp", output));
+
+		// THEN
+		final BufferedImage actual = ImageIO.read(new ByteArrayInputStream(output.toByteArray()));
+		assertEquals(image.getWidth(), actual.getWidth());
+		assertEquals(image.getHeight(), actual.getHeight());
+	}
+
+	@Test
+	void writeLosslessRegion() throws IOException {
+		// GIVEN
+		final BufferedImage image = newImage();
+		final ImageWriter imageWriter = ImageIO.getImageWritersByFormatName("webp").next();
+		final ImageWriteParam param = imageWriter.getDefaultWriteParam();
+		param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+		param.setCompressionType(WebPImageWriteParam.LOSSLESS);
+		param.setSourceRegion(new Rectangle(3, 4, 20, 10));
+
+		// WHEN
+		final ByteArrayOutputStream output = new ByteArrayOutputStream();
+		try (final ImageOutputStream imageOutputStream = ImageIO.createImageOutputStream(output)) {
+			imageWriter.setOutput(imageOutputStream);
+			imageWriter.write(null, new IIOImage(image, null, null), param);
+		}
+
+		// THEN
+		final BufferedImage actual = ImageIO.read(new ByteArrayInputStream(output.toByteArray()));
+		assertEquals(20, actual.getWidth());
+		assertEquals(10, actual.getHeight());
+		for (int y = 0; y < actual.getHeight(); ++y) {
+			for (int x = 0; x < actual.getWidth(); ++x) {
+				assertEquals(image.getRGB(x + 3, y + 4), actual.getRGB(x, y));
+			}
+		}
+	}
+
+	@Test
+	void writeSequence() throws IOException {
+		// GIVEN
+		final BufferedImage first = newImage();
+		final BufferedImage second = newImage();
+		second.setRGB(10, 10, 0xff00ff);
+		final ImageWriter imageWriter = ImageIO.getImageWritersByFormatName("webp").next();
+		final WebPImageWriteParam param = (WebPImageWriteParam) imageWriter.getDefaultWriteParam();
+		param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+		param.setCompressionType(WebPImageWriteParam.LOSSLESS);
+		param.setFrameDelay(40);
+		param.setLoopCount(2);
+
+		// WHEN
+		final ByteArrayOutputStream output = new ByteArrayOutputStream();
+		try (final ImageOutputStream imageOutputStream = ImageIO.createImageOutputStream(output)) {
+			imageWriter.setOutput(imageOutputStream);
+			imageWriter.prepareWriteSequence(null);
+			imageWriter.writeToSequence(new IIOImage(first, null, null), param);
+			imageWriter.writeToSequence(new IIOImage(second, null, new WebPImageMetadata(70, 0)), param);
+			imageWriter.endWriteSequence();
+		}
+
+		// THEN
+		final ImageReader imageReader = ImageIO.getImageReadersByFormatName("webp").next();
+		try (final ImageInputStream imageInputStream = ImageIO.createImageInputStream(new ByteArrayInputStream(output.toByteArray()))) {
+			imageReader.setInput(imageInputStream);
+			assertEquals(2, imageReader.getNumImages(true));
+			assertEquals("40", ((WebPImageMetadata) imageReader.getImageMetadata(0)).getNativeTree().getAttributes().getNamedItem("Delay").getNodeValue());
+			assertEquals("70", ((WebPImageMetadata) imageReader.getImageMetadata(1)).getNativeTree().getAttributes().getNamedItem("Delay").getNodeValue());
+			assertArrayEquals(TestResources.getPixels(first), TestResources.getPixels(imageReader.read(0)));
+			assertArrayEquals(TestResources.getPixels(second), TestResources.getPixels(imageReader.read(1)));
+		}
+	}
+}
@@ -0,0 +1,45 @@
+package webpdecoderjn;
+
+import com.sun.jna.Library;
+import com.sun.jna.NativeLibrary;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import webpdecoderjn.internal.LibWebP;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LibWebPTest {
+    @BeforeAll
+    static void setUp() throws IOException {
+        WebPLoader.init();
+    }
+
+    /**
+     * The bundled libraries are built from build-native, and must be rebuilt
+     * for every function added to {@link LibWebP}, or calling it fails with
+     * an UnsatisfiedLinkError.
+     */
+    @Test
+    void exportsAllFunctions() {
+        // GIVEN
+        final NativeLibrary library = ((Library.Handler) Proxy.getInvocationHandler(WebPLoader.lib())).getNativeLibrary();
+
+        // WHEN
+        final List<String> missing = new ArrayList<>();
+        for (final Method method : LibWebP.class.getDeclaredMethods()) {
+            try {
+                library.getFunction(method.getName());
+            } catch (final UnsatisfiedLinkError ex) {
+                missing.add(method.getName());
+            }
+        }
+
+        // THEN
+        assertEquals(List.of(), missing, "Functions missing from " + library.getFile() + " (rebuild it from build-native)");
+    }
+}
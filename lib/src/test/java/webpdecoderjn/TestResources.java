@@ -1,5 +1,8 @@
 package webpdecoderjn;
 
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URL;
 import java.util.stream.Stream;
 
@@ -10,7 +13,10 @@ public final class TestResources {
 
     public static Stream<TestImage> getLocalTestImages() {
         return Stream.of(
-                new TestImage(getResource("/images/test.webp"), 16, 16, 1, new int[]{480, 1280})
+                new TestImage(getResource("/images/test.webp"), 16, 16, 1, new int[]{480, 1280}),
+                new TestImage(getResource("/images/lossy.webp"), 128, 96),
+                new TestImage(getResource("/images/lossless.webp"), 96, 64),
+                new TestImage(getResource("/images/alpha.webp"), 80, 80)
         );
     }
 
@@ -148,6 +154,30 @@ public final class TestResources {
         );
     }
 
+    /**
+     * @return A small still image (the 96x64 lossless sample), read from the
+     * committed samples so the decoder tests don't depend on the encoder
+     */
+    public static byte[] newImageData() throws IOException {
+        return readResource("/images/lossless.webp");
+    }
+
+    /**
+     * @return The pixels of the image in the default ARGB color model, row by row
+     */
+    public static int[] getPixels(final BufferedImage image) {
+        return image.getRGB(0, 0, image.getWidth(), image.getHeight(), null, 0, image.getWidth());
+    }
+
+    /**
+     * @return The bytes of a test resource
+     */
+    public static byte[] readResource(String name) throws IOException {
+        try (final InputStream inputStream = getResource(name).openStream()) {
+            return inputStream.readAllBytes();
+        }
+    }
+
     private static URL getResource(String name) {
         return TestResources.class.getResource(name);
     }
@@ -0,0 +1,94 @@
+package webpdecoderjn;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WebPAnimationWriterTest {
+    @BeforeAll
+    static void setUp() throws IOException {
+        WebPLoader.init();
+    }
+
+    private static BufferedImage newFrame(int color) {
+        final BufferedImage image = new BufferedImage(16, 16, BufferedImage.TYPE_INT_ARGB);
+        for (int y = 0; y < image.getHeight(); ++y) {
+            for (int x = 0; x < image.getWidth(); ++x) {
+                image.setRGB(x, y, x < 8 ? color : 0xff000000 | (x * 16) << 8 | y * 16);
+            }
+        }
+        return image;
+    }
+
+    @Test
+    void writeFrames() throws IOException {
+        // GIVEN
+        final BufferedImage[] frames = {newFrame(0xffff0000), newFrame(0x8000ff00), newFrame(0xff0000ff)};
+        final int[] durations = {100, 250, 50};
+        final WebPEncoderOptions options = new WebPEncoderOptions();
+        options.setLossless(true);
+
+        // WHEN
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (final WebPAnimationWriter writer = new WebPAnimationWriter(output, 16, 16, options, 3)) {
+            for (int i = 0; i < frames.length; ++i) {
+                writer.addFrame(frames[i], durations[i]);
+            }
+            assertEquals(frames.length, writer.getFrameCount());
+            writer.finish();
+        }
+
+        // THEN
+        final WebPImage image = WebPDecoder.decode(output.toByteArray());
+        assertEquals(16, image.canvasWidth);
+        assertEquals(16, image.canvasHeight);
+        assertEquals(3, image.loopCount);
+        assertEquals(frames.length, image.frameCount);
+        int timestamp = 0;
+        for (int i = 0; i < frames.length; ++i) {
+            timestamp += durations[i];
+            final WebPImageFrame frame = image.frames.get(i);
+            assertEquals(timestamp, frame.timestamp);
+            assertArrayEquals(TestResources.getPixels(frames[i]), TestResources.getPixels(frame.img));
+        }
+    }
+
+    @Test
+    void roundTripTwoFrames() throws IOException {
+        // GIVEN
+        final BufferedImage first = newFrame(0xffffff00);
+        final BufferedImage second = newFrame(0x40ff00ff);
+        final WebPEncoderOptions options = new WebPEncoderOptions();
+        options.setLossless(true);
+
+        // WHEN
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (final WebPAnimationWriter writer = new WebPAnimationWriter(output, 16, 16, options, 0)) {
+            writer.addFrame(first, 80);
+            writer.addFrame(second, 120);
+            writer.finish();
+        }
+        final WebPImage image = WebPDecoder.decode(output.toByteArray());
+
+        // THEN
+        assertEquals(0, image.loopCount);
+        assertEquals(2, image.frameCount);
+        assertEquals(2, image.frames.size());
+        assertEquals(80, image.frames.get(0).delay);
+        assertEquals(120, image.frames.get(1).delay);
+        assertArrayEquals(TestResources.getPixels(first), TestResources.getPixels(image.frames.get(0).img));
+        assertArrayEquals(TestResources.getPixels(second), TestResources.getPixels(image.frames.get(1).img));
+    }
+
+    @Test
+    void addFrameWithWrongSize() throws IOException {
+        try (final WebPAnimationWriter writer = new WebPAnimationWriter(new ByteArrayOutputStream(), 16, 16)) {
+            assertThrows(IllegalArgumentException.class,
+                    () -> writer.addFrame(new BufferedImage(8, 16, BufferedImage.TYPE_INT_ARGB), 100));
+        }
+    }
+}
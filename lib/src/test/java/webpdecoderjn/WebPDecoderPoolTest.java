@@ -0,0 +1,84 @@
+package webpdecoderjn;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WebPDecoderPoolTest {
+    @BeforeAll
+    static void setUp() throws IOException {
+        WebPLoader.init();
+    }
+
+    @ParameterizedTest
+    @MethodSource("webpdecoderjn.TestResources#getTestImages")
+    void decode(TestResources.TestImage testData) throws IOException {
+        // GIVEN
+        final byte[] imageData;
+        try (final InputStream inputStream = testData.resource().openStream()) {
+            imageData = inputStream.readAllBytes();
+        }
+        final WebPImage expected = WebPDecoder.decode(imageData);
+        final WebPDecoderPool pool = new WebPDecoderPool();
+
+        for (int i = 0; i < 2; ++i) {
+            // WHEN
+            final WebPImage actual = pool.decode(imageData);
+
+            // THEN
+            assertEquals(expected.canvasWidth, actual.canvasWidth);
+            assertEquals(expected.canvasHeight, actual.canvasHeight);
+            assertEquals(expected.frameCount, actual.frameCount);
+            for (int j = 0; j < expected.frameCount; ++j) {
+                assertEquals(expected.frames.get(j).timestamp, actual.frames.get(j).timestamp);
+                assertArrayEquals(TestResources.getPixels(expected.frames.get(j).img), TestResources.getPixels(actual.frames.get(j).img));
+            }
+            pool.recycle(actual);
+        }
+    }
+
+    @Test
+    void recycleReusesPixels() throws IOException {
+        // GIVEN
+        final byte[] imageData = TestResources.newImageData();
+        final WebPDecoderPool pool = new WebPDecoderPool();
+        final WebPImage first = pool.decode(imageData);
+        final int[] pixels = getData(first.frames.get(0).img);
+
+        // WHEN
+        pool.recycle(first);
+        final WebPImage second = pool.decode(imageData);
+
+        // THEN
+        assertSame(pixels, getData(second.frames.get(0).img));
+    }
+
+    @Test
+    void limits() throws IOException {
+        // GIVEN
+        final byte[] imageData = TestResources.newImageData();
+        final WebPDecoderPool full = new WebPDecoderPool(0, WebPDecoderPool.DEFAULT_IDLE_TIMEOUT);
+        final WebPDecoderPool idle = new WebPDecoderPool(WebPDecoderPool.DEFAULT_MAX_POOLED_BYTES, Duration.ofNanos(1));
+
+        // WHEN
+        full.recycle(full.decode(imageData));
+        idle.recycle(idle.decode(imageData));
+        idle.trim();
+
+        // THEN
+        assertEquals(0L, full.getPooledBytes());
+        assertEquals(0L, idle.getPooledBytes());
+    }
+
+    private static int[] getData(final BufferedImage image) {
+        return ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+    }
+}
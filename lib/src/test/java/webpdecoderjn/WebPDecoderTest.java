@@ -1,9 +1,24 @@
 package webpdecoderjn;
 
+import java.awt.image.BufferedImage;
 import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
 import org.junit.jupiter.params.provider.MethodSource;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -41,4 +56,272 @@ public class WebPDecoderTest {
             assertEquals(expectedFrame.delay(), actualFrame.delay);
         }
     }
+
+    @Test
+    void metadata() throws IOException {
+        // GIVEN
+        final byte[] imageData;
+        try (final InputStream inputStream = TestResources.class.getResourceAsStream("/images/test.webp")) {
+            imageData = inputStream.readAllBytes();
+        }
+        final byte[] exif = {'E', 'x', 'i', 'f', 0, 0};
+        // Append an EXIF chunk to the extended format container and set its flag
+        final ByteBuffer withExif = ByteBuffer.allocate(imageData.length + 8 + exif.length).order(ByteOrder.LITTLE_ENDIAN);
+        withExif.put(imageData);
+        withExif.put("EXIF".getBytes(StandardCharsets.US_ASCII)).putInt(exif.length).put(exif);
+        withExif.putInt(4, withExif.capacity() - 8);
+        withExif.put(20, (byte) (withExif.get(20) | 0x08));
+
+        // WHEN
+        WebPMetadata metadata = WebPDecoder.metadata(withExif.array());
+
+        // THEN
+        assertEquals(ByteBuffer.wrap(exif), metadata.getEXIF());
+        assertTrue(metadata.getEXIF().isReadOnly());
+        assertNull(metadata.getICCProfile());
+        assertNull(metadata.getXMP());
+    }
+
+    @Test
+    void decodeAll() throws IOException {
+        // GIVEN
+        final List<TestResources.TestImage> testImages = TestResources.getLocalTestImages().collect(Collectors.toList());
+        final List<byte[]> inputs = new ArrayList<>();
+        for (final TestResources.TestImage testImage : testImages) {
+            try (final InputStream inputStream = testImage.resource().openStream()) {
+                inputs.add(inputStream.readAllBytes());
+            }
+        }
+        inputs.add(new byte[]{1, 2, 3});
+        final WebPBatchOptions options = new WebPBatchOptions();
+        options.setParallelism(4);
+
+        // WHEN
+        final List<WebPBatchResult> results = WebPDecoder.decodeAll(inputs, options);
+
+        // THEN
+        assertEquals(inputs.size(), results.size());
+        for (int i = 0; i < testImages.size(); ++i) {
+            final WebPBatchResult result = results.get(i);
+            assertEquals(i, result.index);
+            assertTrue(result.isSuccess());
+            assertEquals(testImages.get(i).width(), result.image.canvasWidth);
+            assertEquals(testImages.get(i).frames().length, result.image.frameCount);
+        }
+        final WebPBatchResult failed = results.get(testImages.size());
+        assertFalse(failed.isSuccess());
+        assertNull(failed.image);
+        assertInstanceOf(WebPDecoderException.class, failed.error);
+    }
+
+    @Test
+    void decodeAllFromExecutorThread() throws Exception {
+        // GIVEN
+        final List<byte[]> inputs = new ArrayList<>();
+        for (int i = 0; i < 4; ++i) {
+            inputs.add(TestResources.newImageData());
+        }
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        final WebPBatchOptions options = new WebPBatchOptions();
+        options.setParallelism(4);
+        options.setExecutor(executor);
+
+        // WHEN
+        final List<WebPBatchResult> results;
+        try {
+            // The tasks are queued behind the caller, which is the only thread of the executor
+            results = executor.submit(() -> WebPDecoder.decodeAll(inputs, options)).get(30, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // THEN
+        assertEquals(inputs.size(), results.size());
+        for (final WebPBatchResult result : results) {
+            assertTrue(result.isSuccess());
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("webpdecoderjn.TestResources#getTestImages")
+    void probe(TestResources.TestImage testData) throws IOException {
+        // GIVEN
+        final byte[] imageData;
+        try (final InputStream inputStream = testData.resource().openStream()) {
+            imageData = inputStream.readAllBytes();
+        }
+
+        // WHEN
+        WebPFeatures features = WebPDecoder.probe(imageData);
+
+        // THEN
+        assertEquals(testData.width(), features.width);
+        assertEquals(testData.height(), features.height);
+        assertEquals(testData.frames().length, features.frameCount);
+        assertEquals(testData.frames().length > 1, features.hasAnimation);
+    }
+
+    @ParameterizedTest
+    @MethodSource("webpdecoderjn.TestResources#getTestImages")
+    void info(TestResources.TestImage testData) throws IOException {
+        // GIVEN
+        final byte[] imageData;
+        try (final InputStream inputStream = testData.resource().openStream()) {
+            imageData = inputStream.readAllBytes();
+        }
+
+        // WHEN
+        WebPImageInfo info = WebPDecoder.info(imageData);
+
+        // THEN
+        assertEquals(testData.width(), info.canvasWidth);
+        assertEquals(testData.height(), info.canvasHeight);
+        assertEquals(testData.loopCount(), info.loopCount);
+
+        final TestResources.TestFrame[] expectedFrames = testData.frames();
+        assertEquals(expectedFrames.length, info.frameCount);
+        long totalDuration = 0;
+        for (int i = 0; i < expectedFrames.length; ++i) {
+            assertEquals(expectedFrames[i].delay(), info.frames.get(i).duration);
+            totalDuration += expectedFrames[i].delay();
+        }
+        assertEquals(totalDuration, info.totalDuration);
+        assertTrue(info.frames.get(0).keyFrame);
+    }
+
+    @ParameterizedTest
+    @MethodSource("webpdecoderjn.TestResources#getTestImages")
+    void decodeScaled(TestResources.TestImage testData) throws IOException {
+        // GIVEN
+        final byte[] imageData;
+        try (final InputStream inputStream = testData.resource().openStream()) {
+            imageData = inputStream.readAllBytes();
+        }
+        final WebPDecoderOptions options = new WebPDecoderOptions();
+        options.setScaledSize(8, 5);
+
+        // WHEN
+        WebPImage image = WebPDecoder.decode(imageData, options);
+
+        // THEN
+        assertEquals(testData.frames().length, image.frames.size());
+        for (final WebPImageFrame frame : image.frames) {
+            assertEquals(8, frame.img.getWidth());
+            assertEquals(5, frame.img.getHeight());
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("webpdecoderjn.TestResources#getTestImages")
+    void decodeDirectBuffer(TestResources.TestImage testData) throws IOException {
+        // GIVEN
+        final byte[] imageData;
+        try (final InputStream inputStream = testData.resource().openStream()) {
+            imageData = inputStream.readAllBytes();
+        }
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(imageData.length + 3);
+        buffer.position(3);
+        buffer.put(imageData);
+        buffer.position(3);
+
+        // WHEN
+        WebPImage image = WebPDecoder.decode(buffer);
+
+        // THEN
+        assertEquals(3, buffer.position());
+        final WebPImage expected = WebPDecoder.decode(imageData);
+        assertEquals(expected.frames.size(), image.frames.size());
+        for (int i = 0; i < expected.frames.size(); ++i) {
+            final BufferedImage expectedImg = expected.frames.get(i).img;
+            final BufferedImage actualImg = image.frames.get(i).img;
+            assertArrayEquals(
+                    expectedImg.getRGB(0, 0, expectedImg.getWidth(), expectedImg.getHeight(), null, 0, expectedImg.getWidth()),
+                    actualImg.getRGB(0, 0, actualImg.getWidth(), actualImg.getHeight(), null, 0, actualImg.getWidth()));
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("webpdecoderjn.TestResources#getTestImages")
+    void decodePath(TestResources.TestImage testData) throws IOException, URISyntaxException {
+        // GIVEN
+        final Path imagePath = Path.of(testData.resource().toURI());
+
+        // WHEN
+        WebPImage image = WebPDecoder.decode(imagePath);
+
+        // THEN
+        assertEquals(testData.width(), image.canvasWidth);
+        assertEquals(testData.height(), image.canvasHeight);
+        assertEquals(testData.frames().length, image.frames.size());
+    }
+
+    @ParameterizedTest
+    @EnumSource(WebPColorMode.class)
+    void decodeColorMode(WebPColorMode colorMode) throws IOException {
+        // GIVEN
+        final byte[] imageData = TestResources.readResource("/images/lossy.webp");
+        final BufferedImage expected = WebPDecoder.decode(imageData).frames.get(0).img;
+        final WebPDecoderOptions options = new WebPDecoderOptions();
+        options.setColorMode(colorMode);
+        options.setUseThreads(true);
+
+        // WHEN
+        WebPImage image = WebPDecoder.decode(imageData, options);
+
+        // THEN
+        final BufferedImage actual = image.frames.get(0).img;
+        // The sample is opaque, so every color mode gives the same colors
+        assertArrayEquals(
+                expected.getRGB(0, 0, expected.getWidth(), expected.getHeight(), null, 0, expected.getWidth()),
+                actual.getRGB(0, 0, actual.getWidth(), actual.getHeight(), null, 0, actual.getWidth()));
+    }
+
+    @ParameterizedTest
+    @MethodSource("webpdecoderjn.TestResources#getLocalTestImages")
+    void decodeDefaultImageType(TestResources.TestImage testData) throws IOException {
+        // GIVEN
+        final byte[] imageData;
+        try (final InputStream inputStream = testData.resource().openStream()) {
+            imageData = inputStream.readAllBytes();
+        }
+        // RGBA pixels in a custom color model, as decoded before BGRA became the default
+        final WebPDecoderOptions rgbaOptions = new WebPDecoderOptions();
+        rgbaOptions.setColorMode(WebPColorMode.RGBA);
+        final WebPImage rgbaImage = WebPDecoder.decode(imageData, rgbaOptions);
+
+        // WHEN
+        WebPImage image = WebPDecoder.decode(imageData);
+
+        // THEN
+        assertEquals(rgbaImage.frames.size(), image.frames.size());
+        for (int i = 0; i < image.frames.size(); ++i) {
+            final BufferedImage expected = rgbaImage.frames.get(i).img;
+            final BufferedImage actual = image.frames.get(i).img;
+            assertEquals(BufferedImage.TYPE_INT_ARGB, actual.getType());
+            assertArrayEquals(
+                    expected.getRGB(0, 0, expected.getWidth(), expected.getHeight(), null, 0, expected.getWidth()),
+                    actual.getRGB(0, 0, actual.getWidth(), actual.getHeight(), null, 0, actual.getWidth()));
+        }
+    }
+
+    @Test
+    void probeFormat() throws IOException {
+        // GIVEN
+        final byte[] lossy = TestResources.readResource("/images/lossy.webp");
+        final byte[] lossless = TestResources.readResource("/images/lossless.webp");
+        // VP8X with the ALPH chunk before the VP8 chunk, past the first bytes read by the probe
+        final byte[] alpha = TestResources.readResource("/images/alpha.webp");
+
+        // WHEN
+        WebPFeatures lossyFeatures = WebPDecoder.probe(lossy);
+        WebPFeatures losslessFeatures = WebPDecoder.probe(lossless);
+        WebPFeatures alphaFeatures = WebPDecoder.probe(alpha);
+
+        // THEN
+        assertEquals(WebPFeatures.Format.LOSSY, lossyFeatures.format);
+        assertFalse(lossyFeatures.hasAlpha);
+        assertEquals(WebPFeatures.Format.LOSSLESS, losslessFeatures.format);
+        assertEquals(WebPFeatures.Format.LOSSY, alphaFeatures.format);
+        assertTrue(alphaFeatures.hasAlpha);
+    }
 }
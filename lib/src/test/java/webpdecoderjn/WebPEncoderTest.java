@@ -0,0 +1,88 @@
+package webpdecoderjn;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WebPEncoderTest {
+    @BeforeAll
+    static void setUp() throws IOException {
+        WebPLoader.init();
+    }
+
+    private static BufferedImage newImage(int type) {
+        final BufferedImage image = new BufferedImage(40, 30, type);
+        for (int y = 0; y < image.getHeight(); ++y) {
+            for (int x = 0; x < image.getWidth(); ++x) {
+                image.setRGB(x, y, (255 - x * 6) << 24 | (x * 6) << 16 | (y * 8) << 8 | (x + y));
+            }
+        }
+        return image;
+    }
+
+    @Test
+    void encodeLossless() throws IOException {
+        // GIVEN
+        final BufferedImage image = newImage(BufferedImage.TYPE_INT_ARGB);
+        final WebPEncoderOptions options = new WebPEncoderOptions();
+        options.setLossless(true);
+
+        // WHEN
+        final byte[] data = WebPEncoder.encode(image, options);
+
+        // THEN
+        final WebPFeatures info = WebPDecoder.probe(data);
+        assertEquals(image.getWidth(), info.width);
+        assertEquals(image.getHeight(), info.height);
+        assertEquals(WebPFeatures.Format.LOSSLESS, info.format);
+        final BufferedImage decoded = WebPDecoder.decode(data).frames.get(0).img;
+        assertArrayEquals(
+                image.getRGB(0, 0, image.getWidth(), image.getHeight(), null, 0, image.getWidth()),
+                decoded.getRGB(0, 0, image.getWidth(), image.getHeight(), null, 0, image.getWidth()));
+    }
+
+    @Test
+    void encodeLossy() throws IOException {
+        // GIVEN
+        final BufferedImage image = newImage(BufferedImage.TYPE_3BYTE_BGR);
+
+        // WHEN
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        WebPEncoder.encode(image, new WebPEncoderOptions(), output);
+
+        // THEN
+        final WebPFeatures info = WebPDecoder.probe(output.toByteArray());
+        assertEquals(image.getWidth(), info.width);
+        assertEquals(image.getHeight(), info.height);
+        assertEquals(WebPFeatures.Format.LOSSY, info.format);
+        assertFalse(info.hasAlpha);
+    }
+
+    @Test
+    void encodeBuffer() throws IOException {
+        // GIVEN
+        final int width = 8;
+        final int height = 4;
+        final ByteBuffer pixels = ByteBuffer.allocateDirect(width * height * 4);
+        for (int i = 0; i < width * height; ++i) {
+            pixels.put((byte) 0x11).put((byte) 0x22).put((byte) 0x33).put((byte) 0x80);
+        }
+        pixels.flip();
+        final WebPEncoderOptions options = new WebPEncoderOptions();
+        options.setLossless(true);
+
+        // WHEN
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        WebPEncoder.encode(pixels, width, height, width * 4, WebPColorMode.RGBA, options, output);
+
+        // THEN
+        final BufferedImage decoded = WebPDecoder.decode(output.toByteArray()).frames.get(0).img;
+        assertEquals(width, decoded.getWidth());
+        assertEquals(0x80112233, decoded.getRGB(width - 1, height - 1));
+    }
+}
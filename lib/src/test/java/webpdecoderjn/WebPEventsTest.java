@@ -0,0 +1,62 @@
+package webpdecoderjn;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WebPEventsTest {
+    @BeforeAll
+    static void setUp() throws IOException {
+        WebPLoader.init();
+    }
+
+    @Test
+    void recordDecode() throws IOException {
+        // GIVEN
+        final byte[] imageData = TestResources.newImageData();
+        final Path file = Files.createTempFile("webp", ".jfr");
+
+        // WHEN
+        final List<RecordedEvent> events;
+        try (final Recording recording = new Recording()) {
+            recording.enable("webpdecoderjn.Decode");
+            recording.enable("webpdecoderjn.Frame");
+            recording.enable("webpdecoderjn.NativeAllocation");
+            recording.start();
+            WebPDecoder.decode(imageData);
+            recording.stop();
+            recording.dump(file);
+            events = RecordingFile.readAllEvents(file);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+
+        // THEN
+        final RecordedEvent decode = find(events, "webpdecoderjn.Decode");
+        assertEquals(imageData.length, decode.getLong("inputBytes"));
+        assertEquals(96, decode.getInt("canvasWidth"));
+        assertEquals(64, decode.getInt("canvasHeight"));
+        assertEquals(1, decode.getInt("frameCount"));
+        final RecordedEvent frame = find(events, "webpdecoderjn.Frame");
+        assertEquals(0, frame.getInt("frameIndex"));
+        assertEquals(96, frame.getInt("width"));
+        assertEquals(64, frame.getInt("height"));
+        assertTrue(events.stream().anyMatch(event -> event.getEventType().getName().equals("webpdecoderjn.NativeAllocation")
+                && event.getBoolean("released")));
+    }
+
+    private static RecordedEvent find(final List<RecordedEvent> events, final String name) {
+        return events.stream()
+                .filter(event -> event.getEventType().getName().equals(name))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("No " + name + " event"));
+    }
+}
@@ -0,0 +1,149 @@
+package webpdecoderjn;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WebPFrameDecoderTest {
+    @BeforeAll
+    static void setUp() throws IOException {
+        WebPLoader.init();
+    }
+
+    @ParameterizedTest
+    @MethodSource("webpdecoderjn.TestResources#getTestImages")
+    void decodeNextIntoImage(TestResources.TestImage testData) throws IOException {
+        // GIVEN
+        final byte[] imageData;
+        try (final InputStream inputStream = testData.resource().openStream()) {
+            imageData = inputStream.readAllBytes();
+        }
+        final WebPImage expected = WebPDecoder.decode(imageData);
+        final BufferedImage destination = new BufferedImage(testData.width(), testData.height(), BufferedImage.TYPE_INT_ARGB);
+
+        try (final WebPFrameDecoder decoder = new WebPFrameDecoder(imageData)) {
+            for (final WebPImageFrame expectedFrame : expected.frames) {
+                // WHEN
+                assertTrue(decoder.hasMoreFrames());
+                final int timestamp = decoder.decodeNext(destination);
+
+                // THEN
+                assertEquals(expectedFrame.timestamp, timestamp);
+                assertArrayEquals(TestResources.getPixels(expectedFrame.img), TestResources.getPixels(destination));
+            }
+            assertFalse(decoder.hasMoreFrames());
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("webpdecoderjn.TestResources#getTestImages")
+    void resetRestartsFromFirstFrame(TestResources.TestImage testData) throws IOException {
+        // GIVEN
+        final byte[] imageData;
+        try (final InputStream inputStream = testData.resource().openStream()) {
+            imageData = inputStream.readAllBytes();
+        }
+        final WebPImage expected = WebPDecoder.decode(imageData);
+        final BufferedImage destination = new BufferedImage(testData.width(), testData.height(), BufferedImage.TYPE_INT_ARGB);
+
+        try (final WebPFrameDecoder decoder = new WebPFrameDecoder(imageData)) {
+            while (decoder.hasMoreFrames()) {
+                decoder.decodeNext(destination);
+            }
+
+            // WHEN
+            decoder.reset();
+
+            // THEN
+            assertNull(decoder.getDirtyRect());
+            for (final WebPImageFrame expectedFrame : expected.frames) {
+                assertTrue(decoder.hasMoreFrames());
+                assertEquals(expectedFrame.timestamp, decoder.decodeNext(destination));
+                assertArrayEquals(TestResources.getPixels(expectedFrame.img), TestResources.getPixels(destination));
+            }
+            assertFalse(decoder.hasMoreFrames());
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("webpdecoderjn.TestResources#getTestImages")
+    void updateNextIntoImage(TestResources.TestImage testData) throws IOException {
+        // GIVEN
+        final byte[] imageData;
+        try (final InputStream inputStream = testData.resource().openStream()) {
+            imageData = inputStream.readAllBytes();
+        }
+        final WebPImage expected = WebPDecoder.decode(imageData);
+        final BufferedImage destination = new BufferedImage(testData.width(), testData.height(), BufferedImage.TYPE_INT_ARGB);
+
+        try (final WebPFrameDecoder decoder = new WebPFrameDecoder(imageData)) {
+            for (final WebPImageFrame expectedFrame : expected.frames) {
+                // WHEN
+                decoder.updateNext(destination);
+
+                // THEN
+                assertEquals(expectedFrame.dirtyRect, decoder.getDirtyRect());
+                assertArrayEquals(TestResources.getPixels(expectedFrame.img), TestResources.getPixels(destination));
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("webpdecoderjn.TestResources#getTestImages")
+    void visitNext(TestResources.TestImage testData) throws IOException {
+        // GIVEN
+        final byte[] imageData;
+        try (final InputStream inputStream = testData.resource().openStream()) {
+            imageData = inputStream.readAllBytes();
+        }
+        final WebPImage expected = WebPDecoder.decode(imageData);
+
+        try (final WebPFrameDecoder decoder = new WebPFrameDecoder(imageData)) {
+            for (final WebPImageFrame expectedFrame : expected.frames) {
+                // WHEN
+                final int[] pixels = new int[testData.width() * testData.height()];
+                decoder.visitNext(frame -> {
+                    assertEquals(expectedFrame.timestamp, frame.timestamp);
+                    assertTrue(frame.pixels.isReadOnly());
+                    for (int y = 0; y < frame.height; ++y) {
+                        for (int x = 0; x < frame.width; ++x) {
+                            pixels[y * frame.width + x] = frame.pixels.getInt(y * frame.stride + x * Integer.BYTES);
+                        }
+                    }
+                });
+
+                // THEN
+                assertArrayEquals(TestResources.getPixels(expectedFrame.img), pixels);
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("webpdecoderjn.TestResources#getTestImages")
+    void streamFrames(TestResources.TestImage testData) throws IOException {
+        // GIVEN
+        final byte[] imageData;
+        try (final InputStream inputStream = testData.resource().openStream()) {
+            imageData = inputStream.readAllBytes();
+        }
+
+        // WHEN
+        final int[] delays;
+        try (final Stream<WebPImageFrame> frames = WebPDecoder.frames(imageData).stream()) {
+            delays = frames.mapToInt(frame -> frame.delay).toArray();
+        }
+
+        // THEN
+        final TestResources.TestFrame[] expectedFrames = testData.frames();
+        assertEquals(expectedFrames.length, delays.length);
+        for (int i = 0; i < expectedFrames.length; ++i) {
+            assertEquals(expectedFrames[i].delay(), delays[i]);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package webpdecoderjn;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WebPIncrementalDecoderTest {
+    @BeforeAll
+    static void setUp() throws IOException {
+        WebPLoader.init();
+    }
+
+    @Test
+    void appendInChunks() throws IOException {
+        // GIVEN
+        final byte[] imageData = TestResources.readResource("/images/lossless.webp");
+        final BufferedImage expected = WebPDecoder.decode(imageData).frames.get(0).img;
+
+        try (final WebPIncrementalDecoder decoder = new WebPIncrementalDecoder()) {
+            // WHEN
+            boolean completeBeforeEnd = false;
+            int offset = 0;
+            for (; offset + 100 < imageData.length; offset += 100) {
+                completeBeforeEnd |= decoder.append(imageData, offset, 100);
+            }
+            final boolean complete = decoder.append(imageData, offset, imageData.length - offset);
+
+            // THEN
+            assertFalse(completeBeforeEnd);
+            assertTrue(complete);
+            assertTrue(decoder.isComplete());
+            assertEquals(64, decoder.getDecodedRows());
+            final BufferedImage image = decoder.getImage();
+            assertEquals(96, image.getWidth());
+            assertEquals(64, image.getHeight());
+            assertArrayEquals(expected.getRGB(0, 0, 96, 64, null, 0, 96), image.getRGB(0, 0, 96, 64, null, 0, 96));
+        }
+    }
+
+    @Test
+    void partialImage() throws IOException {
+        // GIVEN
+        final byte[] imageData = TestResources.readResource("/images/lossy.webp");
+
+        try (final WebPIncrementalDecoder decoder = new WebPIncrementalDecoder()) {
+            // WHEN
+            final BufferedImage beforeHeaders = decoder.getImage();
+            final boolean complete = decoder.append(imageData, 0, imageData.length / 2);
+            final BufferedImage image = decoder.getImage();
+
+            // THEN
+            assertNull(beforeHeaders);
+            assertFalse(complete);
+            assertEquals(128, decoder.getWidth());
+            assertEquals(96, decoder.getHeight());
+            final int rows = decoder.getDecodedRows();
+            assertTrue(rows > 0 && rows < 96, "rows = " + rows);
+            // The rows that aren't decoded yet are transparent
+            final int[] lastRow = image.getRGB(0, 95, 128, 1, null, 0, 128);
+            assertTrue(Arrays.stream(lastRow).allMatch(argb -> argb >>> 24 == 0));
+        }
+    }
+
+    @Test
+    void truncatedStream() throws IOException {
+        // GIVEN
+        final byte[] imageData = TestResources.readResource("/images/lossy.webp");
+        final byte[] truncated = Arrays.copyOf(imageData, imageData.length / 2);
+
+        // WHEN
+        final boolean complete;
+        try (final WebPIncrementalDecoder decoder = new WebPIncrementalDecoder()) {
+            complete = decoder.append(truncated, 0, truncated.length);
+        }
+
+        // THEN
+        assertFalse(complete);
+        assertThrows(WebPDecoderException.class, () -> WebPDecoder.decode(new ByteArrayInputStream(truncated)));
+    }
+}
@@ -0,0 +1,161 @@
+package webpdecoderjn;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WebPMemoryBudgetTest {
+    @BeforeAll
+    static void setUp() throws IOException {
+        WebPLoader.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        WebPMemoryBudget.setGlobal(null);
+    }
+
+    @Test
+    void reserve() throws IOException {
+        // GIVEN
+        final WebPMemoryBudget budget = new WebPMemoryBudget(100, WebPMemoryBudget.Policy.WAIT);
+
+        // WHEN
+        final WebPMemoryBudget.Reservation reservation = budget.reserve(60);
+        final long reserved = budget.getReservedBytes();
+        reservation.close();
+        reservation.close();
+
+        // THEN
+        assertEquals(60L, reservation.getBytes());
+        assertEquals(60L, reserved);
+        assertEquals(0L, budget.getReservedBytes());
+    }
+
+    @Test
+    void fail() throws IOException {
+        // GIVEN
+        final WebPMemoryBudget budget = new WebPMemoryBudget(100, WebPMemoryBudget.Policy.FAIL);
+
+        try (final WebPMemoryBudget.Reservation reservation = budget.reserve(60)) {
+            // WHEN
+            final WebPMemoryBudgetException ex = assertThrows(WebPMemoryBudgetException.class, () -> budget.reserve(50));
+
+            // THEN
+            assertEquals(50L, ex.getRequestedBytes());
+            assertEquals(40L, ex.getAvailableBytes());
+        }
+        assertThrows(WebPMemoryBudgetException.class, () -> budget.reserve(200));
+    }
+
+    @Test
+    void downgrade() throws IOException {
+        // GIVEN
+        final WebPMemoryBudget budget = new WebPMemoryBudget(100, WebPMemoryBudget.Policy.DOWNGRADE);
+
+        try (final WebPMemoryBudget.Reservation reservation = budget.reserve(60)) {
+            // WHEN
+            try (final WebPMemoryBudget.Reservation downgraded = budget.reserve(10, 50)) {
+                // THEN
+                assertEquals(40L, downgraded.getBytes());
+            }
+        }
+    }
+
+    @Test
+    void waitForRelease() throws Exception {
+        // GIVEN
+        final WebPMemoryBudget budget = new WebPMemoryBudget(100, WebPMemoryBudget.Policy.WAIT);
+        final WebPMemoryBudget.Reservation first = budget.reserve(80);
+        final AtomicLong granted = new AtomicLong();
+        final Thread thread = new Thread(() -> {
+            try (final WebPMemoryBudget.Reservation second = budget.reserve(50)) {
+                granted.set(second.getBytes());
+            } catch (final IOException ex) {
+                throw new IllegalStateException(ex);
+            }
+        });
+
+        // WHEN
+        thread.start();
+        while (thread.getState() != Thread.State.WAITING) {
+            Thread.sleep(1);
+        }
+        final long grantedWhileReserved = granted.get();
+        first.close();
+        thread.join();
+
+        // THEN
+        assertEquals(0L, grantedWhileReserved);
+        assertEquals(50L, granted.get());
+        assertEquals(0L, budget.getReservedBytes());
+    }
+
+    @Test
+    void overTheLimit() throws IOException {
+        // GIVEN
+        final WebPMemoryBudget budget = new WebPMemoryBudget(100, WebPMemoryBudget.Policy.WAIT);
+
+        // WHEN
+        try (final WebPMemoryBudget.Reservation reservation = budget.reserve(200)) {
+            // THEN
+            assertEquals(200L, reservation.getBytes());
+        }
+    }
+
+    @Test
+    void decodeDowngraded() throws IOException {
+        // GIVEN
+        final byte[] imageData = WebPEncoder.encode(new BufferedImage(64, 64, BufferedImage.TYPE_INT_ARGB));
+        WebPMemoryBudget.setGlobal(new WebPMemoryBudget(imageData.length + 10_000, WebPMemoryBudget.Policy.DOWNGRADE));
+
+        // WHEN
+        final WebPImage image = WebPDecoder.decode(imageData);
+
+        // THEN
+        assertTrue(image.canvasWidth < 64);
+        assertEquals(image.canvasWidth, image.canvasHeight);
+        assertEquals(0L, WebPMemoryBudget.getGlobal().getReservedBytes());
+    }
+
+    @Test
+    void decodeFail() throws IOException {
+        // GIVEN
+        final byte[] imageData = WebPEncoder.encode(new BufferedImage(64, 64, BufferedImage.TYPE_INT_ARGB));
+        WebPMemoryBudget.setGlobal(new WebPMemoryBudget(1000, WebPMemoryBudget.Policy.FAIL));
+
+        // WHEN / THEN
+        assertThrows(WebPMemoryBudgetException.class, () -> WebPDecoder.decode(imageData));
+    }
+
+    @Test
+    void decodeStreamDowngraded() throws IOException {
+        // GIVEN
+        final byte[] imageData = WebPEncoder.encode(new BufferedImage(64, 64, BufferedImage.TYPE_INT_ARGB));
+        WebPMemoryBudget.setGlobal(new WebPMemoryBudget(imageData.length + 10_000, WebPMemoryBudget.Policy.DOWNGRADE));
+
+        // WHEN
+        final WebPImage image = WebPDecoder.decode(new ByteArrayInputStream(imageData));
+
+        // THEN
+        assertTrue(image.canvasWidth < 64);
+        assertEquals(image.canvasWidth, image.canvasHeight);
+        assertEquals(0L, WebPMemoryBudget.getGlobal().getReservedBytes());
+    }
+
+    @Test
+    void decodeStreamFail() throws IOException {
+        // GIVEN
+        final byte[] imageData = WebPEncoder.encode(new BufferedImage(64, 64, BufferedImage.TYPE_INT_ARGB));
+        WebPMemoryBudget.setGlobal(new WebPMemoryBudget(1000, WebPMemoryBudget.Policy.FAIL));
+
+        // WHEN / THEN
+        assertThrows(WebPMemoryBudgetException.class, () -> WebPDecoder.decode(new ByteArrayInputStream(imageData)));
+    }
+}
@@ -0,0 +1,62 @@
+package webpdecoderjn;
+
+import java.io.IOException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WebPNativeMemoryTest {
+    @BeforeAll
+    static void setUp() throws IOException {
+        WebPLoader.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        WebPNativeMemory.setLeakTracking(false);
+    }
+
+    @Test
+    void trackAllocations() throws IOException {
+        // GIVEN
+        final byte[] imageData = TestResources.newImageData();
+        WebPNativeMemory.setLeakTracking(true);
+        final long before = WebPNativeMemory.getTrackedBytes();
+
+        // WHEN
+        final long open;
+        final boolean recorded;
+        try (final WebPFrameDecoder decoder = new WebPFrameDecoder(imageData)) {
+            open = WebPNativeMemory.getTrackedBytes();
+            recorded = WebPNativeMemory.getTrackedAllocations().stream()
+                    .anyMatch(allocation -> allocation.type.equals("WebPData") && !allocation.stackTrace.isEmpty());
+        }
+
+        // THEN
+        assertEquals(before + imageData.length, open);
+        assertTrue(recorded);
+        assertEquals(before, WebPNativeMemory.getTrackedBytes());
+    }
+
+    @Test
+    void releaseUnclosed() throws Exception {
+        // GIVEN
+        final byte[] imageData = TestResources.newImageData();
+        WebPNativeMemory.setLeakTracking(true);
+        final long before = WebPNativeMemory.getTrackedBytes();
+        final long leaks = WebPNativeMemory.getLeakCount();
+
+        // WHEN
+        new WebPFrameDecoder(imageData);
+        for (int i = 0; i < 500 && WebPNativeMemory.getLeakCount() == leaks; ++i) {
+            System.gc();
+            Thread.sleep(10);
+        }
+
+        // THEN
+        assertTrue(WebPNativeMemory.getLeakCount() > leaks);
+        assertEquals(before, WebPNativeMemory.getTrackedBytes());
+    }
+}